@@ -0,0 +1,88 @@
+package codesmell.benchmark;
+
+import codesmell.audit.AuditLog;
+import codesmell.audit.AuditOutcome;
+import codesmell.exception.SpikeException;
+import codesmell.util.Fingerprint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * the cost of recording an exchange from many threads,
+ * a binary audit record against a text line
+ * shaped like the logback.xml pattern with the body in it
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class AuditLogBenchmark {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd | HH:mm:ss.SSS");
+
+    @State(Scope.Benchmark)
+    public static class LogState {
+
+        Path directory;
+        AuditLog auditLog;
+        BufferedWriter textLog;
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            directory = Files.createTempDirectory("audit-benchmark");
+            auditLog = new AuditLog(directory.resolve("audit"), 64 * 1024 * 1024, 4);
+            auditLog.open();
+            textLog = Files.newBufferedWriter(directory.resolve("text.log"), StandardCharsets.UTF_8);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            auditLog.close();
+            textLog.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void binaryRecord(LogState state) throws IOException {
+        state.auditLog.write(System.currentTimeMillis(), 3, "fooRoute", AuditOutcome.UNHANDLED, 
+            SpikeException.class.getName(), Fingerprint.of(FooRouteBenchmark.ERROR_BODY));
+    }
+
+    @Benchmark
+    public void textLine(LogState state) throws IOException {
+        String line = String.format(
+            "%s | %-20.20s | %5s | %-25.25s | route=%s outcome=%s duration=%dms exception=%s body=%s%n",
+            LocalDateTime.now().format(TIMESTAMP), Thread.currentThread().getName(), "INFO", "fooRoute",
+            "fooRoute", AuditOutcome.UNHANDLED, 3, SpikeException.class.getName(), FooRouteBenchmark.ERROR_BODY);
+        synchronized (state.textLog) {
+            state.textLog.write(line);
+        }
+    }
+}
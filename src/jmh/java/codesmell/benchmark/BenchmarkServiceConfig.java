@@ -0,0 +1,77 @@
+package codesmell.benchmark;
+
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.service.DefaultFooBar;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * stand-in services for the benchmarks
+ * <p>
+ * the body decides how the service behaves
+ * so each benchmark can pick the path it measures
+ * <p>
+ * Note: this is intentionally NOT a @Configuration
+ * so the component scan of the tests never picks it up,
+ * it is registered explicitly by {@link CamelContextState}
+ */
+public class BenchmarkServiceConfig {
+
+    /**
+     * bodies containing this make the service throw a FooBarException
+     */
+    public static final String HANDLED_MARKER = "boom";
+
+    /**
+     * bodies containing this make the service throw a SpikeException
+     */
+    public static final String UNHANDLED_MARKER = "spike";
+
+    /**
+     * bodies containing this make the service block like slow I/O
+     */
+    public static final String SLOW_MARKER = "slow";
+
+    /**
+     * how long a slow call blocks
+     */
+    public static final long SLOW_MILLIS = 10;
+
+    @Bean
+    @Primary
+    public FooBar benchmarkFooBar() {
+        FooBar delegate = new DefaultFooBar();
+        return incoming -> delegate.process(misbehave(incoming));
+    }
+
+    @Bean
+    public Grokker benchmarkGrokker() {
+        return incoming -> "grokked_" + misbehave(incoming);
+    }
+
+    @Bean
+    public HeisenBugger benchmarkHeisenBugger() {
+        return incoming -> "observed_" + misbehave(incoming);
+    }
+
+    static String misbehave(String incoming) {
+        if (incoming.contains(SLOW_MARKER)) {
+            try {
+                Thread.sleep(SLOW_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (incoming.contains(UNHANDLED_MARKER)) {
+            throw new SpikeException("benchmark spike");
+        }
+        if (incoming.contains(HANDLED_MARKER)) {
+            throw new FooBarException("benchmark boom");
+        }
+        return incoming;
+    }
+}
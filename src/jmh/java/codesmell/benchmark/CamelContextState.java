@@ -0,0 +1,79 @@
+package codesmell.benchmark;
+
+import codesmell.BootApplication;
+import codesmell.camel.CamelConstants;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * boots the application once per trial
+ * with all of the route builders
+ * and the benchmark services
+ */
+@State(Scope.Benchmark)
+public class CamelContextState {
+
+    private ConfigurableApplicationContext applicationContext;
+    private CamelContext camelContext;
+    private ProducerTemplate producer;
+
+    @Setup(Level.Trial)
+    public void start() {
+        applicationContext = new SpringApplicationBuilder(BootApplication.class, BenchmarkServiceConfig.class)
+            .web(WebApplicationType.NONE)
+            .properties(applicationProperties())
+            .run();
+
+        camelContext = applicationContext.getBean(CamelContext.class);
+        producer = camelContext.createProducerTemplate();
+
+        // the mock endpoints would otherwise keep every exchange
+        quietMockEndpoint(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI);
+        quietMockEndpoint(CamelConstants.MAIN_CONFIGURATOR_OUTGOING_ENDPOINT_URI);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        producer.close();
+        applicationContext.close();
+    }
+
+    /**
+     * extra Spring properties for the trial
+     * subclasses add their own switches
+     */
+    protected String[] applicationProperties() {
+        return new String[] {
+            // otherwise the console is the bottleneck
+            "logging.level.root=WARN"
+        };
+    }
+
+    public Exchange send(String endpointUri, String body) {
+        return producer.send(endpointUri, exchange -> exchange.getMessage().setBody(body));
+    }
+
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    public ConfigurableApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+
+    private void quietMockEndpoint(String uri) {
+        MockEndpoint mock = camelContext.getEndpoint(uri, MockEndpoint.class);
+        mock.setRetainFirst(0);
+        mock.setRetainLast(0);
+    }
+}
@@ -0,0 +1,75 @@
+package codesmell.benchmark;
+
+import codesmell.deadletter.DeadLetterJournal;
+import codesmell.exception.SpikeException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * durable dead letters from many threads at once,
+ * each append waits until its record is forced to disk
+ * <p>
+ * a batch size of 1 forces every record on its own,
+ * the bigger batches share one force between the waiting threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(32)
+public class DeadLetterJournalBenchmark {
+
+    private static final Map<String, String> HEADERS = Map.of("orderId", "42", "CamelHttpMethod", "POST");
+
+    @State(Scope.Benchmark)
+    public static class JournalState {
+
+        @Param({ "1", "64", "1024" })
+        int batchSize;
+
+        Path directory;
+        DeadLetterJournal journal;
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            directory = Files.createTempDirectory("deadletter-benchmark");
+            journal = new DeadLetterJournal(directory, 64 * 1024 * 1024, 4, batchSize, 65536);
+            journal.open();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public Long append(JournalState state) throws Exception {
+        return state.journal.append(System.currentTimeMillis(), "fooRoute", SpikeException.class.getName(), 
+            "boom!", FooRouteBenchmark.ERROR_BODY, HEADERS).get();
+    }
+}
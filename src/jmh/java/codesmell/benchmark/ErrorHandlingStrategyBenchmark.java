@@ -0,0 +1,110 @@
+package codesmell.benchmark;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs the same exception mix through each
+ * of the sub-route error handling strategies
+ * <p>
+ * SampleTime gives the p50/p99 latency,
+ * run with <code>-prof gc</code> for the allocation rate per exchange
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ErrorHandlingStrategyBenchmark {
+
+    public enum Strategy {
+        /**
+         * GrokSubRouteRemoveErrorHandlerRouteBuilder
+         */
+        NO_ERROR_HANDLER(CamelConstants.MAIN_ENDPOINT_URI, "grok"),
+        /**
+         * HeisenbugSubRouteRouteBuilder
+         */
+        DEFAULT_ERROR_HANDLER(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug"),
+        /**
+         * CamelExceptionRouteConfigurationBuilder
+         */
+        ROUTE_CONFIGURATION(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, "grok");
+
+        private final String endpointUri;
+        private final String keyword;
+
+        Strategy(String endpointUri, String keyword) {
+            this.endpointUri = endpointUri;
+            this.keyword = keyword;
+        }
+    }
+
+    /**
+     * the same bodies in the same order for every strategy
+     */
+    @State(Scope.Thread)
+    public static class ExceptionMix {
+
+        private static final int MIX_SIZE = 100;
+
+        @Param
+        Strategy strategy;
+
+        /**
+         * percentage of bodies that fail,
+         * split evenly between handled and unhandled
+         */
+        @Param({ "0", "10", "50" })
+        int errorPercent;
+
+        private String[] bodies;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void buildMix() {
+            int failures = MIX_SIZE * errorPercent / 100;
+            List<String> mix = new ArrayList<>(MIX_SIZE);
+            for (int i = 0; i < MIX_SIZE; i++) {
+                if (i < failures / 2) {
+                    mix.add(strategy.keyword + BenchmarkServiceConfig.HANDLED_MARKER);
+                } else if (i < failures) {
+                    mix.add(strategy.keyword + BenchmarkServiceConfig.UNHANDLED_MARKER);
+                } else {
+                    mix.add(strategy.keyword);
+                }
+            }
+            Collections.shuffle(mix, new Random(42));
+            bodies = mix.toArray(new String[0]);
+        }
+
+        String nextBody() {
+            String body = bodies[next];
+            next = (next + 1) % bodies.length;
+            return body;
+        }
+    }
+
+    @Benchmark
+    public Exchange exceptionMix(CamelContextState state, ExceptionMix mix) {
+        return state.send(mix.strategy.endpointUri, mix.nextBody());
+    }
+}
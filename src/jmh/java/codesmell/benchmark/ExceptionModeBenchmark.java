@@ -0,0 +1,80 @@
+package codesmell.benchmark;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.ExceptionMode;
+import codesmell.exception.FooBarException;
+import org.apache.camel.Exchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost of the exceptions used as control flow
+ * for each {@link ExceptionMode}
+ * <p>
+ * errorStorm sends nothing but "error" bodies through direct:foo,
+ * every one throws a FooBarException and then a SpikeException from the onException
+ * <p>
+ * throwAndCatch is the raw cost of a throw
+ * from a stack about as deep as a Camel route
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExceptionModeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Setting {
+
+        @Param
+        ExceptionMode mode;
+
+        @Param({ "100" })
+        int stackDepth;
+
+        @Setup(Level.Trial)
+        public void apply() {
+            ExceptionMode.setCurrent(mode);
+        }
+
+        @TearDown(Level.Trial)
+        public void reset() {
+            ExceptionMode.setCurrent(ExceptionMode.FULL);
+        }
+    }
+
+    @Benchmark
+    public Exchange errorStorm(CamelContextState state, Setting setting) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, FooRouteBenchmark.ERROR_BODY);
+    }
+
+    @Benchmark
+    public Object throwAndCatch(Setting setting) {
+        try {
+            return throwAt(setting.stackDepth);
+        } catch (FooBarException e) {
+            return e;
+        }
+    }
+
+    private static Object throwAt(int depth) {
+        if (depth == 0) {
+            throw FooBarException.of("can't handle the message");
+        }
+        return throwAt(depth - 1);
+    }
+}
@@ -0,0 +1,72 @@
+package codesmell.benchmark;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost per exchange of each path through direct:foo
+ * <p>
+ * Throughput reports ops/us
+ * SampleTime reports the latency percentiles
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FooRouteBenchmark {
+
+    /**
+     * reversed by the FooBar this starts with "error"
+     */
+    static final String ERROR_BODY = "foo_rorre";
+
+    @Benchmark
+    public Exchange plainFoo(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "foobar");
+    }
+
+    @Benchmark
+    public Exchange handledFooBarException(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "foo" + BenchmarkServiceConfig.HANDLED_MARKER);
+    }
+
+    @Benchmark
+    public Exchange errorBodyRethrowsSpikeException(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, ERROR_BODY);
+    }
+
+    @Benchmark
+    public Exchange unhandledSpikeException(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "foo" + BenchmarkServiceConfig.UNHANDLED_MARKER);
+    }
+
+    @Benchmark
+    public Exchange grokSubRoute(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "grok");
+    }
+
+    @Benchmark
+    public Exchange grokSubRouteHandledByMainRoute(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "grok" + BenchmarkServiceConfig.HANDLED_MARKER);
+    }
+
+    @Benchmark
+    public Exchange heisenbugSubRoute(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug");
+    }
+
+    @Benchmark
+    public Exchange heisenbugSubRouteFailure(CamelContextState state) {
+        return state.send(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug" + BenchmarkServiceConfig.HANDLED_MARKER);
+    }
+}
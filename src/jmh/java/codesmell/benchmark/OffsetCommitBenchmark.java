@@ -0,0 +1,97 @@
+package codesmell.benchmark;
+
+import codesmell.camel.CamelConstants;
+import codesmell.partitionlog.OffsetStore;
+import codesmell.partitionlog.PartitionConsumer;
+import codesmell.partitionlog.PartitionedLog;
+import org.apache.camel.ProducerTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * messages a second through direct:foo from the partitioned log
+ * with a commit per message against commits in batches
+ * <p>
+ * with handledEvery above 0 that share of the messages
+ * throws a FooBarException the onException handles,
+ * those still move the offset on
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OffsetCommitBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ConsumerState {
+
+        @Param({ "1", "10", "100", "1000" })
+        int commitBatchSize;
+
+        /**
+         * 0 for no errors, 10 for one in ten handled
+         */
+        @Param({ "0", "10" })
+        int handledEvery;
+
+        Path directory;
+        PartitionedLog log;
+        OffsetStore offsetStore;
+        ProducerTemplate producer;
+        PartitionConsumer consumer;
+        long sent;
+
+        @Setup(Level.Trial)
+        public void open(CamelContextState state) throws IOException {
+            directory = Files.createTempDirectory("offset-benchmark");
+            log = new PartitionedLog(directory, 1);
+            offsetStore = new OffsetStore(directory, 1);
+            producer = state.getCamelContext().createProducerTemplate();
+            // only the batch size triggers a commit
+            consumer = new PartitionConsumer(0, log, offsetStore, producer, CamelConstants.MAIN_ENDPOINT_URI,
+                commitBatchSize, Long.MAX_VALUE / 1_000_000, 1);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws Exception {
+            producer.close();
+            offsetStore.close();
+            log.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        String nextBody() {
+            sent++;
+            return handledEvery > 0 && sent % handledEvery == 0 
+                ? "foo" + BenchmarkServiceConfig.HANDLED_MARKER 
+                : "foobar";
+        }
+    }
+
+    @Benchmark
+    public int consume(ConsumerState state) throws IOException {
+        state.log.append(0, state.nextBody());
+        return state.consumer.poll();
+    }
+}
@@ -0,0 +1,104 @@
+package codesmell.benchmark;
+
+import codesmell.camel.CamelConstants;
+import codesmell.camel.threads.ThreadMode;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.DefaultExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * platform vs virtual threads for the main route
+ * when the sub route blocks on a slow service
+ * <p>
+ * each operation puts inFlight exchanges on direct:foo at once
+ * and waits for all of them, the heisenbug service blocks
+ * for {@link BenchmarkServiceConfig#SLOW_MILLIS} on each one
+ * <p>
+ * divide inFlight by the score for exchanges per millisecond,
+ * run with <code>-prof gc</code> to compare the allocation rate
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RouteThreadsBenchmark {
+
+    private static final String SLOW_BODY = CamelConstants.HEISENBUG_KEYWORD + BenchmarkServiceConfig.SLOW_MARKER;
+
+    @State(Scope.Benchmark)
+    public static class ThreadedContext extends CamelContextState {
+
+        @Param({ "PLATFORM", "VIRTUAL" })
+        ThreadMode mode;
+
+        /**
+         * same as the default pool size of the route threads
+         */
+        @Param({ "200" })
+        int poolSize;
+
+        @Param({ "1000", "10000", "50000" })
+        int inFlight;
+
+        private AsyncProducer producer;
+
+        @Override
+        protected String[] applicationProperties() {
+            return new String[] {
+                "logging.level.root=WARN",
+                "codesmell.threads.mode=" + mode,
+                "codesmell.threads.pool-size=" + poolSize
+            };
+        }
+
+        @Setup(Level.Trial)
+        public void startProducer() throws Exception {
+            producer = getCamelContext().getEndpoint(CamelConstants.MAIN_ENDPOINT_URI).createAsyncProducer();
+            producer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopProducer() {
+            producer.stop();
+        }
+    }
+
+    @Benchmark
+    public int slowSubRoute(ThreadedContext state) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(state.inFlight);
+        AtomicInteger failed = new AtomicInteger();
+
+        for (int i = 0; i < state.inFlight; i++) {
+            Exchange exchange = new DefaultExchange(state.getCamelContext());
+            exchange.getMessage().setBody(SLOW_BODY);
+            // the route hands off at threads() so the send does not block
+            state.producer.process(exchange, doneSync -> {
+                if (exchange.isFailed()) {
+                    failed.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+        return failed.get();
+    }
+}
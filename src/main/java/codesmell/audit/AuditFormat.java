@@ -0,0 +1,51 @@
+package codesmell.audit;
+
+import java.nio.file.Path;
+
+/**
+ * the layout of the audit log files,
+ * shared by the writer and the reader
+ * <p>
+ * only the JDK so the reader runs without the application
+ */
+final class AuditFormat {
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".bin";
+
+    static final int MAGIC = 0x43534155;
+    static final short VERSION = 1;
+    static final int RECORD_SIZE = 32;
+
+    // the header
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 6;
+    static final int HEADER_FIRST_INDEX = 8;
+
+    // a record
+    static final int TIMESTAMP = 0;
+    static final int BODY_HASH = 8;
+    static final int DURATION = 16;
+    static final int ROUTE = 20;
+    static final int EXCEPTION_CLASS = 24;
+    static final int OUTCOME = 28;
+
+    static String segmentName(long firstIndex) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstIndex, SEGMENT_SUFFIX);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static long firstIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private AuditFormat() {
+        // you can't make me
+    }
+}
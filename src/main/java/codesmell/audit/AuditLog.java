@@ -0,0 +1,230 @@
+package codesmell.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * one fixed size binary record per exchange
+ * in memory-mapped segment files
+ * <p>
+ * a record is 32 bytes
+ * <pre>
+ * long timestamp | long body hash | int duration ms | int route | int exception class | byte outcome | 3 bytes spare
+ * </pre>
+ * the route and exception class are numbers from the symbols file,
+ * the outcome is written last and 0 means the slot is empty
+ * <p>
+ * the records are all the same size so a writer claims its slot
+ * with one atomic add and writes it on its own thread,
+ * there is no lock, queue or formatting on the way
+ * <p>
+ * the first slot of a segment is its header
+ * <pre>
+ * int magic | short version | short record size | long first index | 16 bytes spare
+ * </pre>
+ * a segment is named after the index of its first record,
+ * the oldest are deleted past the max segments
+ * <p>
+ * the segments are only forced to disk as they fill and on close,
+ * a crashed process loses nothing but a crashed machine can
+ */
+public class AuditLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLog.class);
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final AuditSymbols symbols;
+
+    // first index > segment file, the ones from earlier runs too
+    private final NavigableMap<Long, Path> files = new ConcurrentSkipListMap<>();
+    // first index > segment mapped by this run
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile Segment current;
+    private final AtomicLong nextIndex = new AtomicLong();
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param segmentSize the bytes in a segment, the header included
+     */
+    public AuditLog(Path directory, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        // less the header slot
+        this.recordsPerSegment = Math.max(1, segmentSize / AuditFormat.RECORD_SIZE - 1);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.symbols = new AuditSymbols(directory);
+    }
+
+    /**
+     * loads the symbols and starts a new segment after the last one
+     */
+    public synchronized void open() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(directory);
+        symbols.load();
+        symbols.openForWrite();
+
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(AuditFormat::isSegment)
+                .forEach(path -> files.put(AuditFormat.firstIndex(path), path));
+        }
+        // the segments of the last run may be another size
+        long next = files.isEmpty() ? 0 : files.lastKey() + recordsIn(files.lastEntry().getValue());
+        nextIndex.set(next);
+        current = this.createSegment(next);
+        running = true;
+        LOGGER.info("audit log in {} starts at record {}", directory, next);
+    }
+
+    /**
+     * @param timestamp when the exchange was created
+     * @param exceptionClass null on success
+     * @param bodyHash 0 for no body
+     */
+    public void write(long timestamp, long durationMillis, String routeId, AuditOutcome outcome, 
+        String exceptionClass, long bodyHash) throws IOException {
+        
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        int route = symbols.numberOf(routeId);
+        int exception = symbols.numberOf(exceptionClass);
+
+        long index = nextIndex.getAndIncrement();
+        Segment segment = this.segmentFor(index);
+        if (segment == null) {
+            // so far behind that its segment was deleted, or closed
+            dropped.increment();
+            return;
+        }
+        int position = (int) (index - segment.firstIndex + 1) * AuditFormat.RECORD_SIZE;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(position + AuditFormat.TIMESTAMP, timestamp);
+        buffer.putLong(position + AuditFormat.BODY_HASH, bodyHash);
+        buffer.putInt(position + AuditFormat.DURATION, (int) Math.min(Integer.MAX_VALUE, durationMillis));
+        buffer.putInt(position + AuditFormat.ROUTE, route);
+        buffer.putInt(position + AuditFormat.EXCEPTION_CLASS, exception);
+        // last so a reader never sees half a record
+        VarHandle.releaseFence();
+        buffer.put(position + AuditFormat.OUTCOME, outcome.code());
+        written.increment();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * the records written after close
+     * or to a segment already deleted
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+        segments.clear();
+        files.clear();
+        current = null;
+        symbols.close();
+    }
+
+    private Segment segmentFor(long index) throws IOException {
+        Segment segment = current;
+        if (segment != null && index >= segment.firstIndex && index < segment.firstIndex + recordsPerSegment) {
+            return segment;
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(index);
+        if (entry != null && index < entry.getKey() + recordsPerSegment) {
+            return entry.getValue();
+        }
+        return this.roll(index);
+    }
+
+    private synchronized Segment roll(long index) throws IOException {
+        if (!running) {
+            return null;
+        }
+        // another writer may have rolled already
+        while (current.firstIndex + recordsPerSegment <= index) {
+            Segment full = current;
+            current = this.createSegment(full.firstIndex + recordsPerSegment);
+            full.buffer.force();
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(index);
+        return entry == null ? null : entry.getValue();
+    }
+
+    private Segment createSegment(long firstIndex) throws IOException {
+        Path path = directory.resolve(AuditFormat.segmentName(firstIndex));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, 
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            long size = (long) (recordsPerSegment + 1) * AuditFormat.RECORD_SIZE;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(AuditFormat.HEADER_MAGIC, AuditFormat.MAGIC);
+        buffer.putShort(AuditFormat.HEADER_VERSION, AuditFormat.VERSION);
+        buffer.putShort(AuditFormat.HEADER_RECORD_SIZE, (short) AuditFormat.RECORD_SIZE);
+        buffer.putLong(AuditFormat.HEADER_FIRST_INDEX, firstIndex);
+
+        Segment segment = new Segment(firstIndex, buffer);
+        segments.put(firstIndex, segment);
+        files.put(firstIndex, path);
+
+        while (files.size() > maxSegments) {
+            Map.Entry<Long, Path> oldest = files.pollFirstEntry();
+            segments.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue());
+        }
+        return segment;
+    }
+
+    private static long recordsIn(Path path) throws IOException {
+        return Math.max(0, Files.size(path) / AuditFormat.RECORD_SIZE - 1);
+    }
+
+    private static final class Segment {
+        private final long firstIndex;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long firstIndex, MappedByteBuffer buffer) {
+            this.firstIndex = firstIndex;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package codesmell.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * reads the audit log back
+ * <p>
+ * run it against the audit directory to print the records
+ * <pre>
+ * java -cp target/classes codesmell.audit.AuditLogReader [--csv] audit
+ * </pre>
+ * it only needs the JDK
+ */
+public class AuditLogReader {
+
+    private static final String CSV_HEADER = "index,timestamp,route,outcome,duration_ms,exception,body_hash";
+
+    private final Path directory;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * the records in order, the empty slots are skipped
+     */
+    public void read(Consumer<AuditRecord> consumer) throws IOException {
+        AuditSymbols symbols = new AuditSymbols(directory);
+        symbols.load();
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(AuditFormat::isSegment)
+                .sorted((a, b) -> Long.compare(AuditFormat.firstIndex(a), AuditFormat.firstIndex(b)))
+                .collect(Collectors.toList());
+        }
+        for (Path segment : segments) {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                // deleted as the audit log rolled
+                continue;
+            }
+            this.read(segment, buffer, symbols, consumer);
+        }
+    }
+
+    private void read(Path segment, ByteBuffer buffer, AuditSymbols symbols, Consumer<AuditRecord> consumer) 
+        throws IOException {
+        
+        if (buffer.limit() < AuditFormat.RECORD_SIZE || buffer.getInt(AuditFormat.HEADER_MAGIC) != AuditFormat.MAGIC) {
+            throw new IOException(segment + " is not an audit log segment");
+        }
+        int recordSize = buffer.getShort(AuditFormat.HEADER_RECORD_SIZE);
+        if (buffer.getShort(AuditFormat.HEADER_VERSION) != AuditFormat.VERSION || recordSize != AuditFormat.RECORD_SIZE) {
+            throw new IOException(segment + " is an audit log version this reader doesn't know");
+        }
+        long firstIndex = buffer.getLong(AuditFormat.HEADER_FIRST_INDEX);
+        int slots = buffer.limit() / recordSize;
+        for (int slot = 1; slot < slots; slot++) {
+            int position = slot * recordSize;
+            AuditOutcome outcome = AuditOutcome.of(buffer.get(position + AuditFormat.OUTCOME));
+            if (outcome == null) {
+                continue;
+            }
+            consumer.accept(new AuditRecord(
+                firstIndex + slot - 1,
+                buffer.getLong(position + AuditFormat.TIMESTAMP),
+                buffer.getInt(position + AuditFormat.DURATION),
+                name(symbols, buffer.getInt(position + AuditFormat.ROUTE)),
+                outcome,
+                name(symbols, buffer.getInt(position + AuditFormat.EXCEPTION_CLASS)),
+                buffer.getLong(position + AuditFormat.BODY_HASH)));
+        }
+    }
+
+    public static String toText(AuditRecord record) {
+        return String.format("%d | %s | %-25s | %-9s | %6d ms | %s | %016x",
+            record.getIndex(),
+            Instant.ofEpochMilli(record.getTimestamp()),
+            record.getRouteId(),
+            record.getOutcome(),
+            record.getDurationMillis(),
+            record.getExceptionClass() == null ? "-" : record.getExceptionClass(),
+            record.getBodyHash());
+    }
+
+    public static String toCsv(AuditRecord record) {
+        return String.join(",",
+            String.valueOf(record.getIndex()),
+            Instant.ofEpochMilli(record.getTimestamp()).toString(),
+            csv(record.getRouteId()),
+            record.getOutcome().name(),
+            String.valueOf(record.getDurationMillis()),
+            csv(record.getExceptionClass()),
+            String.format("%016x", record.getBodyHash()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean csv = false;
+        String directory = null;
+        for (String arg : args) {
+            if ("--csv".equals(arg)) {
+                csv = true;
+            } else {
+                directory = arg;
+            }
+        }
+        if (directory == null) {
+            System.err.println("usage: AuditLogReader [--csv] <audit directory>");
+            System.exit(1);
+        }
+
+        PrintStream out = System.out;
+        if (csv) {
+            out.println(CSV_HEADER);
+        }
+        boolean asCsv = csv;
+        new AuditLogReader(Paths.get(directory))
+            .read(record -> out.println(asCsv ? toCsv(record) : toText(record)));
+        out.flush();
+    }
+
+    private static String name(AuditSymbols symbols, int number) {
+        if (number == 0) {
+            return null;
+        }
+        String name = symbols.nameOf(number);
+        // the symbols file lost its last lines
+        return name == null ? "#" + number : name;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,35 @@
+package codesmell.audit;
+
+/**
+ * how an exchange ended
+ */
+public enum AuditOutcome {
+    /**
+     * no exception
+     */
+    SUCCESS,
+    /**
+     * an onException handled the exception
+     */
+    HANDLED,
+    /**
+     * the exchange failed
+     */
+    UNHANDLED;
+
+    private static final AuditOutcome[] VALUES = values();
+
+    /**
+     * the byte in the record, 0 is an empty slot
+     */
+    byte code() {
+        return (byte) (this.ordinal() + 1);
+    }
+
+    /**
+     * null for an empty slot
+     */
+    static AuditOutcome of(byte code) {
+        return code < 1 || code > VALUES.length ? null : VALUES[code - 1];
+    }
+}
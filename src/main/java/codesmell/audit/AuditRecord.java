@@ -0,0 +1,66 @@
+package codesmell.audit;
+
+/**
+ * an exchange read back from the audit log
+ */
+public class AuditRecord {
+    private final long index;
+    private final long timestamp;
+    private final int durationMillis;
+    private final String routeId;
+    private final AuditOutcome outcome;
+    private final String exceptionClass;
+    private final long bodyHash;
+
+    public AuditRecord(long index, long timestamp, int durationMillis, String routeId, 
+        AuditOutcome outcome, String exceptionClass, long bodyHash) {
+        
+        this.index = index;
+        this.timestamp = timestamp;
+        this.durationMillis = durationMillis;
+        this.routeId = routeId;
+        this.outcome = outcome;
+        this.exceptionClass = exceptionClass;
+        this.bodyHash = bodyHash;
+    }
+
+    /**
+     * the position in the audit log
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * when the exchange was created
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public AuditOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * null on success
+     */
+    public String getExceptionClass() {
+        return exceptionClass;
+    }
+
+    /**
+     * the {@link codesmell.util.Fingerprint} of the body, 0 for no body
+     */
+    public long getBodyHash() {
+        return bodyHash;
+    }
+}
@@ -0,0 +1,103 @@
+package codesmell.audit;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the route ids and exception class names of the audit log
+ * are written once to a side file and the records only keep a number
+ * <p>
+ * each line of the file is
+ * <pre>
+ * number TAB name
+ * </pre>
+ * 0 is no name
+ */
+class AuditSymbols implements Closeable {
+
+    static final String FILE_NAME = "symbols.txt";
+
+    private final Path file;
+    private final Map<String, Integer> numbers = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private BufferedWriter writer;
+
+    AuditSymbols(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+    }
+
+    /**
+     * loads the symbols already in the file
+     */
+    void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                // a line torn by a crash
+                continue;
+            }
+            int number = Integer.parseInt(line.substring(0, tab));
+            String name = line.substring(tab + 1);
+            numbers.put(name, number);
+            names.put(number, name);
+        }
+    }
+
+    /**
+     * opens the file for the new symbols
+     */
+    void openForWrite() throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, 
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    int numberOf(String name) throws IOException {
+        if (name == null) {
+            return 0;
+        }
+        Integer number = numbers.get(name);
+        return number != null ? number : this.add(name);
+    }
+
+    /**
+     * null for 0 or a number not in the file
+     */
+    String nameOf(int number) {
+        return number == 0 ? null : names.get(number);
+    }
+
+    private synchronized int add(String name) throws IOException {
+        Integer number = numbers.get(name);
+        if (number != null) {
+            return number;
+        }
+        int next = names.size() + 1;
+        // the file first so a record never has a number the file lacks
+        writer.write(next + "\t" + name);
+        writer.newLine();
+        writer.flush();
+        names.put(next, name);
+        numbers.put(name, next);
+        return next;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package codesmell.audit;
+
+import codesmell.util.Fingerprint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.support.EventNotifierSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * writes an audit record for every exchange as it completes
+ * <p>
+ * an exchange that completes after an onException handled its exception
+ * is HANDLED, a failed exchange is UNHANDLED
+ * <p>
+ * like the dead letters, a sub route on the same exchange
+ * is part of the one record of the route the exchange came in on
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.audit.enabled", havingValue = "true")
+public class ExchangeAuditor extends EventNotifierSupport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeAuditor.class);
+
+    @Value("${codesmell.audit.directory:audit}")
+    private String directory;
+
+    @Value("${codesmell.audit.segment-size-mb:64}")
+    private int segmentSizeMegabytes;
+
+    @Value("${codesmell.audit.max-segments:8}")
+    private int maxSegments;
+
+    private AuditLog auditLog;
+
+    public ExchangeAuditor() {
+        // only the end of the exchanges matter
+        this.setIgnoreCamelContextEvents(true);
+        this.setIgnoreRouteEvents(true);
+        this.setIgnoreServiceEvents(true);
+        this.setIgnoreExchangeCreatedEvent(true);
+        this.setIgnoreExchangeSendingEvents(true);
+        this.setIgnoreExchangeSentEvents(true);
+        this.setIgnoreExchangeRedeliveryEvents(true);
+    }
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event instanceof CamelEvent.ExchangeCompletedEvent
+            || event instanceof CamelEvent.ExchangeFailedEvent;
+    }
+
+    @Override
+    public void notify(CamelEvent event) throws Exception {
+        Exchange exchange = ((CamelEvent.ExchangeEvent) event).getExchange();
+
+        AuditOutcome outcome;
+        Throwable exception;
+        if (event instanceof CamelEvent.ExchangeFailedEvent) {
+            outcome = AuditOutcome.UNHANDLED;
+            exception = exchange.getException();
+        } else {
+            exception = exchange.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+            outcome = exception == null ? AuditOutcome.SUCCESS : AuditOutcome.HANDLED;
+        }
+        String body = exchange.getMessage().getBody(String.class);
+
+        try {
+            auditLog.write(exchange.getClock().getCreated(),
+                exchange.getClock().elapsed(),
+                exchange.getFromRouteId(),
+                outcome,
+                exception == null ? null : exception.getClass().getName(),
+                body == null ? 0 : Fingerprint.of(body));
+        } catch (Exception e) {
+            LOGGER.error("could not audit exchange {}", exchange.getExchangeId(), e);
+        }
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        auditLog = new AuditLog(Paths.get(directory), segmentSizeMegabytes * 1024 * 1024, maxSegments);
+        auditLog.open();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+}
@@ -5,6 +5,8 @@ public final class CamelConstants {
     public static final String SHARED_FOO_ERROR_CONFIG = "fooErrorConfig";
     public static final String SHARED_SPIKE_ERROR_CONFIG = "spikeErrorConfig";
     public static final String SHARED_GROK_ERROR_CONFIG = "grokErrorConfig";
+    public static final String SHARED_RETRY_CONFIG = "retryConfig";
+    public static final String SHARED_BREAKER_ERROR_CONFIG = "breakerErrorConfig";
     
     public static final String MAIN_ENDPOINT_URI = "direct:foo";
     public static final String MAIN_ROUTE_ID = "fooRoute";
@@ -16,6 +18,32 @@ public final class CamelConstants {
     public static final String HEISENBUG_ENDPOINT_URI = "direct:hesienbug";
     public static final String HEISENBUG_ROUTE_ID = "hesienbugRoute";
     
+    public static final String FOO_REJECTED_ENDPOINT_URI = "direct:fooRejected";
+    public static final String FOO_REJECTED_ROUTE_ID = "fooRejectedRoute";
+    public static final String VALIDATION_RESULT_PROPERTY = "CodesmellValidationResult";
+    
+    public static final String INGRESS_ENDPOINT_URI = "direct:fooIngress";
+    public static final String INGRESS_ROUTE_ID = "fooIngressRoute";
+    
+    public static final String ORDERED_ENDPOINT_URI = "direct:fooOrdered";
+    public static final String ORDERED_ROUTE_ID = "fooOrderedRoute";
+    // the messages with the same key stay in order
+    public static final String ORDER_KEY_HEADER = "CodesmellOrderKey";
+    
+    public static final String IDEMPOTENT_ENDPOINT_URI = "direct:fooIdempotent";
+    public static final String IDEMPOTENT_ROUTE_ID = "fooIdempotentRoute";
+    // the id duplicates are found by, the body when there is none
+    public static final String MESSAGE_ID_HEADER = "CodesmellMessageId";
+    
+    public static final String RETRY_ATTEMPT_PROPERTY = "CodesmellRetryAttempt";
+    
+    // the dead letter sequence a replayed message came from
+    public static final String REPLAY_OF_HEADER = "CodesmellReplayOf";
+    
+    // where a message from the partitioned log came from
+    public static final String LOG_PARTITION_HEADER = "CodesmellLogPartition";
+    public static final String LOG_OFFSET_HEADER = "CodesmellLogOffset";
+    
 
 
     public static final String MAIN_CONFIGURATOR_ENDPOINT_URI = "direct:fooConfig";
@@ -25,6 +53,11 @@ public final class CamelConstants {
     public static final String GROK_CONFIGURATOR_ENDPOINT_URI = "direct:grokConfig";
     public static final String GROK_CONFIGURATOR_ROUTE_ID = "grokRouteConfig";
     
+    // keywords in the body that send the message to a sub route
+    public static final String GROK_KEYWORD = "grok";
+    public static final String HEISENBUG_KEYWORD = "heisenbug";
+    public static final String ROUTE_KEYWORD_HEADER = "CodesmellRouteKeyword";
+    
     
     private CamelConstants() {
         // you can't make me
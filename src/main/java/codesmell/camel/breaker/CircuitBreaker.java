@@ -0,0 +1,195 @@
+package codesmell.camel.breaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * a count based sliding window circuit breaker
+ * <p>
+ * CLOSED: every call is made, the outcome of the last windowSize calls is kept
+ * and once there have been minimumCalls the breaker opens
+ * when the failure rate reaches the threshold,
+ * calls slower than slowCallNanos count as failures
+ * <p>
+ * OPEN: no calls are made until openNanos has passed
+ * <p>
+ * HALF_OPEN: a few trial calls are let through,
+ * one failure opens the breaker again, all of them working closes it
+ * <p>
+ * the closed state is checked without a lock,
+ * the outcomes are recorded under the lock
+ * since the window and the state change together
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // the last windowSize outcomes, true is a failure
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final AtomicLong timesOpened = new AtomicLong();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent,
+        long slowCallNanos, long openNanos, int halfOpenCalls) {
+        
+        this(name, windowSize, minimumCalls, failureRatePercent, slowCallNanos, openNanos, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent,
+        long slowCallNanos, long openNanos, int halfOpenCalls, LongSupplier nanoClock) {
+        
+        if (windowSize < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("the window and the half open calls must be at least 1");
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = slowCallNanos <= 0 ? Long.MAX_VALUE : slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * @return false when the call should not be made
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    notPermitted.increment();
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    notPermitted.increment();
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * the outcome of a call that was acquired
+     *
+     * @param failed
+     * @param elapsedNanos
+     */
+    public void onResult(boolean failed, long elapsedNanos) {
+        boolean failure = failed || elapsedNanos >= slowCallNanos;
+        synchronized (this) {
+            switch (state) {
+                case HALF_OPEN:
+                    if (failure) {
+                        this.open();
+                    } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                        this.close();
+                    }
+                    break;
+                case CLOSED:
+                    this.record(failure);
+                    if (recorded >= minimumCalls && failures * 100L >= (long) failureRatePercent * recorded) {
+                        this.open();
+                    }
+                    break;
+                case OPEN:
+                default:
+                    // started before the breaker opened
+                    break;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * of the calls in the window, as a percentage
+     */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : failures * 100d / recorded;
+    }
+
+    public synchronized int getBufferedCalls() {
+        return recorded;
+    }
+
+    /**
+     * calls turned away while open or half open
+     */
+    public long getNotPermittedCalls() {
+        return notPermitted.sum();
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.get();
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            // the oldest outcome drops out of the window
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        timesOpened.incrementAndGet();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,31 @@
+package codesmell.camel.breaker;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+public class CircuitBreakerController {
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @GetMapping("/metrics/breakers")
+    public Map<String, Map<String, Object>> getCircuitBreakers() {
+        Map<String, Map<String, Object>> breakers = new TreeMap<>();
+        for (CircuitBreaker breaker : circuitBreakers.getAll()) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("state", breaker.getState());
+            metrics.put("failureRate", breaker.getFailureRate());
+            metrics.put("bufferedCalls", breaker.getBufferedCalls());
+            metrics.put("notPermittedCalls", breaker.getNotPermittedCalls());
+            metrics.put("timesOpened", breaker.getTimesOpened());
+            breakers.put(breaker.getName(), metrics);
+        }
+        return breakers;
+    }
+}
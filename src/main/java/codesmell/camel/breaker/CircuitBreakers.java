@@ -0,0 +1,91 @@
+package codesmell.camel.breaker;
+
+import codesmell.service.MessageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * one circuit breaker for each downstream service
+ * <p>
+ * routes calling the same service share its breaker
+ */
+@Component
+public class CircuitBreakers {
+
+    @Value("${codesmell.breaker.enabled:false}")
+    private boolean enabled;
+
+    @Value("${codesmell.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${codesmell.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${codesmell.breaker.failure-rate:50}")
+    private int failureRatePercent;
+
+    /**
+     * calls this slow count as failures, 0 turns it off
+     */
+    @Value("${codesmell.breaker.slow-call-ms:0}")
+    private long slowCallMillis;
+
+    @Value("${codesmell.breaker.open-ms:5000}")
+    private long openMillis;
+
+    @Value("${codesmell.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    /**
+     * the exceptions that count against a breaker,
+     * the others are about the message and not the service
+     */
+    @Value("${codesmell.breaker.record-exceptions:codesmell.exception.TransientServiceException}")
+    private Class<?>[] recordExceptions;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * @param name of the downstream service
+     * @param service
+     * @return the service behind its breaker,
+     *     or the service itself when the breakers are turned off
+     */
+    public MessageService protect(String name, MessageService service) {
+        if (!enabled) {
+            return service;
+        }
+        return new CircuitBreakingService(service, breakers.computeIfAbsent(name, this::create), this::countsAsFailure);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CircuitBreaker get(String name) {
+        return breakers.get(name);
+    }
+
+    public Collection<CircuitBreaker> getAll() {
+        return breakers.values();
+    }
+
+    private boolean countsAsFailure(Throwable failure) {
+        for (Class<?> type : recordExceptions) {
+            if (type.isInstance(failure)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CircuitBreaker create(String name) {
+        return new CircuitBreaker(name, windowSize, minimumCalls, failureRatePercent,
+            TimeUnit.MILLISECONDS.toNanos(slowCallMillis), TimeUnit.MILLISECONDS.toNanos(openMillis), halfOpenCalls);
+    }
+}
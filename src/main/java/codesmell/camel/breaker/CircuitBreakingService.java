@@ -0,0 +1,116 @@
+package codesmell.camel.breaker;
+
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.TransientServiceException;
+import codesmell.service.BatchResult;
+import codesmell.service.MessageService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+
+/**
+ * calls the service through the circuit breaker
+ * <p>
+ * while the breaker is open the calls fail straight away
+ * with a {@link CircuitBreakerOpenException}
+ * <p>
+ * only the failures of the service itself count against the breaker
+ * ({@link TransientServiceException} unless told otherwise),
+ * an exception about a bad message is the service answering
+ * and counts as a call that worked
+ */
+public class CircuitBreakingService implements MessageService {
+
+    private final MessageService delegate;
+    private final CircuitBreaker breaker;
+    private final Predicate<Throwable> countsAsFailure;
+    private final String openMessage;
+
+    public CircuitBreakingService(MessageService delegate, CircuitBreaker breaker) {
+        this(delegate, breaker, TransientServiceException.class::isInstance);
+    }
+
+    /**
+     * @param countsAsFailure the exceptions that count against the breaker
+     */
+    public CircuitBreakingService(MessageService delegate, CircuitBreaker breaker, Predicate<Throwable> countsAsFailure) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.countsAsFailure = countsAsFailure;
+        this.openMessage = "circuit breaker " + breaker.getName() + " is open";
+    }
+
+    @Override
+    public String process(String incoming) {
+        if (!breaker.tryAcquire()) {
+            throw new CircuitBreakerOpenException(openMessage);
+        }
+        long start = System.nanoTime();
+        try {
+            String out = delegate.process(incoming);
+            breaker.onResult(false, System.nanoTime() - start);
+            return out;
+        } catch (RuntimeException e) {
+            breaker.onResult(countsAsFailure.test(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * the batch is one call for the breaker, one permit and one outcome,
+     * it failed when any of its messages failed in a way that counts
+     * (a bad message is still the service answering)
+     */
+    @Override
+    public List<BatchResult> process(List<String> incoming) {
+        if (!breaker.tryAcquire()) {
+            CircuitBreakerOpenException open = new CircuitBreakerOpenException(openMessage);
+            List<BatchResult> results = new ArrayList<>(incoming.size());
+            for (int i = 0; i < incoming.size(); i++) {
+                results.add(BatchResult.failure(open));
+            }
+            return results;
+        }
+        long start = System.nanoTime();
+        try {
+            List<BatchResult> results = delegate.process(incoming);
+            boolean failed = false;
+            for (BatchResult result : results) {
+                if (result.isFailed() && countsAsFailure.test(result.getFailure())) {
+                    failed = true;
+                    break;
+                }
+            }
+            breaker.onResult(failed, System.nanoTime() - start);
+            return results;
+        } catch (RuntimeException e) {
+            breaker.onResult(countsAsFailure.test(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletionStage<String> processAsync(String incoming) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(openMessage));
+        }
+        long start = System.nanoTime();
+        CompletionStage<String> result;
+        try {
+            result = delegate.processAsync(incoming);
+        } catch (RuntimeException e) {
+            breaker.onResult(countsAsFailure.test(e), System.nanoTime() - start);
+            throw e;
+        }
+        return result.whenComplete((out, failure) -> 
+            breaker.onResult(failure != null && countsAsFailure.test(unwrap(failure)), System.nanoTime() - start));
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,25 @@
+package codesmell.camel.cache;
+
+import codesmell.service.MessageService;
+
+/**
+ * calls the service through its {@link ResultCache}
+ * <p>
+ * the batch and async calls go through {@link #process(String)}
+ * one message at a time
+ */
+public class CachingService implements MessageService {
+
+    private final MessageService delegate;
+    private final ResultCache cache;
+
+    public CachingService(MessageService delegate, ResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String process(String incoming) {
+        return cache.process(incoming, delegate);
+    }
+}
@@ -0,0 +1,70 @@
+package codesmell.camel.cache;
+
+import codesmell.util.Fingerprint;
+
+/**
+ * a count-min sketch of how often each key was asked for lately
+ * <p>
+ * 4 bit counters, 16 to a long, each key has 4 counters
+ * and its frequency is the smallest of them
+ * <p>
+ * once there have been 10 times the cache size of increments
+ * every counter is halved so old favourites fade
+ * <p>
+ * not thread safe, the cache calls it under its lock
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0x97cb3127c4b6a7fdL, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int size = Integer.highestOneBit(Math.max(1, maximumSize - 1) << 1);
+        this.table = new long[Math.max(8, size)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long counterHash = Fingerprint.mix(hash + SEEDS[i]);
+            int index = (int) (counterHash >>> 32) & tableMask;
+            int shift = (int) (counterHash & 15) << 2;
+            long counter = (table[index] >>> shift) & 0xfL;
+            if (counter < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            this.reset();
+        }
+    }
+
+    int frequency(long hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long counterHash = Fingerprint.mix(hash + SEEDS[i]);
+            int index = (int) (counterHash >>> 32) & tableMask;
+            int shift = (int) (counterHash & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xfL));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,213 @@
+package codesmell.camel.cache;
+
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.FooBarException;
+import codesmell.exception.GrokException;
+import codesmell.exception.SpikeException;
+import codesmell.exception.TransientServiceException;
+import codesmell.service.MessageService;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * the results of a service that always gives the same answer for the same message
+ * <p>
+ * callers asking for a message that is already being worked out
+ * wait for that call instead of making their own (no stampede),
+ * when it fails each of them throws a new exception built like a cached one
+ * <p>
+ * exceptions are only cached with negative caching turned on,
+ * and never the ones that say to try again later,
+ * the class and the message are kept and each hit throws a new exception
+ * so an exchange never gets one another exchange has changed
+ */
+public class ResultCache {
+
+    private final String name;
+    private final WTinyLfuCache<Result> cache;
+    private final boolean negativeCaching;
+    private final long negativeTtlNanos;
+    // completes with null when the outcome can't be shared
+    private final ConcurrentMap<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sharedCalls = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    public ResultCache(String name, WTinyLfuCache<Result> cache, boolean negativeCaching, long negativeTtlNanos) {
+        this.name = name;
+        this.cache = cache;
+        this.negativeCaching = negativeCaching;
+        this.negativeTtlNanos = negativeTtlNanos;
+    }
+
+    /**
+     * the cached result or the service's
+     */
+    public String process(String incoming, MessageService service) {
+        Result cached = cache.get(incoming);
+        if (cached != null) {
+            return this.hit(cached);
+        }
+
+        CompletableFuture<Result> call = new CompletableFuture<>();
+        CompletableFuture<Result> running = inFlight.putIfAbsent(incoming, call);
+        if (running != null) {
+            sharedCalls.increment();
+            return join(running, incoming, service);
+        }
+
+        try {
+            // it may have been cached since the miss
+            cached = cache.peek(incoming);
+            if (cached != null) {
+                call.complete(cached);
+                return this.hit(cached);
+            }
+            misses.increment();
+            Result result = Result.of(service.process(incoming));
+            cache.put(incoming, result);
+            call.complete(result);
+            return result.value;
+        } catch (RuntimeException e) {
+            Result failure = Result.failure(e);
+            if (failure != null && negativeCaching && isCacheable(e)) {
+                cache.put(incoming, failure, negativeTtlNanos);
+            }
+            // the waiters each get their own exception
+            call.complete(failure);
+            throw e;
+        } finally {
+            inFlight.remove(incoming, call);
+            // an Error, the waiters make their own call
+            call.complete(null);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * callers that waited on another caller's call
+     */
+    public long getSharedCalls() {
+        return sharedCalls.sum();
+    }
+
+    /**
+     * the hits that were a cached exception
+     */
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    private String hit(Result cached) {
+        hits.increment();
+        if (cached.failure != null) {
+            negativeHits.increment();
+        }
+        return cached.get();
+    }
+
+    private static boolean isCacheable(RuntimeException e) {
+        return !(e instanceof TransientServiceException) && !(e instanceof CircuitBreakerOpenException);
+    }
+
+    private static String join(CompletableFuture<Result> running, String incoming, MessageService service) {
+        Result shared = running.join();
+        if (shared == null) {
+            // the exception could not be built again
+            return service.process(incoming);
+        }
+        return shared.get();
+    }
+
+    /**
+     * a value or how to build the exception again from its message
+     */
+    public static final class Result {
+        // the exception message for a failure
+        private final String value;
+        private final Function<String, RuntimeException> failure;
+
+        private Result(String value, Function<String, RuntimeException> failure) {
+            this.value = value;
+            this.failure = failure;
+        }
+
+        static Result of(String value) {
+            return new Result(value, null);
+        }
+
+        /**
+         * @return the value or throws a new exception
+         */
+        String get() {
+            if (failure != null) {
+                throw failure.apply(value);
+            }
+            return value;
+        }
+
+        /**
+         * @return null when the exception can't be built again
+         */
+        static Result failure(RuntimeException failure) {
+            Function<String, RuntimeException> rebuild = rebuilder(failure.getClass());
+            return rebuild == null ? null : new Result(failure.getMessage(), rebuild);
+        }
+
+        private static Function<String, RuntimeException> rebuilder(Class<? extends RuntimeException> type) {
+            // the exception mode decides whether these have a stack trace
+            if (type == GrokException.class) {
+                return GrokException::of;
+            }
+            if (type == FooBarException.class) {
+                return FooBarException::of;
+            }
+            if (type == SpikeException.class) {
+                return SpikeException::of;
+            }
+            Constructor<? extends RuntimeException> constructor;
+            try {
+                constructor = type.getConstructor(String.class);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+            return message -> {
+                try {
+                    return constructor.newInstance(message);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("could not build the cached " + type.getName(), e);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package codesmell.camel.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+public class ResultCacheController {
+
+    @Autowired
+    private ResultCaches resultCaches;
+
+    @GetMapping("/metrics/caches")
+    public Map<String, Map<String, Object>> getCaches() {
+        Map<String, Map<String, Object>> caches = new TreeMap<>();
+        for (ResultCache cache : resultCaches.getAll()) {
+            long hits = cache.getHits();
+            long lookups = hits + cache.getMisses();
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("size", cache.size());
+            metrics.put("maximumSize", cache.getMaximumSize());
+            metrics.put("hits", hits);
+            metrics.put("misses", cache.getMisses());
+            metrics.put("hitRate", lookups == 0 ? 0 : hits * 100d / lookups);
+            metrics.put("sharedCalls", cache.getSharedCalls());
+            metrics.put("negativeHits", cache.getNegativeHits());
+            metrics.put("evictions", cache.getEvictions());
+            caches.put(cache.getName(), metrics);
+        }
+        return caches;
+    }
+}
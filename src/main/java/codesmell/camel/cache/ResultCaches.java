@@ -0,0 +1,70 @@
+package codesmell.camel.cache;
+
+import codesmell.service.MessageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * a result cache for each service that gives the same answer
+ * for the same message
+ * <p>
+ * routes calling the same service share its cache
+ */
+@Component
+public class ResultCaches {
+
+    /**
+     * only turn on for deterministic services
+     */
+    @Value("${codesmell.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${codesmell.cache.maximum-size:10000}")
+    private int maximumSize;
+
+    /**
+     * 0 keeps a result for as long as it stays in the cache
+     */
+    @Value("${codesmell.cache.ttl-ms:0}")
+    private long ttlMillis;
+
+    @Value("${codesmell.cache.negative:false}")
+    private boolean negativeCaching;
+
+    @Value("${codesmell.cache.negative-ttl-ms:1000}")
+    private long negativeTtlMillis;
+
+    private final Map<String, ResultCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param name of the downstream service
+     * @param service
+     * @return the service behind its cache,
+     *     or the service itself when the caches are turned off
+     */
+    public MessageService protect(String name, MessageService service) {
+        if (!enabled) {
+            return service;
+        }
+        return new CachingService(service, caches.computeIfAbsent(name, this::create));
+    }
+
+    public ResultCache get(String name) {
+        return caches.get(name);
+    }
+
+    public Collection<ResultCache> getAll() {
+        return caches.values();
+    }
+
+    private ResultCache create(String name) {
+        return new ResultCache(name, 
+            new WTinyLfuCache<>(maximumSize, TimeUnit.MILLISECONDS.toNanos(ttlMillis)),
+            negativeCaching, TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis));
+    }
+}
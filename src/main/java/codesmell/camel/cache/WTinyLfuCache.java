@@ -0,0 +1,261 @@
+package codesmell.camel.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * a size bounded cache with W-TinyLFU admission and eviction
+ * <p>
+ * new keys go into a small LRU window (1% of the size),
+ * what falls out of the window has to be asked for more often
+ * than the next victim of the main cache to get in,
+ * so a burst of one-off keys can't push out the popular ones
+ * <p>
+ * the main cache is a segmented LRU,
+ * a hit in probation moves the key up to protected (80% of the main cache)
+ * <p>
+ * one lock for all of it, the work under it is a few pointer moves
+ */
+public class WTinyLfuCache<V> {
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Node<V>> data = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final Queue<V> window = new Queue<>();
+    private final Queue<V> probation = new Queue<>();
+    private final Queue<V> protectedQueue = new Queue<>();
+
+    private long evictions;
+
+    /**
+     * @param ttlNanos how long an entry lives, 0 for as long as it stays in the cache
+     */
+    public WTinyLfuCache(int maximumSize, long ttlNanos) {
+        this(maximumSize, ttlNanos, System::nanoTime);
+    }
+
+    WTinyLfuCache(int maximumSize, long ttlNanos, LongSupplier nanoClock) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximum size must be at least 2: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 8 / 10;
+        this.ttlNanos = ttlNanos;
+        this.nanoClock = nanoClock;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * counts towards the frequency of the key
+     * 
+     * @return null when it isn't cached or has expired
+     */
+    public synchronized V get(String key) {
+        sketch.increment(key.hashCode());
+        Node<V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (this.isExpired(node)) {
+            this.remove(node);
+            return null;
+        }
+        this.onHit(node);
+        return node.value;
+    }
+
+    /**
+     * the value without counting it as a use
+     */
+    public synchronized V peek(String key) {
+        Node<V> node = data.get(key);
+        return node == null || this.isExpired(node) ? null : node.value;
+    }
+
+    public synchronized void put(String key, V value) {
+        this.put(key, value, ttlNanos);
+    }
+
+    /**
+     * @param ttlNanos for this entry, 0 for no expiry
+     */
+    public synchronized void put(String key, V value, long ttlNanos) {
+        long expiresAt = ttlNanos > 0 ? nanoClock.getAsLong() + ttlNanos : Long.MAX_VALUE;
+        Node<V> node = data.get(key);
+        if (node != null) {
+            node.value = value;
+            node.expiresAt = expiresAt;
+            this.onHit(node);
+            return;
+        }
+        node = new Node<>(key, value, expiresAt);
+        data.put(key, node);
+        node.segment = Segment.WINDOW;
+        window.addLast(node);
+        
+        if (window.size > windowMaximum) {
+            Node<V> candidate = window.removeFirst();
+            candidate.segment = Segment.PROBATION;
+            probation.addLast(candidate);
+            if (data.size() > maximumSize) {
+                this.evict(candidate);
+            }
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        Node<V> node = data.get(key);
+        if (node != null) {
+            this.remove(node);
+        }
+    }
+
+    public synchronized int size() {
+        return data.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * the candidate from the window against the oldest of the main cache,
+     * the one asked for less often goes
+     */
+    private void evict(Node<V> candidate) {
+        Node<V> victim = probation.first != candidate ? probation.first : protectedQueue.first;
+        if (victim == null) {
+            victim = candidate;
+        }
+        if (victim != candidate
+            && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+            this.remove(victim);
+        } else {
+            this.remove(candidate);
+        }
+        evictions++;
+    }
+
+    private void onHit(Node<V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.segment = Segment.PROTECTED;
+                protectedQueue.addLast(node);
+                if (protectedQueue.size > protectedMaximum) {
+                    Node<V> demoted = protectedQueue.removeFirst();
+                    demoted.segment = Segment.PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+            default:
+                protectedQueue.moveToLast(node);
+                break;
+        }
+    }
+
+    private void remove(Node<V> node) {
+        data.remove(node.key);
+        this.queueOf(node).remove(node);
+    }
+
+    private Queue<V> queueOf(Node<V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            case PROTECTED:
+            default:
+                return protectedQueue;
+        }
+    }
+
+    private boolean isExpired(Node<V> node) {
+        return node.expiresAt != Long.MAX_VALUE && nanoClock.getAsLong() - node.expiresAt >= 0;
+    }
+
+    private static final class Node<V> {
+        private final String key;
+        private V value;
+        private long expiresAt;
+        private Segment segment;
+        private Node<V> previous;
+        private Node<V> next;
+
+        private Node(String key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * a doubly linked LRU list, oldest first
+     */
+    private static final class Queue<V> {
+        private Node<V> first;
+        private Node<V> last;
+        private int size;
+
+        private void addLast(Node<V> node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        private Node<V> removeFirst() {
+            Node<V> node = first;
+            if (node != null) {
+                this.remove(node);
+            }
+            return node;
+        }
+
+        private void remove(Node<V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToLast(Node<V> node) {
+            if (last != node) {
+                this.remove(node);
+                this.addLast(node);
+            }
+        }
+    }
+}
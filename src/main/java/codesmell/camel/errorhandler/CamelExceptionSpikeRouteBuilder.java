@@ -1,14 +1,29 @@
 package codesmell.camel.errorhandler;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.quarantine.Quarantine;
+import codesmell.camel.retry.RetryPolicy;
+import codesmell.camel.service.ServiceStepFactory;
+import codesmell.camel.threads.RouteThreads;
+import codesmell.camel.routing.KeywordDispatchTable;
+import codesmell.camel.routing.KeywordEndpointDispatcher;
+import codesmell.camel.routing.KeywordRouteClassifier;
+import codesmell.camel.validation.FooBarResultValidator;
 import codesmell.exception.FooBarException;
 import codesmell.exception.SpikeException;
+import codesmell.exception.TransientServiceException;
+import codesmell.logging.ErrorLog;
+import codesmell.logging.LazyBody;
+import codesmell.metrics.ExceptionMetrics;
+import codesmell.metrics.ExceptionOutcome;
 import codesmell.service.FooBar;
-import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -23,81 +38,129 @@ public class CamelExceptionSpikeRouteBuilder extends RouteBuilder {
     @Autowired
     private FooBar fooBarService;
 
+    @Autowired
+    private ServiceStepFactory serviceSteps;
+
+    @Autowired
+    private RouteThreads routeThreads;
+
+    @Autowired
+    private Quarantine quarantine;
+
+    @Autowired
+    private ExceptionMetrics exceptionMetrics;
+
+    @Autowired
+    private ErrorLog errorLog;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    /**
+     * keyword=endpoint pairs for the sub routes,
+     * the defaults are used when empty
+     */
+    @Value("${codesmell.dispatch.main:}")
+    private String subRoutes;
+
+    /**
+     * validate the FooBar result without throwing
+     */
+    @Value("${codesmell.foobar.validation.enabled:false}")
+    private boolean validationResults;
+
     @Override
     public void configure() {
         
         LOGGER.info("building camel route to test exceptions...");
 
+        KeywordDispatchTable dispatchTable = this.buildDispatchTable();
+
         onException(SpikeException.class)
             .handled(false)
-            .log("things are not going well...")
+            .process(errorLog.error("things are not going well..."))
+            .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED))
             .process(exchange -> {
                 String in = exchange.getMessage().getBody(String.class);
                 exchange.getMessage().setBody("unhandled_exception_" + in);
             });
         
+        // the grok sub route has no error handler
+        // so its transient failures are redelivered from here
+        retryPolicy.redeliver(onException(TransientServiceException.class))
+            .handled(false)
+            .process(errorLog.error("ran out of retries..."))
+            .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED));
+        
         onException(FooBarException.class)
             .handled(true)
-            .log("houston we have a problem...")
+            .process(errorLog.warn("houston we have a problem..."))
             .process(exchange -> {
                 String in = exchange.getMessage().getBody(String.class);
                 
                 if (in.startsWith("error")) {
                     exchange.getMessage().setBody("another_exception_" + in);
-                    throw new SpikeException("still can't handle the message");
+                    exceptionMetrics.record(exchange, ExceptionOutcome.RETHROWN);
+                    throw SpikeException.of("still can't handle the message");
                 } else {
                     exchange.getMessage().setBody("handled_exception_" + in);
+                    exceptionMetrics.record(exchange, ExceptionOutcome.HANDLED);
                 }
             });
 
-        from(CamelConstants.MAIN_ENDPOINT_URI)
-            .routeId(CamelConstants.MAIN_ROUTE_ID)
+        RouteDefinition route = from(CamelConstants.MAIN_ENDPOINT_URI)
+            .routeId(CamelConstants.MAIN_ROUTE_ID);
+
+        // the recently failed messages fail again here, before the thread hop
+        quarantine.configure(route);
+
+        // the rest of the route (and the sub routes) run on the configured threads
+        routeThreads.configure(route, getContext());
+
+        route
             .log("chugging along")
+            // one scan of the body for all of the sub routes
+            .process(new KeywordRouteClassifier(dispatchTable.getKeywords()))
             .choice()
-            .when(this::isGrokking)
-                // end point w/ no error handler
-                .to(CamelConstants.GROK_ENDPOINT_URI)
-            .when(this::isHeisenBugging)
-                // end point w/ default error handler
-                .to(CamelConstants.HEISENBUG_ENDPOINT_URI)
+            .when(header(CamelConstants.ROUTE_KEYWORD_HEADER).isNotNull())
+                .process(new KeywordEndpointDispatcher(getContext(), dispatchTable))
             .otherwise()
                 .log("foo fighting")
-                .process(exchange -> {
-                    String in = exchange.getMessage().getBody(String.class);
-                    String out = fooBarService.process(in);
-                    exchange.getIn().setBody(out);
-                })
-                .process(exchange -> {
-                    String body = exchange.getMessage().getBody(String.class);
-                    if (body.startsWith("error")) {
-                        throw new FooBarException("can't handle the message");
-                    }
-                })            
+                .process(serviceSteps.build("fooBar", fooBarService, getContext()))
+                .process(this.buildErrorCheck())
             .end()
+            // the body is only read when the line is logged
             .process(exchange -> {
-                LOGGER.info("message is now > {}", exchange.getMessage().getBody(String.class));
+                LOGGER.info("message is now > {}", LazyBody.of(exchange));
             })
 
             .to(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
             .log("end");
     }
     
-    private boolean isGrokking(Exchange exchange) {
-        String body = exchange.getMessage().getBody(String.class);
-        if (body.contains("grok")) {
-            return true;
-        } else {
-            return false;
+    private Processor buildErrorCheck() {
+        if (validationResults) {
+            // rejected messages go to a sub route
+            // instead of through the onException
+            return new FooBarResultValidator(getContext(), CamelConstants.FOO_REJECTED_ENDPOINT_URI);
         }
+        return exchange -> {
+            String body = exchange.getMessage().getBody(String.class);
+            if (body.startsWith("error")) {
+                throw FooBarException.of("can't handle the message");
+            }
+        };
     }
     
-    private boolean isHeisenBugging(Exchange exchange) {
-        String body = exchange.getMessage().getBody(String.class);
-        if (body.contains("heisenbug")) {
-            return true;
-        } else {
-            return false;
+    private KeywordDispatchTable buildDispatchTable() {
+        if (subRoutes == null || subRoutes.isBlank()) {
+            return new KeywordDispatchTable()
+                // end point w/ no error handler
+                .add(CamelConstants.GROK_KEYWORD, CamelConstants.GROK_ENDPOINT_URI)
+                // end point w/ default error handler
+                .add(CamelConstants.HEISENBUG_KEYWORD, CamelConstants.HEISENBUG_ENDPOINT_URI);
         }
+        return KeywordDispatchTable.parse(subRoutes);
     }
 
 }
\ No newline at end of file
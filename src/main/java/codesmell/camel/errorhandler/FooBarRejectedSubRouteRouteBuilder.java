@@ -0,0 +1,42 @@
+package codesmell.camel.errorhandler;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.SpikeException;
+import org.apache.camel.builder.RouteBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * a sub route in a separate RouteBuilder
+ * for the messages the FooBar validation rejected
+ * <p>
+ * like the heisenbug sub route it is using the DefaultErrorHandler
+ * so the SpikeException it fails with goes back to the caller
+ * without running the onException of the main route
+ */
+@Component
+public class FooBarRejectedSubRouteRouteBuilder extends RouteBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FooBarRejectedSubRouteRouteBuilder.class);
+
+    @Override
+    public void configure() {
+        
+        LOGGER.info("building camel sub route for rejected messages...");
+
+        from(CamelConstants.FOO_REJECTED_ENDPOINT_URI)
+            .routeId(CamelConstants.FOO_REJECTED_ROUTE_ID)
+            // the rejection is expected
+            // no need for the stack trace
+            .errorHandler(defaultErrorHandler().logStackTrace(false))
+            .log("can't handle the message")
+            .process(exchange -> {
+                String in = exchange.getMessage().getBody(String.class);
+                exchange.getMessage().setBody("another_exception_" + in);
+                // set instead of thrown
+                // the error handler still reports it as unhandled
+                exchange.setException(SpikeException.of("still can't handle the message"));
+            });
+    }
+
+}
@@ -1,6 +1,11 @@
 package codesmell.camel.errorhandler;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.breaker.CircuitBreakers;
+import codesmell.camel.cache.ResultCaches;
+import codesmell.camel.retry.RetryPolicy;
+import codesmell.camel.service.ServiceStepFactory;
+import codesmell.logging.LazyBody;
 import codesmell.service.Grokker;
 import org.apache.camel.builder.RouteBuilder;
 import org.slf4j.Logger;
@@ -21,6 +26,18 @@ public class GrokSubRouteRemoveErrorHandlerRouteBuilder extends RouteBuilder {
     @Autowired
     private Grokker grokService;
 
+    @Autowired
+    private ServiceStepFactory serviceSteps;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @Autowired
+    private ResultCaches resultCaches;
+
     @Override
     public void configure() {
         
@@ -33,14 +50,12 @@ public class GrokSubRouteRemoveErrorHandlerRouteBuilder extends RouteBuilder {
             // the main route
             .errorHandler(noErrorHandler())
             .log("grokking along")
+            .process(retryPolicy.countAttempt())
+            // playing on a subroute
+            .process(serviceSteps.build("grok", 
+                resultCaches.protect("grokker", circuitBreakers.protect("grokker", grokService)), getContext()))
             .process(exchange -> {
-                // playing on a subroute
-                String in = exchange.getMessage().getBody(String.class);
-                String out = grokService.process(in);
-                exchange.getIn().setBody(out);
-            })
-            .process(exchange -> {
-                LOGGER.info("after grokking message is now > {}", exchange.getMessage().getBody(String.class));
+                LOGGER.info("after grokking message is now > {}", LazyBody.of(exchange));
             })
             .log("end grok");
     }
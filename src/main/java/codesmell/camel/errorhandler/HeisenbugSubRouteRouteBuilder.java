@@ -1,7 +1,16 @@
 package codesmell.camel.errorhandler;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.breaker.CircuitBreakers;
+import codesmell.camel.hedge.Hedging;
+import codesmell.camel.retry.RetryPolicy;
+import codesmell.camel.service.ServiceStepFactory;
 import codesmell.exception.GrokException;
+import codesmell.exception.TransientServiceException;
+import codesmell.logging.ErrorLog;
+import codesmell.logging.LazyBody;
+import codesmell.metrics.ExceptionMetrics;
+import codesmell.metrics.ExceptionOutcome;
 import codesmell.service.FooBar;
 import codesmell.service.Grokker;
 import codesmell.service.HeisenBugger;
@@ -23,26 +32,51 @@ public class HeisenbugSubRouteRouteBuilder extends RouteBuilder {
 
     @Autowired
     private HeisenBugger heisenBuggerService;
+
+    @Autowired
+    private ServiceStepFactory serviceSteps;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @Autowired
+    private Hedging hedging;
+
+    @Autowired
+    private ExceptionMetrics exceptionMetrics;
+
+    @Autowired
+    private ErrorLog errorLog;
     
     @Override
     public void configure() {
         
         LOGGER.info("building camel sub route to test exceptions...");
 
+        // heisenbugs come and go
+        // so give them another go before failing
+        retryPolicy.redeliver(onException(TransientServiceException.class))
+            .handled(false)
+            .process(errorLog.error("the heisenbug would not go away..."))
+            .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED));
+
         from(CamelConstants.HEISENBUG_ENDPOINT_URI)
             .routeId(CamelConstants.HEISENBUG_ROUTE_ID)
             // using the default error handler
             // will cause errors to be handled here
             // instead of by the main route
             .log("uncertain where we are going")
+            .process(retryPolicy.countAttempt())
+            // playing on a subroute
+            // the breaker sees one call even when it is hedged
+            .process(serviceSteps.build("heisenBugger", 
+                circuitBreakers.protect("heisenBugger", hedging.protect("heisenBugger", heisenBuggerService)), 
+                getContext()))
             .process(exchange -> {
-                // playing on a subroute
-                String in = exchange.getMessage().getBody(String.class);
-                String out = heisenBuggerService.process(in);
-                exchange.getIn().setBody(out);
-            })
-            .process(exchange -> {
-                LOGGER.info("after some uncertainty the message is now > {}", exchange.getMessage().getBody(String.class));
+                LOGGER.info("after some uncertainty the message is now > {}", LazyBody.of(exchange));
             })
             .log("end hesienbug");
     }
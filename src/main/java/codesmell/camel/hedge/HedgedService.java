@@ -0,0 +1,196 @@
+package codesmell.camel.hedge;
+
+import codesmell.camel.retry.RetryBudget;
+import codesmell.metrics.LatencyHistogram;
+import codesmell.service.MessageService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * calls the service again when the first attempt
+ * is taking longer than most calls do,
+ * and takes whichever attempt answers first
+ * <p>
+ * only for services where calling twice is safe
+ * <p>
+ * the hedge delay is a percentile of the latency of the first attempts
+ * over the last complete window, there is no hedging
+ * until a window has had enough calls
+ * <p>
+ * each hedge comes out of a {@link RetryBudget}
+ * so the extra load is a fixed share of the calls
+ */
+public class HedgedService implements MessageService {
+
+    private final String name;
+    private final MessageService delegate;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final RetryBudget budget;
+    private final double percentile;
+    private final long minSamples;
+    private final long minDelayNanos;
+
+    // the first attempts of the current window and the last window
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private LatencyHistogram previous = new LatencyHistogram();
+    private volatile long delayNanos = -1;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+
+    public HedgedService(String name, MessageService delegate, Executor executor, ScheduledExecutorService scheduler,
+        RetryBudget budget, double percentile, long minSamples, long minDelayNanos) {
+        
+        this.name = name;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.budget = budget;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.minDelayNanos = minDelayNanos;
+    }
+
+    @Override
+    public String process(String incoming) {
+        if (delayNanos < 0) {
+            // nothing to hedge against yet
+            calls.increment();
+            long start = System.nanoTime();
+            try {
+                return delegate.process(incoming);
+            } finally {
+                current.record(System.nanoTime() - start);
+            }
+        }
+        try {
+            return this.processAsync(incoming).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletionStage<String> processAsync(String incoming) {
+        calls.increment();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // attempts that have not failed yet
+        AtomicInteger outstanding = new AtomicInteger(1);
+
+        this.attempt(incoming, result, outstanding, false);
+
+        long delay = delayNanos;
+        if (delay >= 0) {
+            budget.deposit();
+            ScheduledFuture<?> hedge = scheduler.schedule(
+                () -> this.hedge(incoming, result, outstanding), delay, TimeUnit.NANOSECONDS);
+            // most calls answer before the delay so their hedge is never needed
+            result.whenComplete((out, failure) -> hedge.cancel(false));
+        }
+        return result;
+    }
+
+    /**
+     * starts a new window and works out
+     * the hedge delay from the one that ended
+     */
+    public synchronized void rotate() {
+        LatencyHistogram ended = current;
+        previous.reset();
+        current = previous;
+        previous = ended;
+
+        if (ended.getCount() >= minSamples) {
+            delayNanos = Math.max(minDelayNanos, ended.getValueAtPercentile(percentile));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * -1 until there has been a full window
+     */
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * hedges that answered before the first attempt
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * hedges not sent because the budget was used up
+     */
+    public long getHedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    private void hedge(String incoming, CompletableFuture<String> result, AtomicInteger outstanding) {
+        if (result.isDone()) {
+            return;
+        }
+        if (!budget.tryWithdraw()) {
+            hedgesDenied.increment();
+            return;
+        }
+        hedges.increment();
+        outstanding.incrementAndGet();
+        this.attempt(incoming, result, outstanding, true);
+    }
+
+    private void attempt(String incoming, CompletableFuture<String> result, AtomicInteger outstanding, boolean hedge) {
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    String out = delegate.process(incoming);
+                    if (result.complete(out) && hedge) {
+                        hedgeWins.increment();
+                    }
+                } catch (RuntimeException e) {
+                    // the other attempt may still answer
+                    if (outstanding.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                } finally {
+                    if (!hedge) {
+                        current.record(System.nanoTime() - start);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package codesmell.camel.hedge;
+
+import codesmell.camel.retry.RetryBudget;
+import codesmell.service.MessageService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hedged calls for the services that are safe to call twice
+ * <p>
+ * the attempts run on virtual threads
+ * since they mostly sit waiting on the service
+ */
+@Component
+public class Hedging {
+
+    /**
+     * only turn on for idempotent services
+     */
+    @Value("${codesmell.hedge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${codesmell.hedge.percentile:95}")
+    private double percentile;
+
+    @Value("${codesmell.hedge.min-samples:100}")
+    private long minSamples;
+
+    @Value("${codesmell.hedge.window-ms:10000}")
+    private long windowMillis;
+
+    @Value("${codesmell.hedge.min-delay-ms:1}")
+    private long minDelayMillis;
+
+    @Value("${codesmell.hedge.budget.ratio:0.05}")
+    private double budgetRatio;
+
+    @Value("${codesmell.hedge.budget.max:10}")
+    private int budgetMax;
+
+    private final Map<String, HedgedService> services = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name of the downstream service
+     * @param service
+     * @return the hedged service, the same one for the same name
+     *     so the routes calling it share the window and the budget,
+     *     or the service itself when hedging is turned off
+     */
+    public synchronized MessageService protect(String name, MessageService service) {
+        if (!enabled) {
+            return service;
+        }
+        HedgedService existing = services.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (executor == null) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            ScheduledThreadPoolExecutor hedgeScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "hedge-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // the hedges cancelled when the call answered don't wait out their delay in the queue
+            hedgeScheduler.setRemoveOnCancelPolicy(true);
+            scheduler = hedgeScheduler;
+        }
+        HedgedService hedged = new HedgedService(name, service, executor, scheduler,
+            new RetryBudget(budgetRatio, budgetMax), percentile, minSamples, TimeUnit.MILLISECONDS.toNanos(minDelayMillis));
+        scheduler.scheduleAtFixedRate(hedged::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        services.put(name, hedged);
+        return hedged;
+    }
+
+    public HedgedService get(String name) {
+        return services.get(name);
+    }
+
+    public Collection<HedgedService> getAll() {
+        return services.values();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            scheduler.shutdownNow();
+            executor.shutdown();
+        }
+    }
+}
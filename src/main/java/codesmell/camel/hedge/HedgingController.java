@@ -0,0 +1,33 @@
+package codesmell.camel.hedge;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+public class HedgingController {
+
+    @Autowired
+    private Hedging hedging;
+
+    @GetMapping("/metrics/hedging")
+    public Map<String, Map<String, Object>> getHedging() {
+        Map<String, Map<String, Object>> services = new TreeMap<>();
+        for (HedgedService service : hedging.getAll()) {
+            long calls = service.getCalls();
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("calls", calls);
+            metrics.put("hedges", service.getHedges());
+            metrics.put("hedgeRate", calls == 0 ? 0 : service.getHedges() * 100d / calls);
+            metrics.put("hedgeWins", service.getHedgeWins());
+            metrics.put("hedgesDenied", service.getHedgesDenied());
+            metrics.put("delayMillis", service.getDelayNanos() < 0 ? -1 : service.getDelayNanos() / 1_000_000d);
+            services.put(service.getName(), metrics);
+        }
+        return services;
+    }
+}
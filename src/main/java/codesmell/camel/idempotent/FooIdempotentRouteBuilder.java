@@ -0,0 +1,83 @@
+package codesmell.camel.idempotent;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.support.ExpressionAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * drops the messages already through the main route,
+ * so a replayed message isn't processed twice
+ * <p>
+ * the message id is the id header or the body when there is none,
+ * a message that fails in the main route is forgotten again
+ * so it can be replayed, the failure is left on the exchange
+ * rather than handled here or the sender would not know to replay it
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.idempotent.enabled", havingValue = "true")
+public class FooIdempotentRouteBuilder extends RouteBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FooIdempotentRouteBuilder.class);
+
+    @Value("${codesmell.idempotent.target:" + CamelConstants.MAIN_ENDPOINT_URI + "}")
+    private String targetUri;
+
+    @Value("${codesmell.idempotent.id-header:" + CamelConstants.MESSAGE_ID_HEADER + "}")
+    private String idHeader;
+
+    @Value("${codesmell.idempotent.memory-mb:64}")
+    private long memoryMegabytes;
+
+    /**
+     * empty for no snapshot
+     */
+    @Value("${codesmell.idempotent.snapshot:idempotent.snapshot}")
+    private String snapshot;
+
+    @Value("${codesmell.idempotent.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMillis;
+
+    private OffHeapIdempotentRepository repository;
+
+    @Override
+    public void configure() {
+        
+        LOGGER.info("building camel idempotent route to {} with {}MB of message ids...", targetUri, memoryMegabytes);
+
+        repository = new OffHeapIdempotentRepository(getContext(), memoryMegabytes * 1024 * 1024,
+            snapshot.isEmpty() ? null : Paths.get(snapshot), snapshotIntervalMillis);
+
+        from(CamelConstants.IDEMPOTENT_ENDPOINT_URI)
+            .routeId(CamelConstants.IDEMPOTENT_ROUTE_ID)
+            .errorHandler(noErrorHandler())
+            .idempotentConsumer(new MessageIdExpression(idHeader), repository)
+                .removeOnFailure(true)
+                .to(targetUri)
+            .end();
+    }
+
+    public OffHeapIdempotentRepository getRepository() {
+        return repository;
+    }
+
+    private static final class MessageIdExpression extends ExpressionAdapter {
+        private final String idHeader;
+
+        private MessageIdExpression(String idHeader) {
+            this.idHeader = idHeader;
+        }
+
+        @Override
+        public Object evaluate(Exchange exchange) {
+            String id = exchange.getMessage().getHeader(idHeader, String.class);
+            return id != null ? id : exchange.getMessage().getBody(String.class);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package codesmell.camel.idempotent;
+
+import codesmell.util.Fingerprint;
+import org.apache.camel.CamelContext;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the message ids already seen, as fingerprints in an {@link OffHeapLruSet}
+ * so the heap doesn't grow with them
+ * <p>
+ * the oldest ids are forgotten once the memory budget is used,
+ * so a duplicate is only caught while it is still in there
+ * <p>
+ * the set is loaded from the snapshot file on start,
+ * written on an interval and again on stop
+ */
+public class OffHeapIdempotentRepository extends ServiceSupport implements IdempotentRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapIdempotentRepository.class);
+
+    private final CamelContext camelContext;
+    private final OffHeapLruSet seen;
+    private final Path snapshot;
+    private final long snapshotIntervalMillis;
+
+    private final LongAdder duplicates = new LongAdder();
+    private ScheduledExecutorService snapshotter;
+
+    /**
+     * @param snapshot null for no snapshot
+     */
+    public OffHeapIdempotentRepository(CamelContext camelContext, long memoryBytes, 
+        Path snapshot, long snapshotIntervalMillis) {
+        
+        this.camelContext = camelContext;
+        this.seen = new OffHeapLruSet(memoryBytes);
+        this.snapshot = snapshot;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    @Override
+    public boolean add(String key) {
+        boolean added = seen.add(Fingerprint.of(key));
+        if (!added) {
+            duplicates.increment();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return seen.contains(Fingerprint.of(key));
+    }
+
+    /**
+     * the idempotent consumer calls this when the exchange failed
+     * so the message can be tried again
+     */
+    @Override
+    public boolean remove(String key) {
+        return seen.remove(Fingerprint.of(key));
+    }
+
+    @Override
+    public boolean confirm(String key) {
+        // added is enough
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        seen.clear();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getEvictions() {
+        return seen.getEvictions();
+    }
+
+    public long getCapacity() {
+        return seen.getCapacity();
+    }
+
+    /**
+     * writes to a temp file and moves it over the snapshot
+     * so a crash never leaves half a snapshot
+     */
+    public synchronized void snapshot() throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+        Path parent = snapshot.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            seen.writeTo(channel);
+            channel.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (snapshot == null) {
+            return;
+        }
+        if (Files.exists(snapshot)) {
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                if (seen.readFrom(channel)) {
+                    LOGGER.info("loaded the idempotent snapshot {}", snapshot);
+                } else {
+                    LOGGER.warn("the idempotent snapshot {} is for a different memory budget, starting empty", snapshot);
+                }
+            }
+        }
+        if (snapshotIntervalMillis > 0) {
+            snapshotter = camelContext.getExecutorServiceManager()
+                .newSingleThreadScheduledExecutor(this, "idempotent-snapshot");
+            snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, 
+                snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (snapshotter != null) {
+            camelContext.getExecutorServiceManager().shutdown(snapshotter);
+            snapshotter = null;
+        }
+        this.snapshot();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            this.snapshot();
+        } catch (IOException e) {
+            LOGGER.error("could not write the idempotent snapshot {}", snapshot, e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package codesmell.camel.idempotent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a set of 64 bit fingerprints in a direct buffer,
+ * outside the heap and sized by the memory it may use
+ * <p>
+ * the fingerprint picks a set of 8 slots (64 bytes, a cache line)
+ * and the slots of a set are kept most recently used first,
+ * adding to a full set drops the least recently used fingerprint of that set
+ * <p>
+ * two ids with the same fingerprint look like duplicates,
+ * with 64 bits that is about 1 in 2^64 / size
+ * <p>
+ * a lock for each stripe of sets
+ */
+public class OffHeapLruSet {
+
+    static final int WAYS = 8;
+    private static final int SLOT_BYTES = 8;
+    private static final int SET_BYTES = WAYS * SLOT_BYTES;
+    private static final int STRIPES = 1024;
+    private static final long SNAPSHOT_MAGIC = 0x436f6465536d6c31L;
+
+    private final ByteBuffer slots;
+    private final int setCount;
+    private final int setMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param memoryBytes the most this may use,
+     *     rounded down to a power of two number of sets
+     */
+    public OffHeapLruSet(long memoryBytes) {
+        long sets = Math.max(1, Math.min(memoryBytes, Integer.MAX_VALUE) / SET_BYTES);
+        this.setCount = Integer.highestOneBit((int) sets);
+        this.setMask = setCount - 1;
+        this.slots = ByteBuffer.allocateDirect(setCount * SET_BYTES).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return false when it was already there (and is now the most recent)
+     */
+    public boolean add(long fingerprint) {
+        int base = this.baseOf(fingerprint);
+        synchronized (this.lockOf(base)) {
+            int way = this.find(base, fingerprint);
+            boolean added = way < 0;
+            if (added) {
+                // the last slot falls off
+                if (slots.getLong(base + (WAYS - 1) * SLOT_BYTES) != 0) {
+                    evictions.increment();
+                }
+                way = WAYS - 1;
+            }
+            this.moveToFront(base, way, fingerprint);
+            return added;
+        }
+    }
+
+    public boolean contains(long fingerprint) {
+        int base = this.baseOf(fingerprint);
+        synchronized (this.lockOf(base)) {
+            return this.find(base, fingerprint) >= 0;
+        }
+    }
+
+    public boolean remove(long fingerprint) {
+        int base = this.baseOf(fingerprint);
+        synchronized (this.lockOf(base)) {
+            int way = this.find(base, fingerprint);
+            if (way < 0) {
+                return false;
+            }
+            for (int i = way; i < WAYS - 1; i++) {
+                slots.putLong(base + i * SLOT_BYTES, slots.getLong(base + (i + 1) * SLOT_BYTES));
+            }
+            slots.putLong(base + (WAYS - 1) * SLOT_BYTES, 0);
+            return true;
+        }
+    }
+
+    public void clear() {
+        for (int base = 0; base < setCount * SET_BYTES; base += SET_BYTES) {
+            synchronized (this.lockOf(base)) {
+                for (int i = 0; i < WAYS; i++) {
+                    slots.putLong(base + i * SLOT_BYTES, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * the most fingerprints it holds
+     */
+    public long getCapacity() {
+        return (long) setCount * WAYS;
+    }
+
+    public long getMemoryBytes() {
+        return (long) setCount * SET_BYTES;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * counts the slots in use, goes over the whole buffer
+     */
+    public long size() {
+        long size = 0;
+        for (int offset = 0; offset < setCount * SET_BYTES; offset += SLOT_BYTES) {
+            if (slots.getLong(offset) != 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * writes the sets a chunk at a time,
+     * each set is copied under its lock
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.putLong(SNAPSHOT_MAGIC).putInt(setCount).putInt(WAYS).flip();
+        writeFully(channel, header);
+
+        ByteBuffer chunk = ByteBuffer.allocateDirect(Math.min(setCount, 1024) * SET_BYTES).order(ByteOrder.nativeOrder());
+        for (int base = 0; base < setCount * SET_BYTES; base += SET_BYTES) {
+            synchronized (this.lockOf(base)) {
+                for (int i = 0; i < WAYS; i++) {
+                    chunk.putLong(slots.getLong(base + i * SLOT_BYTES));
+                }
+            }
+            if (!chunk.hasRemaining()) {
+                chunk.flip();
+                writeFully(channel, chunk);
+                chunk.clear();
+            }
+        }
+        chunk.flip();
+        writeFully(channel, chunk);
+    }
+
+    /**
+     * @return false when the snapshot is for a different size, nothing is read then
+     */
+    public boolean readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        readFully(channel, header);
+        header.flip();
+        if (header.getLong() != SNAPSHOT_MAGIC || header.getInt() != setCount || header.getInt() != WAYS) {
+            return false;
+        }
+        ByteBuffer all = slots.duplicate().order(ByteOrder.nativeOrder());
+        all.clear();
+        readFully(channel, all);
+        return true;
+    }
+
+    private int baseOf(long fingerprint) {
+        // the high bits, the low bits are in the slot anyway
+        return (int) (fingerprint >>> 32 & setMask) * SET_BYTES;
+    }
+
+    private Object lockOf(int base) {
+        return locks[(base / SET_BYTES) & (STRIPES - 1)];
+    }
+
+    private int find(int base, long fingerprint) {
+        for (int i = 0; i < WAYS; i++) {
+            long slot = slots.getLong(base + i * SLOT_BYTES);
+            if (slot == fingerprint) {
+                return i;
+            }
+            if (slot == 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void moveToFront(int base, int way, long fingerprint) {
+        for (int i = way; i > 0; i--) {
+            slots.putLong(base + i * SLOT_BYTES, slots.getLong(base + (i - 1) * SLOT_BYTES));
+        }
+        slots.putLong(base, fingerprint);
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("the snapshot ended early");
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package codesmell.camel.ingress;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * a {@link BoundedRingBuffer} that can be closed
+ * and that the consumers and the producers can wait on
+ * <p>
+ * a consumer with nothing to take parks
+ * and a producer unparks one when it puts an item in,
+ * a producer waiting for room parks
+ * and a consumer unparks one when it takes an item out,
+ * the waiting threads are only looked at when there are some
+ * <p>
+ * once closed nothing more goes in,
+ * the items left are handed to the rejected handler exactly once:
+ * {@link #drain()} does it for what was queued when it closed,
+ * and a producer that got in just as it closed
+ * sees the close after its offer and drains its own item
+ * <p>
+ * it starts closed so nothing is queued before the consumers are started
+ */
+public class BlockingRingBuffer<E> {
+
+    private final BoundedRingBuffer<E> ring;
+    private final Consumer<E> rejected;
+    private final AtomicBoolean closed = new AtomicBoolean(true);
+
+    private final Queue<Thread> takers = new ConcurrentLinkedQueue<>();
+    private final Queue<Thread> putters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity
+     * @param rejected called for each item still queued after the close
+     */
+    public BlockingRingBuffer(int capacity, Consumer<E> rejected) {
+        this.ring = new BoundedRingBuffer<>(capacity);
+        this.rejected = rejected;
+    }
+
+    /**
+     * lets the items in
+     */
+    public void open() {
+        closed.set(false);
+    }
+
+    /**
+     * stops the items going in and wakes all of the waiting threads
+     *
+     * @return false when it was already closed
+     */
+    public boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        wakeAll(takers);
+        wakeAll(putters);
+        return true;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @param item
+     * @return false when the queue is full or closed,
+     *  true when it is queued or was already handed to the rejected handler
+     */
+    public boolean offer(E item) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!ring.offer(item)) {
+            return false;
+        }
+        wakeOne(takers);
+        if (closed.get()) {
+            // closed between the check and the offer so the close may not have seen it
+            this.drain();
+        }
+        return true;
+    }
+
+    /**
+     * waits for room
+     *
+     * @param item
+     * @return false when it closed or the thread was interrupted while waiting
+     */
+    public boolean put(E item) {
+        Thread current = Thread.currentThread();
+        for (;;) {
+            if (this.offer(item)) {
+                return true;
+            }
+            if (closed.get()) {
+                return false;
+            }
+            putters.add(current);
+            // a consumer may have made room before it could see this thread
+            if (this.offer(item)) {
+                putters.remove(current);
+                return true;
+            }
+            if (!closed.get()) {
+                LockSupport.park(this);
+            }
+            putters.remove(current);
+            if (Thread.interrupted()) {
+                current.interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the oldest item or null when the queue is empty
+     */
+    public E poll() {
+        E item = ring.poll();
+        if (item != null) {
+            wakeOne(putters);
+        }
+        return item;
+    }
+
+    /**
+     * waits for an item
+     *
+     * @return the oldest item, or null once closed or when the thread was interrupted while waiting
+     */
+    public E take() {
+        Thread current = Thread.currentThread();
+        for (;;) {
+            if (closed.get()) {
+                return null;
+            }
+            E item = this.poll();
+            if (item != null) {
+                return item;
+            }
+            takers.add(current);
+            // a producer may have put one in before it could see this thread
+            item = this.poll();
+            if (item != null) {
+                takers.remove(current);
+                return item;
+            }
+            if (!closed.get()) {
+                LockSupport.park(this);
+            }
+            takers.remove(current);
+            if (Thread.interrupted()) {
+                current.interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * hands whatever is left to the rejected handler,
+     * only once it is closed
+     */
+    public void drain() {
+        if (!closed.get()) {
+            return;
+        }
+        E item;
+        while ((item = ring.poll()) != null) {
+            rejected.accept(item);
+        }
+    }
+
+    /**
+     * only an estimate while producers and consumers are busy
+     */
+    public int size() {
+        return ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    private static void wakeOne(Queue<Thread> waiting) {
+        if (!waiting.isEmpty()) {
+            Thread thread = waiting.poll();
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    private static void wakeAll(Queue<Thread> waiting) {
+        Thread thread;
+        while ((thread = waiting.poll()) != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package codesmell.camel.ingress;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * a bounded lock-free multi-producer multi-consumer queue
+ * <p>
+ * each slot has a sequence number that says whose turn it is,
+ * a producer claims a slot with a CAS on the enqueue position
+ * and then publishes it by moving the slot sequence forward,
+ * a consumer does the same with the dequeue position
+ * <p>
+ * the capacity is rounded up to a power of two
+ * so the slot is a mask of the position,
+ * and to at least two as with one slot a published item
+ * looks the same as a free slot for the next lap
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    public BoundedRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param item
+     * @return false when the queue is full
+     */
+    public boolean offer(E item) {
+        if (item == null) {
+            throw new NullPointerException("item");
+        }
+        long position = enqueuePosition.get();
+        for (;;) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    // the volatile write publishes the item to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (diff < 0) {
+                // the consumers have not freed this slot yet
+                return false;
+            } else {
+                // another producer got here first
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest item or null when the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = dequeuePosition.get();
+        for (;;) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E item = (E) items[index];
+                    items[index] = null;
+                    // hand the slot back to the producers for the next lap
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+                position = dequeuePosition.get();
+            } else if (diff < 0) {
+                // nothing published in this slot yet
+                return null;
+            } else {
+                // another consumer got here first
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * only an estimate while producers and consumers are busy
+     */
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,48 @@
+package codesmell.camel.ingress;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.builder.RouteBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * a bounded queue in front of the main route
+ * so a burst waits (or is turned away)
+ * instead of running all at once against the services
+ * <p>
+ * a message turned away by the REJECT overflow
+ * fails with a RejectedExecutionException for the sender to see,
+ * a queued one comes back with whatever the main route did to it
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.ingress.enabled", havingValue = "true")
+public class FooIngressRouteBuilder extends RouteBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FooIngressRouteBuilder.class);
+
+    @Value("${codesmell.ingress.target:" + CamelConstants.MAIN_ENDPOINT_URI + "}")
+    private String targetUri;
+
+    @Value("${codesmell.ingress.capacity:1024}")
+    private int capacity;
+
+    @Value("${codesmell.ingress.consumers:8}")
+    private int consumers;
+
+    @Value("${codesmell.ingress.overflow:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Override
+    public void configure() {
+        
+        LOGGER.info("building camel ingress route to {}...", targetUri);
+
+        from(CamelConstants.INGRESS_ENDPOINT_URI)
+            .routeId(CamelConstants.INGRESS_ROUTE_ID)
+            .errorHandler(noErrorHandler())
+            .process(new IngressQueueProcessor(getContext(), targetUri, capacity, consumers, overflowPolicy));
+    }
+
+}
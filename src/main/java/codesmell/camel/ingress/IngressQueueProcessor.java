@@ -0,0 +1,148 @@
+package codesmell.camel.ingress;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.support.service.ServiceHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * puts the exchange on a bounded queue
+ * and a fixed number of consumer threads send it on to the target route
+ * <p>
+ * the consumers wait for the target route to finish
+ * so no more than the consumer count of exchanges
+ * are ever in the target route at once
+ * <p>
+ * the target route works on the same exchange
+ * so the handled and unhandled exceptions
+ * come back to the sender just as they do with direct
+ */
+public class IngressQueueProcessor extends AsyncProcessorSupport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngressQueueProcessor.class);
+
+    private final CamelContext camelContext;
+    private final String targetUri;
+    private final int consumers;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingRingBuffer<Entry> queue;
+
+    private AsyncProducer producer;
+    private ExecutorService consumerPool;
+
+    public IngressQueueProcessor(CamelContext camelContext, String targetUri, 
+        int capacity, int consumers, OverflowPolicy overflowPolicy) {
+        
+        if (consumers < 1) {
+            throw new IllegalArgumentException("consumers must be at least 1: " + consumers);
+        }
+        this.camelContext = camelContext;
+        this.targetUri = targetUri;
+        this.consumers = consumers;
+        this.overflowPolicy = overflowPolicy;
+        // whatever is left when it stops never made it to the target route
+        this.queue = new BlockingRingBuffer<>(capacity, entry -> {
+            entry.exchange.setException(new RejectedExecutionException("ingress queue is stopped"));
+            entry.callback.done(false);
+        });
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        Entry entry = new Entry(exchange, callback);
+        if (queue.offer(entry)) {
+            return false;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                if (queue.put(entry)) {
+                    return false;
+                }
+                break;
+            case CALLER_RUNS:
+                if (!queue.isClosed()) {
+                    send(entry);
+                    callback.done(true);
+                    return true;
+                }
+                break;
+            case REJECT:
+            default:
+                break;
+        }
+
+        exchange.setException(new RejectedExecutionException(
+            queue.isClosed() ? "ingress queue is stopped" : "ingress queue is full"));
+        callback.done(true);
+        return true;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        producer = camelContext.getEndpoint(targetUri).createAsyncProducer();
+        ServiceHelper.startService(producer);
+
+        queue.open();
+        consumerPool = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "ingress", consumers);
+        for (int i = 0; i < consumers; i++) {
+            consumerPool.execute(this::consume);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        queue.close();
+        camelContext.getExecutorServiceManager().shutdownGraceful(consumerPool);
+        consumerPool = null;
+        queue.drain();
+
+        ServiceHelper.stopService(producer);
+        producer = null;
+    }
+
+    /**
+     * an estimate of the exchanges waiting for a consumer
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    private void consume() {
+        Entry entry;
+        while ((entry = queue.take()) != null) {
+            send(entry);
+            entry.callback.done(false);
+        }
+    }
+
+    private void send(Entry entry) {
+        try {
+            // waits for the target route
+            producer.process(entry.exchange);
+        } catch (Throwable e) {
+            LOGGER.debug("ingress send failed", e);
+            entry.exchange.setException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+
+        private Entry(Exchange exchange, AsyncCallback callback) {
+            this.exchange = exchange;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package codesmell.camel.ingress;
+
+/**
+ * what the ingress does with a message
+ * when the queue is full
+ */
+public enum OverflowPolicy {
+    /**
+     * the sender waits for room in the queue
+     */
+    BLOCK,
+    /**
+     * the exchange fails with a RejectedExecutionException
+     */
+    REJECT,
+    /**
+     * the sender runs the route itself
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,58 @@
+package codesmell.camel.ordered;
+
+import codesmell.camel.CamelConstants;
+import codesmell.camel.ingress.OverflowPolicy;
+import org.apache.camel.builder.RouteBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * key ordered lanes in front of the main route,
+ * the messages for a key stay in order
+ * and the different keys run in parallel
+ * <p>
+ * the sender gets its exchange back once its lane has run it,
+ * a full lane (unless it blocks) or a stopped one
+ * fails it with a RejectedExecutionException
+ * and nothing here retries it, that would put the key out of order
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.ordered.enabled", havingValue = "true")
+public class FooOrderedRouteBuilder extends RouteBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FooOrderedRouteBuilder.class);
+
+    @Value("${codesmell.ordered.target:" + CamelConstants.MAIN_ENDPOINT_URI + "}")
+    private String targetUri;
+
+    @Value("${codesmell.ordered.key-header:" + CamelConstants.ORDER_KEY_HEADER + "}")
+    private String keyHeader;
+
+    /**
+     * a lane for each core when not set
+     */
+    @Value("${codesmell.ordered.lanes:0}")
+    private int lanes;
+
+    @Value("${codesmell.ordered.lane-capacity:1024}")
+    private int laneCapacity;
+
+    @Value("${codesmell.ordered.overflow:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Override
+    public void configure() {
+        int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        
+        LOGGER.info("building camel ordered route to {} with {} lanes keyed on {}...", targetUri, laneCount, keyHeader);
+
+        from(CamelConstants.ORDERED_ENDPOINT_URI)
+            .routeId(CamelConstants.ORDERED_ROUTE_ID)
+            .errorHandler(noErrorHandler())
+            .process(new KeyOrderedLanesProcessor(getContext(), targetUri, keyHeader, 
+                laneCount, laneCapacity, overflowPolicy));
+    }
+
+}
@@ -0,0 +1,168 @@
+package codesmell.camel.ordered;
+
+import codesmell.camel.ingress.BlockingRingBuffer;
+import codesmell.camel.ingress.OverflowPolicy;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.support.service.ServiceHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * hashes the key of the exchange to one of a fixed number of lanes,
+ * each lane is a bounded queue with a single thread
+ * sending on to the target route
+ * <p>
+ * so the exchanges with the same key go through the target route
+ * one at a time in the order they came in,
+ * and the exchanges with other keys go through at the same time on the other lanes
+ * <p>
+ * the target route works on the same exchange
+ * so the handled and unhandled exceptions come back to the sender,
+ * an unhandled failure only holds up its own lane for as long as it took,
+ * the next exchange on that lane goes through after it
+ * <p>
+ * the exchanges without a key don't need an order
+ * and are spread over the lanes
+ */
+public class KeyOrderedLanesProcessor extends AsyncProcessorSupport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyOrderedLanesProcessor.class);
+
+    private final CamelContext camelContext;
+    private final String targetUri;
+    private final String keyHeader;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingRingBuffer<Entry>[] lanes;
+    private final AtomicInteger unkeyed = new AtomicInteger();
+
+    private AsyncProducer producer;
+    private ExecutorService lanePool;
+
+    @SuppressWarnings("unchecked")
+    public KeyOrderedLanesProcessor(CamelContext camelContext, String targetUri, String keyHeader,
+        int laneCount, int laneCapacity, OverflowPolicy overflowPolicy) {
+        
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("lanes must be at least 1: " + laneCount);
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            // the caller would jump ahead of the lane
+            throw new IllegalArgumentException("CALLER_RUNS would break the order of the keys");
+        }
+        this.camelContext = camelContext;
+        this.targetUri = targetUri;
+        this.keyHeader = keyHeader;
+        this.overflowPolicy = overflowPolicy;
+        this.lanes = new BlockingRingBuffer[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            // whatever is left when it stops never made it to the target route
+            lanes[i] = new BlockingRingBuffer<>(laneCapacity, entry -> {
+                entry.exchange.setException(new RejectedExecutionException("ordered lanes are stopped"));
+                entry.callback.done(false);
+            });
+        }
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        Entry entry = new Entry(exchange, callback);
+        BlockingRingBuffer<Entry> lane = lanes[this.laneOf(exchange.getMessage().getHeader(keyHeader, String.class))];
+        if (lane.offer(entry)) {
+            return false;
+        }
+
+        if (overflowPolicy == OverflowPolicy.BLOCK && lane.put(entry)) {
+            return false;
+        }
+
+        exchange.setException(new RejectedExecutionException(
+            lane.isClosed() ? "ordered lanes are stopped" : "ordered lane is full"));
+        callback.done(true);
+        return true;
+    }
+
+    /**
+     * the same key always gets the same lane
+     */
+    public int laneOf(String key) {
+        if (key == null) {
+            return Math.floorMod(unkeyed.getAndIncrement(), lanes.length);
+        }
+        int hash = key.hashCode();
+        // the low bits of a String hash are poor for short keys
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * an estimate of the exchanges waiting on the lane
+     */
+    public int getQueueSize(int lane) {
+        return lanes[lane].size();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        producer = camelContext.getEndpoint(targetUri).createAsyncProducer();
+        ServiceHelper.startService(producer);
+
+        lanePool = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "ordered-lane", lanes.length);
+        for (BlockingRingBuffer<Entry> lane : lanes) {
+            lane.open();
+            lanePool.execute(() -> this.drain(lane));
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        for (BlockingRingBuffer<Entry> lane : lanes) {
+            lane.close();
+        }
+        camelContext.getExecutorServiceManager().shutdownGraceful(lanePool);
+        lanePool = null;
+        for (BlockingRingBuffer<Entry> lane : lanes) {
+            lane.drain();
+        }
+
+        ServiceHelper.stopService(producer);
+        producer = null;
+    }
+
+    private void drain(BlockingRingBuffer<Entry> lane) {
+        Entry entry;
+        while ((entry = lane.take()) != null) {
+            this.send(entry);
+            entry.callback.done(false);
+        }
+    }
+
+    private void send(Entry entry) {
+        try {
+            // waits for the target route so the next one stays behind it
+            producer.process(entry.exchange);
+        } catch (Throwable e) {
+            LOGGER.debug("ordered lane send failed", e);
+            entry.exchange.setException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+
+        private Entry(Exchange exchange, AsyncCallback callback) {
+            this.exchange = exchange;
+            this.callback = callback;
+        }
+    }
+}
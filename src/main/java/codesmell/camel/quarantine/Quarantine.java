@@ -0,0 +1,177 @@
+package codesmell.camel.quarantine;
+
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.QuarantinedMessageException;
+import codesmell.exception.SpikeException;
+import codesmell.exception.TransientServiceException;
+import codesmell.util.Fingerprint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.Processor;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the bodies that failed unhandled lately
+ * fail straight away with a {@link QuarantinedMessageException}
+ * instead of going through the services and the onException chain again
+ * <p>
+ * the body is fingerprinted as the message comes in
+ * and the fingerprint is quarantined when the exchange is done
+ * and failed with a {@link SpikeException} about the message itself,
+ * until the cool-off is over
+ * <p>
+ * a failure that is about the services or the load
+ * (transient, breaker open, rejected) would go through next time
+ * so it is not quarantined, nor is a quarantined message turned away again,
+ * the onException blocks throw a new SpikeException
+ * so it is what they caught that says which it was
+ * <p>
+ * the cool-off is the same for every entry so the order they went in
+ * is the order they expire, a queue in that order is swept from the head
+ * as entries go in, dropping the expired ones and, when it is full,
+ * the ones closest to expiring
+ */
+@Component
+public class Quarantine {
+
+    private static final String QUARANTINED_MESSAGE = "the message is quarantined";
+
+    @Value("${codesmell.quarantine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${codesmell.quarantine.cool-off-ms:30000}")
+    private long coolOffMillis;
+
+    @Value("${codesmell.quarantine.max-entries:10000}")
+    private int maxEntries;
+
+    // fingerprint > when the cool-off ends
+    private final Map<Long, Long> quarantined = new ConcurrentHashMap<>();
+    // oldest first, guarded by this
+    private final Queue<Expiry> expiries = new ArrayDeque<>();
+
+    private final LongAdder quarantines = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+
+    /**
+     * puts the quarantine check at the head of the route
+     * when the quarantine is turned on
+     */
+    public void configure(ProcessorDefinition<?> route) {
+        if (enabled) {
+            route.process(this.stage());
+        }
+    }
+
+    /**
+     * the check for a message coming in
+     */
+    public Processor stage() {
+        return exchange -> {
+            String body = exchange.getMessage().getBody(String.class);
+            if (body == null) {
+                return;
+            }
+            long fingerprint = Fingerprint.of(body);
+            if (this.isQuarantined(fingerprint)) {
+                shortCircuits.increment();
+                throw new QuarantinedMessageException(QUARANTINED_MESSAGE);
+            }
+            exchange.getUnitOfWork().addSynchronization(new SynchronizationAdapter() {
+                @Override
+                public void onFailure(Exchange failed) {
+                    Throwable caught = failed.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+                    if (isPoison(failed.getException(), caught)) {
+                        Quarantine.this.quarantine(fingerprint);
+                    }
+                }
+            });
+        };
+    }
+
+    public boolean isQuarantined(String body) {
+        return this.isQuarantined(Fingerprint.of(body));
+    }
+
+    public void release(String body) {
+        quarantined.remove(Fingerprint.of(body));
+    }
+
+    public int size() {
+        return quarantined.size();
+    }
+
+    public long getQuarantines() {
+        return quarantines.sum();
+    }
+
+    /**
+     * the messages turned away while quarantined
+     */
+    public long getShortCircuits() {
+        return shortCircuits.sum();
+    }
+
+    /**
+     * @param failure what the exchange failed with
+     * @param caught what the onException caught, the failure may have been thrown from there
+     * @return true when the failure is about the message
+     */
+    static boolean isPoison(Throwable failure, Throwable caught) {
+        if (!(failure instanceof SpikeException) || failure instanceof QuarantinedMessageException) {
+            return false;
+        }
+        return !(caught instanceof TransientServiceException 
+            || caught instanceof CircuitBreakerOpenException 
+            || caught instanceof RejectedExecutionException);
+    }
+
+    synchronized void quarantine(long fingerprint) {
+        long now = System.nanoTime();
+        Expiry oldest;
+        while ((oldest = expiries.peek()) != null 
+            && (now - oldest.until >= 0 || expiries.size() >= maxEntries)) {
+            
+            expiries.poll();
+            // not if it was quarantined again since
+            quarantined.remove(oldest.fingerprint, oldest.until);
+        }
+        long until = now + TimeUnit.MILLISECONDS.toNanos(coolOffMillis);
+        quarantined.put(fingerprint, until);
+        expiries.add(new Expiry(fingerprint, until));
+        quarantines.increment();
+    }
+
+    private boolean isQuarantined(long fingerprint) {
+        Long until = quarantined.get(fingerprint);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until >= 0) {
+            quarantined.remove(fingerprint, until);
+            return false;
+        }
+        return true;
+    }
+
+    private static final class Expiry {
+        private final long fingerprint;
+        private final long until;
+
+        private Expiry(long fingerprint, long until) {
+            this.fingerprint = fingerprint;
+            this.until = until;
+        }
+    }
+}
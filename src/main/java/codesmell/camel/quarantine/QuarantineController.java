@@ -0,0 +1,24 @@
+package codesmell.camel.quarantine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class QuarantineController {
+
+    @Autowired
+    private Quarantine quarantine;
+
+    @GetMapping("/metrics/quarantine")
+    public Map<String, Object> getQuarantine() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", quarantine.size());
+        metrics.put("quarantines", quarantine.getQuarantines());
+        metrics.put("shortCircuits", quarantine.getShortCircuits());
+        return metrics;
+    }
+}
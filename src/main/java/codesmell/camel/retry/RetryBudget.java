@@ -0,0 +1,69 @@
+package codesmell.camel.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * a token bucket that keeps retries
+ * to a share of the live traffic
+ * <p>
+ * every first attempt deposits the ratio of a token
+ * and every retry takes a whole token,
+ * so with a ratio of 0.1 there is at most one retry
+ * for every ten requests once the bucket is empty
+ * <p>
+ * the bucket starts full so a few retries
+ * are allowed before there is any traffic
+ */
+public class RetryBudget {
+
+    // tokens are kept in thousandths
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio retries allowed per request
+     * @param maxTokens most retries that can be saved up for a burst
+     */
+    public RetryBudget(double ratio, int maxTokens) {
+        if (ratio < 0 || maxTokens < 0) {
+            throw new IllegalArgumentException("the ratio and max tokens can't be negative");
+        }
+        this.deposit = Math.round(ratio * SCALE);
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * a first attempt
+     */
+    public void deposit() {
+        long current = balance.get();
+        while (current < maxBalance) {
+            if (balance.compareAndSet(current, Math.min(maxBalance, current + deposit))) {
+                return;
+            }
+            current = balance.get();
+        }
+    }
+
+    /**
+     * @return false when a retry is not in the budget
+     */
+    public boolean tryWithdraw() {
+        long current = balance.get();
+        while (current >= SCALE) {
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+    public double getAvailable() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,127 @@
+package codesmell.camel.retry;
+
+import codesmell.camel.CamelConstants;
+import jakarta.annotation.PostConstruct;
+import org.apache.camel.Exchange;
+import org.apache.camel.LoggingLevel;
+import org.apache.camel.Processor;
+import org.apache.camel.model.OnExceptionDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the redelivery shared by the sub routes
+ * for the failures worth trying again
+ * <p>
+ * the delay grows exponentially with some jitter
+ * (Camel's collision avoidance) so the retries spread out,
+ * and the redeliveries are scheduled instead of holding the thread
+ * <p>
+ * every retry also has to come out of the {@link RetryBudget},
+ * when the budget is used up the failure goes on
+ * as if there were no redelivery at all
+ */
+@Component
+public class RetryPolicy {
+
+    /**
+     * 0 turns off the redelivery
+     */
+    @Value("${codesmell.retry.max:0}")
+    private int maxRetries;
+
+    @Value("${codesmell.retry.delay-ms:100}")
+    private long delayMillis;
+
+    @Value("${codesmell.retry.max-delay-ms:5000}")
+    private long maxDelayMillis;
+
+    @Value("${codesmell.retry.multiplier:2}")
+    private double multiplier;
+
+    /**
+     * each delay is moved up or down by up to this fraction
+     */
+    @Value("${codesmell.retry.jitter:0.5}")
+    private double jitter;
+
+    @Value("${codesmell.retry.budget.ratio:0.1}")
+    private double budgetRatio;
+
+    @Value("${codesmell.retry.budget.max:100}")
+    private int budgetMax;
+
+    private RetryBudget budget;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        budget = new RetryBudget(budgetRatio, budgetMax);
+    }
+
+    /**
+     * adds the redelivery to the onException
+     *
+     * @param onException
+     * @return the onException to carry on building
+     */
+    public OnExceptionDefinition redeliver(OnExceptionDefinition onException) {
+        return onException
+            .maximumRedeliveries(maxRetries)
+            .redeliveryDelay(delayMillis)
+            .maximumRedeliveryDelay(maxDelayMillis)
+            .useExponentialBackOff()
+            .backOffMultiplier(multiplier)
+            .useCollisionAvoidance()
+            .collisionAvoidanceFactor(jitter)
+            // the wait is on a scheduler, not on the thread
+            .asyncDelayedRedelivery()
+            .retryAttemptedLogLevel(LoggingLevel.WARN)
+            // takes over from maximumRedeliveries
+            .retryWhile(this::shouldRetry);
+    }
+
+    /**
+     * a step at the start of the sub routes
+     * so the first attempts fill the budget
+     */
+    public Processor countAttempt() {
+        return exchange -> {
+            if (exchange.getProperty(CamelConstants.RETRY_ATTEMPT_PROPERTY) == null) {
+                budget.deposit();
+            }
+        };
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * retries that were turned down by the budget
+     */
+    public long getDenied() {
+        return denied.sum();
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    private boolean shouldRetry(Exchange exchange) {
+        int attempt = exchange.getProperty(CamelConstants.RETRY_ATTEMPT_PROPERTY, 0, Integer.class);
+        if (attempt >= maxRetries) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            denied.increment();
+            return false;
+        }
+        exchange.setProperty(CamelConstants.RETRY_ATTEMPT_PROPERTY, attempt + 1);
+        retries.increment();
+        return true;
+    }
+}
@@ -1,22 +1,39 @@
 package codesmell.camel.routeconfig;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.retry.RetryPolicy;
+import codesmell.exception.CircuitBreakerOpenException;
 import codesmell.exception.FooBarException;
 import codesmell.exception.GrokException;
 import codesmell.exception.SpikeException;
+import codesmell.exception.TransientServiceException;
+import codesmell.logging.ErrorLog;
+import codesmell.metrics.ExceptionMetrics;
+import codesmell.metrics.ExceptionOutcome;
 import org.apache.camel.builder.RouteConfigurationBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CamelExceptionRouteConfigurationBuilder extends RouteConfigurationBuilder {
 
+    @Autowired
+    private ExceptionMetrics exceptionMetrics;
+
+    @Autowired
+    private ErrorLog errorLog;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
     @Override
     public void configuration() throws Exception {
 
         routeConfiguration(CamelConstants.SHARED_SPIKE_ERROR_CONFIG)
             .onException(SpikeException.class)
                 .handled(false)
-                .log("things are not going well...")
+                .process(errorLog.error("things are not going well..."))
+                .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED))
                 .process(exchange -> {
                     String in = exchange.getMessage().getBody(String.class);
                     exchange.getMessage().setBody("unhandled_spike_exception_" + in);
@@ -25,26 +42,47 @@ public class CamelExceptionRouteConfigurationBuilder extends RouteConfigurationB
         routeConfiguration(CamelConstants.SHARED_FOO_ERROR_CONFIG)
             .onException(FooBarException.class)
                 .handled(true)
-                .log("houston we have a problem...")
+                .process(errorLog.warn("houston we have a problem..."))
                 .process(exchange -> {
                     String in = exchange.getMessage().getBody(String.class);
     
                     if (in.startsWith("error")) {
                         exchange.getMessage().setBody("another_exception_" + in);
-                        throw new SpikeException("still can't handle the message");
+                        exceptionMetrics.record(exchange, ExceptionOutcome.RETHROWN);
+                        throw SpikeException.of("still can't handle the message");
                     } else {
                         exchange.getMessage().setBody("handled_foo_exception_" + in);
+                        exceptionMetrics.record(exchange, ExceptionOutcome.HANDLED);
                     }
                 });
         
         routeConfiguration(CamelConstants.SHARED_GROK_ERROR_CONFIG)
             .onException(GrokException.class)
                 .handled(false)
-                .log("things are not grokking very well...")
+                .process(errorLog.error("things are not grokking very well..."))
+                .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED))
                 .process(exchange -> {
                     String in = exchange.getMessage().getBody(String.class);
                     exchange.getMessage().setBody("unhandled_grok_exception_" + in);
                 });
+
+        // only an open circuit breaker, not the other GrokExceptions
+        routeConfiguration(CamelConstants.SHARED_BREAKER_ERROR_CONFIG)
+            .onException(CircuitBreakerOpenException.class)
+                .handled(false)
+                .process(errorLog.error("the circuit breaker is open..."))
+                .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED))
+                .process(exchange -> {
+                    String in = exchange.getMessage().getBody(String.class);
+                    exchange.getMessage().setBody("unhandled_breaker_open_" + in);
+                });
+
+        retryPolicy.redeliver(
+            routeConfiguration(CamelConstants.SHARED_RETRY_CONFIG)
+                .onException(TransientServiceException.class))
+                .handled(false)
+                .process(errorLog.error("ran out of retries..."))
+                .process(exceptionMetrics.recorder(ExceptionOutcome.UNHANDLED));
     }
 
 }
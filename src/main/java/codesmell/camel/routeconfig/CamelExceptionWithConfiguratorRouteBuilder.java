@@ -1,13 +1,21 @@
 package codesmell.camel.routeconfig;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.quarantine.Quarantine;
+import codesmell.camel.routing.KeywordDispatchTable;
+import codesmell.camel.routing.KeywordEndpointDispatcher;
+import codesmell.camel.routing.KeywordRouteClassifier;
+import codesmell.camel.service.ServiceStepFactory;
+import codesmell.camel.threads.RouteThreads;
 import codesmell.exception.FooBarException;
+import codesmell.logging.LazyBody;
 import codesmell.service.FooBar;
-import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.RouteDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,49 +25,71 @@ public class CamelExceptionWithConfiguratorRouteBuilder extends RouteBuilder {
     @Autowired
     private FooBar fooBarService;
 
+    @Autowired
+    private ServiceStepFactory serviceSteps;
+
+    @Autowired
+    private RouteThreads routeThreads;
+
+    @Autowired
+    private Quarantine quarantine;
+
+    /**
+     * keyword=endpoint pairs for the sub routes,
+     * the defaults are used when empty
+     */
+    @Value("${codesmell.dispatch.configurator:}")
+    private String subRoutes;
+
     @Override
     public void configure() {
         
         LOGGER.info("building camel route with configurator to test exceptions...");
 
-        from(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI)
+        KeywordDispatchTable dispatchTable = this.buildDispatchTable();
+
+        RouteDefinition route = from(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI)
             .routeId(CamelConstants.MAIN_CONFIGURATOR_ROUTE_ID)
             .routeConfigurationId(
                 CamelConstants.SHARED_FOO_ERROR_CONFIG 
                 + "," 
-                + CamelConstants.SHARED_SPIKE_ERROR_CONFIG)
+                + CamelConstants.SHARED_SPIKE_ERROR_CONFIG);
+
+        // the recently failed messages fail again here, before the thread hop
+        quarantine.configure(route);
+
+        // the rest of the route (and the sub routes) run on the configured threads
+        routeThreads.configure(route, getContext());
+
+        route
             .log("chugging along with configurator")
+            .process(new KeywordRouteClassifier(dispatchTable.getKeywords()))
             .choice()
-            .when(this::isGrokking)
-                // end point w/ route config for error handling
-                .to(CamelConstants.GROK_CONFIGURATOR_ENDPOINT_URI)
+            .when(header(CamelConstants.ROUTE_KEYWORD_HEADER).isNotNull())
+                .process(new KeywordEndpointDispatcher(getContext(), dispatchTable))
             .otherwise()
                 .log("foo fighting with configurator")
-                .process(exchange -> {
-                    String in = exchange.getMessage().getBody(String.class);
-                    String out = fooBarService.process(in);
-                    exchange.getIn().setBody(out);
-                })
+                .process(serviceSteps.build("fooBarConfig", fooBarService, getContext()))
                 .process(exchange -> {
                     String body = exchange.getMessage().getBody(String.class);
                     if (body.startsWith("error")) {
-                        throw new FooBarException("can't handle the message");
+                        throw FooBarException.of("can't handle the message");
                     }
                 })            
             .end()
             .process(exchange -> {
-                LOGGER.info("after route with configurator message is now > {}", exchange.getMessage().getBody(String.class));
+                LOGGER.info("after route with configurator message is now > {}", LazyBody.of(exchange));
             })
             .to(CamelConstants.MAIN_CONFIGURATOR_OUTGOING_ENDPOINT_URI)
             .log("end main with configurator");
     }
     
-    private boolean isGrokking(Exchange exchange) {
-        String body = exchange.getMessage().getBody(String.class);
-        if (body.contains("grok")) {
-            return true;
-        } else {
-            return false;
+    private KeywordDispatchTable buildDispatchTable() {
+        if (subRoutes == null || subRoutes.isBlank()) {
+            return new KeywordDispatchTable()
+                // end point w/ route config for error handling
+                .add(CamelConstants.GROK_KEYWORD, CamelConstants.GROK_CONFIGURATOR_ENDPOINT_URI);
         }
+        return KeywordDispatchTable.parse(subRoutes);
     }
 }
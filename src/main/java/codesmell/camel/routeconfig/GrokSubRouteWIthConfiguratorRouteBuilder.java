@@ -1,6 +1,11 @@
 package codesmell.camel.routeconfig;
 
 import codesmell.camel.CamelConstants;
+import codesmell.camel.breaker.CircuitBreakers;
+import codesmell.camel.cache.ResultCaches;
+import codesmell.camel.retry.RetryPolicy;
+import codesmell.camel.service.ServiceStepFactory;
+import codesmell.logging.LazyBody;
 import codesmell.service.Grokker;
 import org.apache.camel.builder.RouteBuilder;
 import org.slf4j.Logger;
@@ -19,27 +24,44 @@ public class GrokSubRouteWIthConfiguratorRouteBuilder extends RouteBuilder {
     @Autowired
     private Grokker grokService;
 
+    @Autowired
+    private ServiceStepFactory serviceSteps;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @Autowired
+    private ResultCaches resultCaches;
+
     @Override
     public void configure() {
         
         LOGGER.info("building camel sub route to test exceptions...");
 
+        // using the same shared error config
+        String routeConfigurations = CamelConstants.SHARED_FOO_ERROR_CONFIG 
+            + "," 
+            + CamelConstants.SHARED_SPIKE_ERROR_CONFIG
+            + ","
+            + CamelConstants.SHARED_RETRY_CONFIG
+            + ","
+            // only ever thrown with the breakers on,
+            // any other GrokException stays with the default error handler
+            + CamelConstants.SHARED_BREAKER_ERROR_CONFIG;
+
         from(CamelConstants.GROK_CONFIGURATOR_ENDPOINT_URI)
             .routeId(CamelConstants.GROK_CONFIGURATOR_ROUTE_ID)
-            // using the same shared error config
-            .routeConfigurationId(
-                CamelConstants.SHARED_FOO_ERROR_CONFIG 
-                + "," 
-                + CamelConstants.SHARED_SPIKE_ERROR_CONFIG)
+            .routeConfigurationId(routeConfigurations)
             .log("grokking along with configurator")
+            .process(retryPolicy.countAttempt())
+            // playing on a subroute
+            .process(serviceSteps.build("grokConfig", 
+                resultCaches.protect("grokker", circuitBreakers.protect("grokker", grokService)), getContext()))
             .process(exchange -> {
-                // playing on a subroute
-                String in = exchange.getMessage().getBody(String.class);
-                String out = grokService.process(in);
-                exchange.getIn().setBody(out);
-            })
-            .process(exchange -> {
-                LOGGER.info("after grokking with a configurator message is now > {}", exchange.getMessage().getBody(String.class));
+                LOGGER.info("after grokking with a configurator message is now > {}", LazyBody.of(exchange));
             })
             .log("end grok configurator");
     }
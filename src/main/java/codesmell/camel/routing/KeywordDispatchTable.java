@@ -0,0 +1,53 @@
+package codesmell.camel.routing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * keyword to sub route endpoint uri
+ * <p>
+ * the order the keywords are added is their priority
+ * when a body contains more than one of them
+ */
+public class KeywordDispatchTable {
+
+    private final Map<String, String> endpointUris = new LinkedHashMap<>();
+
+    public KeywordDispatchTable add(String keyword, String endpointUri) {
+        if (keyword == null || keyword.isBlank() || endpointUri == null || endpointUri.isBlank()) {
+            throw new IllegalArgumentException("keyword and endpoint uri are required");
+        }
+        if (endpointUris.putIfAbsent(keyword, endpointUri) != null) {
+            throw new IllegalArgumentException("keyword " + keyword + " is already mapped");
+        }
+        return this;
+    }
+
+    /**
+     * builds the table from configuration
+     * in the form <code>grok=direct:grok,heisenbug=direct:hesienbug</code>
+     *
+     * @param config
+     * @return the table
+     */
+    public static KeywordDispatchTable parse(String config) {
+        KeywordDispatchTable table = new KeywordDispatchTable();
+        for (String entry : config.split(",")) {
+            int split = entry.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("expected keyword=endpoint but found " + entry);
+            }
+            table.add(entry.substring(0, split).trim(), entry.substring(split + 1).trim());
+        }
+        return table;
+    }
+
+    public String[] getKeywords() {
+        return endpointUris.keySet().toArray(new String[0]);
+    }
+
+    public Map<String, String> getEndpointUris() {
+        return Collections.unmodifiableMap(endpointUris);
+    }
+}
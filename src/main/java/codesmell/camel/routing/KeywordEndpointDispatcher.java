@@ -0,0 +1,69 @@
+package codesmell.camel.routing;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.support.service.ServiceHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * sends the exchange to the sub route
+ * for the keyword in the {@link CamelConstants#ROUTE_KEYWORD_HEADER} header
+ * <p>
+ * the endpoints and producers are resolved once when the route starts
+ * so each exchange is a single hash lookup
+ * no matter how many sub routes there are
+ * <p>
+ * the exchange is handed to the sub route
+ * just like a to() so errors from the sub route
+ * come back to the error handling of the calling route
+ */
+public class KeywordEndpointDispatcher extends AsyncProcessorSupport {
+
+    private final CamelContext camelContext;
+    private final KeywordDispatchTable dispatchTable;
+    private final Map<String, AsyncProducer> producers = new HashMap<>();
+
+    public KeywordEndpointDispatcher(CamelContext camelContext, KeywordDispatchTable dispatchTable) {
+        this.camelContext = camelContext;
+        this.dispatchTable = dispatchTable;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        String keyword = exchange.getMessage().getHeader(CamelConstants.ROUTE_KEYWORD_HEADER, String.class);
+        AsyncProducer producer = keyword == null ? null : producers.get(keyword);
+        if (producer == null) {
+            exchange.setException(new IllegalStateException("no sub route for keyword " + keyword));
+            callback.done(true);
+            return true;
+        }
+        return producer.process(exchange, callback);
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        for (Map.Entry<String, String> entry : dispatchTable.getEndpointUris().entrySet()) {
+            Endpoint endpoint = camelContext.getEndpoint(entry.getValue());
+            AsyncProducer producer = endpoint.createAsyncProducer();
+            ServiceHelper.startService(producer);
+            producers.put(entry.getKey(), producer);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        ServiceHelper.stopService(producers.values());
+        producers.clear();
+    }
+
+    public KeywordDispatchTable getDispatchTable() {
+        return dispatchTable;
+    }
+}
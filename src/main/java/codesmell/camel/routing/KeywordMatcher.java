@@ -0,0 +1,187 @@
+package codesmell.camel.routing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * finds which of several keywords a body contains
+ * with a single scan of the body (Aho-Corasick)
+ * <p>
+ * keywords are given in priority order,
+ * when a body contains more than one keyword
+ * the one given first wins
+ * (the same as a chain of contains() checks)
+ * <p>
+ * the automaton is built once and is immutable
+ * so one instance can be shared by all exchanges
+ */
+public final class KeywordMatcher {
+
+    public static final int NO_MATCH = -1;
+
+    private static final int ASCII = 128;
+    private static final int ROOT = 0;
+
+    private final String[] keywords;
+
+    // ASCII characters map straight to their class
+    private final int[] asciiClass = new int[ASCII];
+    private final Map<Character, Integer> otherClass = new HashMap<>();
+    private final int alphabetSize;
+
+    // transitions[state * alphabetSize + charClass]
+    private final int[] transitions;
+
+    // lowest keyword index ending in a state (via the fail links too)
+    private final int[] matches;
+
+    public KeywordMatcher(String... keywords) {
+        if (keywords.length == 0) {
+            throw new IllegalArgumentException("at least one keyword is needed");
+        }
+        this.keywords = keywords.clone();
+
+        // class 0 is every character that is not in a keyword
+        int classes = 1;
+        for (String keyword : this.keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("keywords can't be empty");
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c < ASCII) {
+                    if (asciiClass[c] == 0) {
+                        asciiClass[c] = classes++;
+                    }
+                } else if (!otherClass.containsKey(c)) {
+                    otherClass.put(c, classes++);
+                }
+            }
+        }
+        this.alphabetSize = classes;
+
+        // the trie
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> output = new ArrayList<>();
+        trie.add(newState());
+        output.add(NO_MATCH);
+        for (int k = 0; k < this.keywords.length; k++) {
+            String keyword = this.keywords[k];
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = classOf(keyword.charAt(i));
+                int next = trie.get(state)[cls];
+                if (next == NO_MATCH) {
+                    next = trie.size();
+                    trie.add(newState());
+                    output.add(NO_MATCH);
+                    trie.get(state)[cls] = next;
+                }
+                state = next;
+            }
+            if (output.get(state) == NO_MATCH) {
+                output.set(state, k);
+            }
+        }
+
+        // fold the fail links into a full transition table (breadth first)
+        int states = trie.size();
+        this.transitions = new int[states * alphabetSize];
+        this.matches = new int[states];
+        int[] fail = new int[states];
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        matches[ROOT] = output.get(ROOT);
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            int next = trie.get(ROOT)[cls];
+            if (next == NO_MATCH) {
+                transitions[cls] = ROOT;
+            } else {
+                transitions[cls] = next;
+                fail[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            matches[state] = best(output.get(state), matches[fail[state]]);
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int next = trie.get(state)[cls];
+                if (next == NO_MATCH) {
+                    transitions[state * alphabetSize + cls] = transitions[fail[state] * alphabetSize + cls];
+                } else {
+                    transitions[state * alphabetSize + cls] = next;
+                    fail[next] = transitions[fail[state] * alphabetSize + cls];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param body
+     * @return the index of the highest priority keyword found
+     *  or NO_MATCH
+     */
+    public int find(CharSequence body) {
+        int best = NO_MATCH;
+        int state = ROOT;
+        for (int i = 0, length = body.length(); i < length; i++) {
+            state = transitions[state * alphabetSize + classOf(body.charAt(i))];
+            int match = matches[state];
+            if (match != NO_MATCH && (best == NO_MATCH || match < best)) {
+                best = match;
+                if (best == 0) {
+                    // nothing can beat the first keyword
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param body
+     * @return the highest priority keyword found or null
+     */
+    public String findKeyword(CharSequence body) {
+        int index = this.find(body);
+        return index == NO_MATCH ? null : keywords[index];
+    }
+
+    public List<String> getKeywords() {
+        return List.of(keywords);
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII) {
+            return asciiClass[c];
+        }
+        if (otherClass.isEmpty()) {
+            return 0;
+        }
+        Integer cls = otherClass.get(c);
+        return cls == null ? 0 : cls;
+    }
+
+    private int[] newState() {
+        int[] state = new int[alphabetSize];
+        Arrays.fill(state, NO_MATCH);
+        return state;
+    }
+
+    private static int best(int a, int b) {
+        if (a == NO_MATCH) {
+            return b;
+        }
+        if (b == NO_MATCH) {
+            return a;
+        }
+        return Math.min(a, b);
+    }
+}
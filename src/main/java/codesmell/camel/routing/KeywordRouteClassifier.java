@@ -0,0 +1,38 @@
+package codesmell.camel.routing;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+
+/**
+ * scans the body once for all of the routing keywords
+ * and stores the winning keyword in the
+ * {@link CamelConstants#ROUTE_KEYWORD_HEADER} header
+ * so the choice() only has to look at the header
+ */
+public class KeywordRouteClassifier implements Processor {
+
+    private final KeywordMatcher matcher;
+
+    public KeywordRouteClassifier(String... keywords) {
+        this.matcher = new KeywordMatcher(keywords);
+    }
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        Message message = exchange.getMessage();
+        String body = message.getBody(String.class);
+
+        String keyword = body == null ? null : matcher.findKeyword(body);
+        if (keyword != null) {
+            message.setHeader(CamelConstants.ROUTE_KEYWORD_HEADER, keyword);
+        } else {
+            message.removeHeader(CamelConstants.ROUTE_KEYWORD_HEADER);
+        }
+    }
+
+    public KeywordMatcher getMatcher() {
+        return matcher;
+    }
+}
@@ -0,0 +1,26 @@
+package codesmell.camel.service;
+
+import org.apache.camel.CamelContext;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * a non-blocking call of one service per exchange
+ */
+public class AsyncServiceProcessor extends ServiceCallProcessor {
+
+    private final Function<String, CompletionStage<String>> serviceCall;
+
+    public AsyncServiceProcessor(String name, Function<String, CompletionStage<String>> serviceCall, 
+        CamelContext camelContext) {
+        
+        super(name, camelContext);
+        this.serviceCall = serviceCall;
+    }
+
+    @Override
+    protected CompletionStage<String> call(String incoming) {
+        return serviceCall.apply(incoming);
+    }
+}
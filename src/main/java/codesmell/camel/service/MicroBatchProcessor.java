@@ -0,0 +1,156 @@
+package codesmell.camel.service;
+
+import codesmell.service.BatchResult;
+import org.apache.camel.CamelContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * groups the bodies of concurrent exchanges
+ * and makes one batch call for them
+ * <p>
+ * a batch is sent when it reaches the batch size
+ * or when the oldest message in it has waited for the window
+ * <p>
+ * each exchange continues with its own result
+ * and an exception for its message is set on its own exchange
+ * so the onException handling is the same as for a single call
+ */
+public class MicroBatchProcessor extends ServiceCallProcessor {
+
+    private final Function<List<String>, List<BatchResult>> batchCall;
+    private final int batchSize;
+    private final long windowMillis;
+
+    private final Object lock = new Object();
+    private List<Pending> pending;
+    private long generation;
+    private ScheduledExecutorService scheduler;
+
+    public MicroBatchProcessor(String name, Function<List<String>, List<BatchResult>> batchCall, 
+        int batchSize, long windowMillis, CamelContext camelContext) {
+        
+        super(name, camelContext);
+        if (batchSize < 1 || windowMillis < 1) {
+            throw new IllegalArgumentException("batch size and window must be positive");
+        }
+        this.batchCall = batchCall;
+        this.batchSize = batchSize;
+        this.windowMillis = windowMillis;
+        this.pending = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    protected CompletionStage<String> call(String incoming) {
+        return this.submit(incoming);
+    }
+
+    /**
+     * adds the message to the current batch
+     *
+     * @param incoming
+     * @return completes with the result for this message
+     */
+    public CompletableFuture<String> submit(String incoming) {
+        Pending message = new Pending(incoming);
+        List<Pending> full = null;
+        synchronized (lock) {
+            pending.add(message);
+            if (pending.size() >= batchSize) {
+                full = this.takeBatch();
+            } else if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                scheduler.schedule(() -> this.flush(scheduledGeneration), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            // the caller that fills the batch sends it
+            this.call(full);
+        }
+        return message.result;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        scheduler = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, name + "-batch");
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        List<Pending> remaining;
+        synchronized (lock) {
+            remaining = this.takeBatch();
+        }
+        this.call(remaining);
+        camelContext.getExecutorServiceManager().shutdown(scheduler);
+    }
+
+    private void flush(long scheduledGeneration) {
+        List<Pending> batch = null;
+        synchronized (lock) {
+            // the batch may already have been sent when it filled up
+            if (scheduledGeneration == generation && !pending.isEmpty()) {
+                batch = this.takeBatch();
+            }
+        }
+        if (batch != null) {
+            this.call(batch);
+        }
+    }
+
+    // must hold the lock
+    private List<Pending> takeBatch() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>(batchSize);
+        generation++;
+        return batch;
+    }
+
+    private void call(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> incoming = new ArrayList<>(batch.size());
+        for (Pending message : batch) {
+            incoming.add(message.incoming);
+        }
+
+        List<BatchResult> results;
+        try {
+            results = batchCall.apply(incoming);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException(name + " returned the wrong number of results for the batch");
+            }
+        } catch (RuntimeException e) {
+            // the whole call failed so every message did
+            for (Pending message : batch) {
+                message.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            BatchResult result = results.get(i);
+            if (result.isFailed()) {
+                batch.get(i).result.completeExceptionally(result.getFailure());
+            } else {
+                batch.get(i).result.complete(result.getValue());
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final String incoming;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private Pending(String incoming) {
+            this.incoming = incoming;
+        }
+    }
+}
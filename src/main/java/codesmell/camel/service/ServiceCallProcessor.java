@@ -0,0 +1,88 @@
+package codesmell.camel.service;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * calls a service with the body
+ * and replaces the body with the result
+ * <p>
+ * the Camel thread is not held while the call is in flight,
+ * the route continues on the thread that completes the result
+ * so no threads are added for the waiting
+ * <p>
+ * a failed result is set on the exchange as the original exception
+ * so the error handling is the same as if the call had thrown it
+ */
+public abstract class ServiceCallProcessor extends AsyncProcessorSupport {
+
+    protected final String name;
+    protected final CamelContext camelContext;
+
+    /**
+     * @param name used for the threads and logging
+     * @param camelContext
+     */
+    protected ServiceCallProcessor(String name, CamelContext camelContext) {
+        this.name = name;
+        this.camelContext = camelContext;
+    }
+
+    /**
+     * @param incoming the body
+     * @return completes with the new body
+     */
+    protected abstract CompletionStage<String> call(String incoming);
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        String in = exchange.getMessage().getBody(String.class);
+
+        CompletableFuture<String> result;
+        try {
+            result = this.call(in).toCompletableFuture();
+        } catch (RuntimeException e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        if (result.isDone()) {
+            // no need to go async
+            try {
+                exchange.getIn().setBody(result.join());
+            } catch (CompletionException | CancellationException e) {
+                exchange.setException(unwrap(e));
+            }
+            callback.done(true);
+            return true;
+        }
+
+        result.whenComplete((out, failure) -> {
+            if (failure != null) {
+                exchange.setException(unwrap(failure));
+            } else {
+                exchange.getIn().setBody(out);
+            }
+            callback.done(false);
+        });
+        return false;
+    }
+
+    static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) 
+            && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
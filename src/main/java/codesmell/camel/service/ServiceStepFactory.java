@@ -0,0 +1,52 @@
+package codesmell.camel.service;
+
+import codesmell.service.MessageService;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Processor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * builds the route step that calls a service with the body
+ * <p>
+ * all of the routes build their service calls here
+ * so the way the services are called is set in one place
+ */
+@Component
+public class ServiceStepFactory {
+
+    /**
+     * batch the service calls when more than one
+     */
+    @Value("${codesmell.batch.size:1}")
+    private int batchSize;
+
+    @Value("${codesmell.batch.window-ms:10}")
+    private long batchWindowMillis;
+
+    /**
+     * use the non-blocking service calls
+     */
+    @Value("${codesmell.async.enabled:false}")
+    private boolean async;
+
+    /**
+     * @param name used for the threads and logging
+     * @param service
+     * @param camelContext
+     * @return the step that replaces the body with the service result
+     */
+    public Processor build(String name, MessageService service, CamelContext camelContext) {
+        if (batchSize > 1) {
+            return new MicroBatchProcessor(name, service::process, batchSize, batchWindowMillis, camelContext);
+        }
+        if (async) {
+            return new AsyncServiceProcessor(name, service::processAsync, camelContext);
+        }
+        return exchange -> {
+            String in = exchange.getMessage().getBody(String.class);
+            String out = service.process(in);
+            exchange.getIn().setBody(out);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package codesmell.camel.threads;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.CamelContext;
+import org.apache.camel.model.ProcessorDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * hands the main routes off to the configured threads
+ * <p>
+ * the sub routes are called through direct
+ * so they run on the same thread as the main route
+ */
+@Component
+public class RouteThreads {
+
+    @Value("${codesmell.threads.mode:CALLER}")
+    private ThreadMode mode;
+
+    @Value("${codesmell.threads.pool-size:200}")
+    private int poolSize;
+
+    private ExecutorService executorService;
+    private boolean camelManaged;
+
+    /**
+     * adds the threads() to the route
+     * unless the route stays on the caller thread
+     *
+     * @param route
+     * @param camelContext
+     */
+    public void configure(ProcessorDefinition<?> route, CamelContext camelContext) {
+        if (mode == ThreadMode.CALLER) {
+            return;
+        }
+        route.threads().executorService(this.executorService(camelContext));
+    }
+
+    public ThreadMode getMode() {
+        return mode;
+    }
+
+    // shared by all of the main routes
+    private synchronized ExecutorService executorService(CamelContext camelContext) {
+        if (executorService == null) {
+            if (mode == ThreadMode.VIRTUAL) {
+                executorService = Executors.newVirtualThreadPerTaskExecutor();
+            } else {
+                executorService = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "route", poolSize);
+                camelManaged = true;
+            }
+        }
+        return executorService;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        // Camel shuts down the pools it created
+        if (executorService != null && !camelManaged) {
+            executorService.shutdown();
+        }
+    }
+}
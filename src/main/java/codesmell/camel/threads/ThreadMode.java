@@ -0,0 +1,20 @@
+package codesmell.camel.threads;
+
+/**
+ * which threads run the main routes
+ * and the sub routes they call through direct
+ */
+public enum ThreadMode {
+    /**
+     * the thread that sent the message (direct)
+     */
+    CALLER,
+    /**
+     * a fixed pool of platform threads
+     */
+    PLATFORM,
+    /**
+     * a new virtual thread for each exchange
+     */
+    VIRTUAL
+}
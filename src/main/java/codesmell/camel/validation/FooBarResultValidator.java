@@ -0,0 +1,59 @@
+package codesmell.camel.validation;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.apache.camel.support.service.ServiceHelper;
+
+/**
+ * the non-throwing version of the "error" check after the FooBar
+ * <p>
+ * the result is stored in the {@link CamelConstants#VALIDATION_RESULT_PROPERTY} property,
+ * rejected messages are sent to the rejected sub route
+ * instead of throwing a FooBarException
+ * that the onException would turn into a SpikeException
+ */
+public class FooBarResultValidator extends AsyncProcessorSupport {
+
+    private final CamelContext camelContext;
+    private final String rejectedEndpointUri;
+    private AsyncProducer rejectedProducer;
+
+    public FooBarResultValidator(CamelContext camelContext, String rejectedEndpointUri) {
+        this.camelContext = camelContext;
+        this.rejectedEndpointUri = rejectedEndpointUri;
+    }
+
+    public static ValidationResult validate(String body) {
+        if (body != null && body.startsWith("error")) {
+            return ValidationResult.REJECTED;
+        }
+        return ValidationResult.VALID;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        ValidationResult result = validate(exchange.getMessage().getBody(String.class));
+        exchange.setProperty(CamelConstants.VALIDATION_RESULT_PROPERTY, result);
+
+        if (result == ValidationResult.REJECTED) {
+            return rejectedProducer.process(exchange, callback);
+        }
+        callback.done(true);
+        return true;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        rejectedProducer = camelContext.getEndpoint(rejectedEndpointUri).createAsyncProducer();
+        ServiceHelper.startService(rejectedProducer);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        ServiceHelper.stopService(rejectedProducer);
+    }
+}
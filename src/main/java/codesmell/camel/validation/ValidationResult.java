@@ -0,0 +1,10 @@
+package codesmell.camel.validation;
+
+/**
+ * the outcome of validating a message
+ * in place of throwing an exception
+ */
+public enum ValidationResult {
+    VALID,
+    REJECTED
+}
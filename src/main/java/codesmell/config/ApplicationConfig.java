@@ -1,7 +1,10 @@
 package codesmell.config;
 
 import codesmell.service.DefaultFooBar;
+import codesmell.service.DefaultHeisenBugger;
 import codesmell.service.FooBar;
+import codesmell.service.HeisenBugger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +21,11 @@ public class ApplicationConfig {
         return new DefaultFooBar();
     }
 
+    @Bean
+    public HeisenBugger buildHeisenBugger(@Value("${codesmell.heisenbugger.latency.millis:5}") long latencyMillis) {
+        return new DefaultHeisenBugger(latencyMillis);
+    }
+
 //    @Bean
 //    public static PropertySourcesPlaceholderConfigurer propertyPlaceholderConfigurer() {
 //        return new PropertySourcesPlaceholderConfigurer();
@@ -0,0 +1,61 @@
+package codesmell.deadletter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * an exchange that left the routes unhandled
+ */
+public final class DeadLetter {
+
+    private final long sequence;
+    private final long timestamp;
+    private final String routeId;
+    private final String exceptionClass;
+    private final String exceptionMessage;
+    private final String body;
+    private final Map<String, String> headers;
+
+    public DeadLetter(long sequence, long timestamp, String routeId, String exceptionClass, 
+        String exceptionMessage, String body, Map<String, String> headers) {
+        
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.routeId = routeId;
+        this.exceptionClass = exceptionClass;
+        this.exceptionMessage = exceptionMessage;
+        this.body = body;
+        this.headers = headers == null ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * epoch millis when it was journaled
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public String getExceptionClass() {
+        return exceptionClass;
+    }
+
+    public String getExceptionMessage() {
+        return exceptionMessage;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
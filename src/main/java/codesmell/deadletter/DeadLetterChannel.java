@@ -0,0 +1,133 @@
+package codesmell.deadletter;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.spi.UnitOfWork;
+import org.apache.camel.spring.boot.CamelContextConfiguration;
+import org.apache.camel.support.EventNotifierSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * journals the exchanges that leave the routes unhandled
+ * (the SpikeException the FooBarException handler rethrows,
+ * the unhandled grok exceptions...)
+ * <p>
+ * Camel only sends the failed event once the whole exchange is done,
+ * so a failure in a sub route that the main route handles isn't journaled
+ * <p>
+ * the body and headers are the ones the exchange came in with,
+ * not what the error handling turned them into,
+ * so the dead letter can be replayed
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.deadletter.enabled", havingValue = "true")
+public class DeadLetterChannel extends EventNotifierSupport implements CamelContextConfiguration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterChannel.class);
+
+    @Value("${codesmell.deadletter.directory:deadletters}")
+    private String directory;
+
+    @Value("${codesmell.deadletter.segment-size-mb:64}")
+    private int segmentSizeMegabytes;
+
+    @Value("${codesmell.deadletter.max-segments:16}")
+    private int maxSegments;
+
+    /**
+     * the most dead letters written in one group commit
+     */
+    @Value("${codesmell.deadletter.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${codesmell.deadletter.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private DeadLetterJournal journal;
+
+    public DeadLetterChannel() {
+        // only the failed exchanges matter
+        this.setIgnoreCamelContextEvents(true);
+        this.setIgnoreRouteEvents(true);
+        this.setIgnoreServiceEvents(true);
+        this.setIgnoreExchangeCreatedEvent(true);
+        this.setIgnoreExchangeCompletedEvent(true);
+        this.setIgnoreExchangeSendingEvents(true);
+        this.setIgnoreExchangeSentEvents(true);
+        this.setIgnoreExchangeRedeliveryEvents(true);
+    }
+
+    @Override
+    public void beforeApplicationStart(CamelContext camelContext) {
+        // keeps the incoming message on the unit of work
+        camelContext.setAllowUseOriginalMessage(true);
+    }
+
+    @Override
+    public void afterApplicationStart(CamelContext camelContext) {
+        // nothing to do
+    }
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event instanceof CamelEvent.ExchangeFailedEvent;
+    }
+
+    @Override
+    public void notify(CamelEvent event) throws Exception {
+        Exchange exchange = ((CamelEvent.ExchangeFailedEvent) event).getExchange();
+        Exception exception = exchange.getException();
+
+        UnitOfWork unitOfWork = exchange.getUnitOfWork();
+        Message message = unitOfWork == null ? null : unitOfWork.getOriginalInMessage();
+        if (message == null) {
+            message = exchange.getMessage();
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        message.getHeaders().forEach((name, value) -> {
+            if (value != null) {
+                headers.put(name, String.valueOf(value));
+            }
+        });
+
+        journal.append(System.currentTimeMillis(),
+            exchange.getFromRouteId(),
+            exception == null ? null : exception.getClass().getName(),
+            exception == null ? null : exception.getMessage(),
+            message.getBody(String.class),
+            headers)
+            .whenComplete((sequence, e) -> {
+                if (e != null) {
+                    LOGGER.error("lost the dead letter for exchange {}", exchange.getExchangeId(), e);
+                }
+            });
+    }
+
+    public DeadLetterJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        journal = new DeadLetterJournal(Paths.get(directory), segmentSizeMegabytes * 1024 * 1024, 
+            maxSegments, batchSize, queueCapacity);
+        journal.open();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
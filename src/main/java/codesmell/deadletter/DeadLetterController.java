@@ -0,0 +1,50 @@
+package codesmell.deadletter;
+
+import org.apache.camel.ProducerTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/deadletters")
+@ConditionalOnProperty(name = "codesmell.deadletter.enabled", havingValue = "true")
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterChannel deadLetterChannel;
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Value("${codesmell.deadletter.replay-target:direct:foo}")
+    private String replayTarget;
+
+    @Value("${codesmell.deadletter.replay-rate:1000}")
+    private double replayRate;
+
+    @GetMapping
+    public List<DeadLetter> getDeadLetters(
+        @RequestParam(defaultValue = "0") long from,
+        @RequestParam(defaultValue = "100") int limit) throws IOException {
+        
+        return deadLetterChannel.getJournal().read(from, limit);
+    }
+
+    @PostMapping("/replay")
+    public DeadLetterReplayer.ReplayResult replay(
+        @RequestParam(defaultValue = "0") long from,
+        @RequestParam(defaultValue = "1000") int limit,
+        @RequestParam(required = false) Double rate) throws IOException {
+        
+        return new DeadLetterReplayer(deadLetterChannel.getJournal(), producerTemplate)
+            .replay(replayTarget, from, limit, rate == null ? replayRate : rate);
+    }
+}
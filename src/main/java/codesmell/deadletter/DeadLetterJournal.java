@@ -0,0 +1,482 @@
+package codesmell.deadletter;
+
+import codesmell.camel.ingress.BlockingRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * an append only journal of dead letters
+ * in memory-mapped segment files
+ * <p>
+ * the callers encode their record and put it on a queue,
+ * one writer thread copies as many records as are waiting
+ * into the segment and forces them to disk together (group commit)
+ * before completing the callers' futures,
+ * when the force fails every record of the batch fails
+ * and is written over by the next batch
+ * <p>
+ * a record is
+ * <pre>
+ * int length | int crc32 | long sequence | long timestamp | routeId | exception class | exception message | body | headers
+ * </pre>
+ * the length is written last so a record is only there once it is complete,
+ * reading stops at a zero length or a bad crc (a torn write from a crash)
+ * <p>
+ * a segment is named after its first sequence and is a fixed size,
+ * the oldest segments are deleted past the max segments
+ */
+public class DeadLetterJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // length and crc
+    private static final int RECORD_HEADER = 8;
+    private static final int SEQUENCE_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int batchSize;
+    private final BlockingRingBuffer<Pending> queue;
+
+    // first sequence > segment file
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    // only used by the writer thread once open
+    private MappedByteBuffer active;
+    private long nextSequence;
+    private final CRC32 crc = new CRC32();
+
+    private volatile long committedSequence = -1;
+    private Thread writer;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+
+    public DeadLetterJournal(Path directory, int segmentSize, int maxSegments, int batchSize, int queueCapacity) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.batchSize = batchSize;
+        // only what was appended as it closed is left once the writer has stopped
+        this.queue = new BlockingRingBuffer<>(queueCapacity, 
+            pending -> pending.future.completeExceptionally(closed()));
+    }
+
+    /**
+     * finds where the last segment ends
+     * and starts the writer
+     */
+    public synchronized void open() throws IOException {
+        if (!queue.isClosed()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(DeadLetterJournal::isSegment)
+                .forEach(path -> segments.put(firstSequence(path), path));
+        }
+
+        if (segments.isEmpty()) {
+            this.createSegment(0);
+            nextSequence = 0;
+        } else {
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            active = map(last.getValue(), FileChannel.MapMode.READ_WRITE, segmentSize);
+            nextSequence = last.getKey();
+            int position = 0;
+            long sequence;
+            while ((sequence = this.validRecord(active, position)) >= 0) {
+                nextSequence = sequence + 1;
+                position += RECORD_HEADER + active.getInt(position);
+            }
+            active.position(position);
+        }
+        committedSequence = nextSequence - 1;
+
+        queue.open();
+        writer = new Thread(this::writeLoop, "deadletter-journal");
+        writer.setDaemon(true);
+        writer.start();
+        LOGGER.info("dead letter journal in {} is at sequence {}", directory, nextSequence);
+    }
+
+    /**
+     * @return completes with the sequence once the record is on disk
+     */
+    public CompletableFuture<Long> append(long timestamp, String routeId, String exceptionClass, 
+        String exceptionMessage, String body, Map<String, String> headers) {
+        
+        if (queue.isClosed()) {
+            return CompletableFuture.failedFuture(closed());
+        }
+        Pending pending = new Pending(encode(timestamp, routeId, exceptionClass, exceptionMessage, body, headers));
+        // the queue being full means the disk is behind, so wait for it
+        if (!queue.put(pending)) {
+            return CompletableFuture.failedFuture(queue.isClosed() 
+                ? closed() : new IllegalStateException("interrupted waiting for the dead letter journal"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * @param fromSequence the first sequence wanted
+     * @param limit the most to return
+     * @return the dead letters that are on disk, in order
+     */
+    public List<DeadLetter> read(long fromSequence, int limit) throws IOException {
+        List<DeadLetter> letters = new ArrayList<>();
+        long committed = committedSequence;
+        if (committed < fromSequence || limit <= 0 || segments.isEmpty()) {
+            return letters;
+        }
+        Long first = segments.floorKey(fromSequence);
+        for (Path path : segments.tailMap(first == null ? segments.firstKey() : first, true).values()) {
+            ByteBuffer segment;
+            try {
+                segment = map(path, FileChannel.MapMode.READ_ONLY, -1);
+            } catch (NoSuchFileException e) {
+                // deleted as the journal rolled
+                continue;
+            }
+            int position = 0;
+            long sequence;
+            while ((sequence = this.validRecord(segment, position)) >= 0) {
+                if (sequence > committed) {
+                    return letters;
+                }
+                int length = segment.getInt(position);
+                if (sequence >= fromSequence) {
+                    letters.add(decode(segment, position + RECORD_HEADER));
+                    if (letters.size() >= limit) {
+                        return letters;
+                    }
+                }
+                position += RECORD_HEADER + length;
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * -1 when the journal is empty
+     */
+    public long getLastSequence() {
+        return committedSequence;
+    }
+
+    public long getFirstSequence() {
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    public long getAppended() {
+        return appended.sum();
+    }
+
+    /**
+     * the number of group commits
+     */
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * writes out whatever is queued and stops the writer
+     */
+    @Override
+    public synchronized void close() {
+        if (!queue.close()) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.drain();
+        active.force();
+        active = null;
+    }
+
+    private void writeLoop() {
+        Pending[] batch = new Pending[batchSize];
+        Pending first;
+        while ((first = queue.take()) != null) {
+            batch[0] = first;
+            int count = this.fill(batch, 1);
+            this.writeBatch(batch, count);
+            Arrays.fill(batch, 0, count, null);
+        }
+        // closed, write out whatever is still queued
+        int count;
+        while ((count = this.fill(batch, 0)) > 0) {
+            this.writeBatch(batch, count);
+            Arrays.fill(batch, 0, count, null);
+        }
+    }
+
+    // as many as are waiting, up to the batch size
+    private int fill(Pending[] batch, int count) {
+        Pending pending;
+        while (count < batch.length && (pending = queue.poll()) != null) {
+            batch[count++] = pending;
+        }
+        return count;
+    }
+
+    private void writeBatch(Pending[] batch, int count) {
+        int written = 0;
+        // the records before a segment roll were forced with the old segment
+        int durable = 0;
+        MappedByteBuffer segment = active;
+        int start = active.position();
+        long firstSequence = nextSequence;
+        try {
+            for (; written < count; written++) {
+                Pending pending = batch[written];
+                int length = SEQUENCE_BYTES + pending.payload.length;
+                if (RECORD_HEADER + length > segmentSize) {
+                    pending.failure = new IllegalArgumentException("the dead letter is bigger than a segment");
+                    continue;
+                }
+                if (active.position() + RECORD_HEADER + length > segmentSize) {
+                    this.force(active);
+                    committedSequence = nextSequence - 1;
+                    durable = written;
+                    start = active.position();
+                    firstSequence = nextSequence;
+                    this.createSegment(nextSequence);
+                    segment = active;
+                    start = 0;
+                }
+                pending.sequence = nextSequence++;
+                this.write(pending, length);
+            }
+            // the group commit
+            this.force(active);
+            committedSequence = nextSequence - 1;
+            commits.increment();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("could not write to the dead letter journal", e);
+            // nothing since the last force is known to be on disk
+            for (int i = durable; i < count; i++) {
+                if (batch[i].failure == null) {
+                    batch[i].failure = e;
+                }
+            }
+            this.rewind(segment, start, firstSequence);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Pending pending = batch[i];
+            if (pending.failure != null) {
+                pending.future.completeExceptionally(pending.failure);
+            } else {
+                appended.increment();
+                pending.future.complete(pending.sequence);
+            }
+        }
+    }
+
+    /**
+     * forgets the records of a failed batch
+     * so they are not read back or counted once a later batch commits
+     */
+    private void rewind(MappedByteBuffer segment, int start, long firstSequence) {
+        if (active != segment) {
+            // the roll failed part way, nothing was written to the new segment
+            return;
+        }
+        if (start + RECORD_HEADER <= segmentSize) {
+            // a zero length is where the reading stops
+            active.putInt(start, 0);
+        }
+        active.position(start);
+        nextSequence = firstSequence;
+    }
+
+    /**
+     * flushes the segment to disk, a test can make it fail
+     */
+    void force(MappedByteBuffer segment) {
+        segment.force();
+    }
+
+    private void write(Pending pending, int length) {
+        int start = active.position();
+        active.position(start + RECORD_HEADER);
+        active.putLong(pending.sequence);
+        active.put(pending.payload);
+
+        crc.reset();
+        crc.update(active.duplicate().position(start + RECORD_HEADER).limit(start + RECORD_HEADER + length));
+        active.putInt(start + 4, (int) crc.getValue());
+        // last so a partly written record never looks complete
+        active.putInt(start, length);
+    }
+
+    private void createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        active = map(path, FileChannel.MapMode.READ_WRITE, segmentSize);
+        segments.put(firstSequence, path);
+
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, Path> oldest = segments.pollFirstEntry();
+            Files.deleteIfExists(oldest.getValue());
+        }
+    }
+
+    /**
+     * @return the sequence of the record at the position or -1
+     */
+    private long validRecord(ByteBuffer segment, int position) {
+        if (position + RECORD_HEADER + SEQUENCE_BYTES > segment.limit()) {
+            return -1;
+        }
+        int length = segment.getInt(position);
+        if (length < SEQUENCE_BYTES || position + RECORD_HEADER + length > segment.limit()) {
+            return -1;
+        }
+        CRC32 check = new CRC32();
+        check.update(segment.duplicate().position(position + RECORD_HEADER).limit(position + RECORD_HEADER + length));
+        if ((int) check.getValue() != segment.getInt(position + 4)) {
+            return -1;
+        }
+        return segment.getLong(position + RECORD_HEADER);
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, int size) throws IOException {
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, 
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(long timestamp, String routeId, String exceptionClass, 
+        String exceptionMessage, String body, Map<String, String> headers) {
+        
+        int headerCount = headers == null ? 0 : headers.size();
+        byte[][] strings = new byte[4 + headerCount * 2][];
+        strings[0] = utf8(routeId);
+        strings[1] = utf8(exceptionClass);
+        strings[2] = utf8(exceptionMessage);
+        strings[3] = utf8(body);
+        if (headerCount > 0) {
+            int i = 4;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                strings[i++] = utf8(header.getKey());
+                strings[i++] = utf8(header.getValue());
+            }
+        }
+
+        // timestamp, header count and a length for each string
+        int size = 8 + 4 + strings.length * 4;
+        for (byte[] string : strings) {
+            size += string == null ? 0 : string.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(timestamp);
+        for (int i = 0; i < 4; i++) {
+            putString(buffer, strings[i]);
+        }
+        buffer.putInt(headerCount);
+        for (int i = 4; i < strings.length; i++) {
+            putString(buffer, strings[i]);
+        }
+        return buffer.array();
+    }
+
+    private static DeadLetter decode(ByteBuffer segment, int position) {
+        ByteBuffer buffer = segment.duplicate().position(position);
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        String routeId = getString(buffer);
+        String exceptionClass = getString(buffer);
+        String exceptionMessage = getString(buffer);
+        String body = getString(buffer);
+        int headerCount = buffer.getInt();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(getString(buffer), getString(buffer));
+        }
+        return new DeadLetter(sequence, timestamp, routeId, exceptionClass, exceptionMessage, body, headers);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        if (string == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(string.length);
+            buffer.put(string);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static IllegalStateException closed() {
+        return new IllegalStateException("the dead letter journal is closed");
+    }
+
+    private static final class Pending {
+        private final byte[] payload;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private long sequence;
+        private Throwable failure;
+
+        private Pending(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+}
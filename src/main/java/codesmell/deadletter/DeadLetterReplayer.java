@@ -0,0 +1,102 @@
+package codesmell.deadletter;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * sends dead letters back into a route
+ * no faster than the given rate
+ * so a replay doesn't become the next error storm
+ */
+public class DeadLetterReplayer {
+
+    private static final int PAGE_SIZE = 256;
+
+    private final DeadLetterJournal journal;
+    private final ProducerTemplate producerTemplate;
+
+    public DeadLetterReplayer(DeadLetterJournal journal, ProducerTemplate producerTemplate) {
+        this.journal = journal;
+        this.producerTemplate = producerTemplate;
+    }
+
+    /**
+     * only the dead letters already journaled when the replay starts are sent
+     *
+     * @param endpointUri where to send them
+     * @param fromSequence the first dead letter to replay
+     * @param limit the most to replay
+     * @param ratePerSecond the most to send in a second
+     */
+    public ReplayResult replay(String endpointUri, long fromSequence, int limit, double ratePerSecond) throws IOException {
+        long intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        long next = System.nanoTime();
+
+        ReplayResult result = new ReplayResult();
+        // the letters that fail again are journaled after this,
+        // they wait for the next replay instead of going round again
+        long end = journal.getLastSequence();
+        long sequence = fromSequence;
+        while (sequence <= end && result.replayed + result.failed < limit) {
+            List<DeadLetter> page = journal.read(sequence, Math.min(PAGE_SIZE, limit - result.replayed - result.failed));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (DeadLetter letter : page) {
+                if (letter.getSequence() > end) {
+                    return result;
+                }
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                next += intervalNanos;
+
+                Exchange exchange = producerTemplate.send(endpointUri, replay -> {
+                    replay.getIn().setHeaders(new HashMap<>(letter.getHeaders()));
+                    replay.getIn().setHeader(CamelConstants.REPLAY_OF_HEADER, letter.getSequence());
+                    replay.getIn().setBody(letter.getBody());
+                });
+                if (exchange.isFailed()) {
+                    result.failed++;
+                } else {
+                    result.replayed++;
+                }
+                result.lastSequence = letter.getSequence();
+                sequence = letter.getSequence() + 1;
+            }
+        }
+        return result;
+    }
+
+    public static class ReplayResult {
+        private int replayed;
+        private int failed;
+        private long lastSequence = -1;
+
+        public int getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * the failed ones are journaled again
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * -1 when nothing was replayed
+         */
+        public long getLastSequence() {
+            return lastSequence;
+        }
+    }
+}
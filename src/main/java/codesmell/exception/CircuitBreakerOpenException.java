@@ -0,0 +1,15 @@
+package codesmell.exception;
+
+/**
+ * the call was not made because the circuit breaker is open
+ * <p>
+ * it is a GrokException so the grok error handling applies,
+ * there is no stack trace since it is thrown instead of calling the service
+ */
+@SuppressWarnings("serial")
+public class CircuitBreakerOpenException extends GrokException {
+
+    public CircuitBreakerOpenException(String message) {
+        super(message, false);
+    }
+}
@@ -0,0 +1,67 @@
+package codesmell.exception;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * the exceptions thrown for control flow on the routes,
+ * built the way the {@link ExceptionMode} says
+ */
+@SuppressWarnings("serial")
+abstract class ControlFlowException extends RuntimeException {
+
+    // one instance thrown on many exchanges
+    private boolean shared;
+
+    ControlFlowException(String message) {
+        super(message);
+    }
+
+    ControlFlowException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
+
+    /**
+     * the stackless ones are built without a cause so they can't be given one later,
+     * a shared flyweight ignores it as the cause would only belong to one exchange
+     */
+    @Override
+    public synchronized Throwable initCause(Throwable cause) {
+        if (shared) {
+            return this;
+        }
+        return super.initCause(cause);
+    }
+
+    /**
+     * builds the exceptions of one class for the current mode,
+     * a FLYWEIGHT is shared so nothing should be added to it
+     */
+    static final class Factory<E extends ControlFlowException> {
+
+        private final Map<String, E> flyweights = new ConcurrentHashMap<>();
+        private final Function<String, E> full;
+        private final Function<String, E> stackless;
+
+        Factory(Function<String, E> full, Function<String, E> stackless) {
+            this.full = full;
+            this.stackless = stackless;
+        }
+
+        E of(String message) {
+            switch (ExceptionMode.current()) {
+                case STACKLESS:
+                    return stackless.apply(message);
+                case FLYWEIGHT:
+                    return flyweights.computeIfAbsent(message, m -> {
+                        E flyweight = stackless.apply(m);
+                        ((ControlFlowException) flyweight).shared = true;
+                        return flyweight;
+                    });
+                default:
+                    return full.apply(message);
+            }
+        }
+    }
+}
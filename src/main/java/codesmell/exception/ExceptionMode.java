@@ -0,0 +1,56 @@
+package codesmell.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * how the exceptions thrown for control flow on the routes are built
+ * <p>
+ * set with the <code>codesmell.exception.mode</code> system property
+ * <ul>
+ * <li>FULL: a new exception with a stack trace (the default)</li>
+ * <li>STACKLESS: a new exception that skips fillInStackTrace</li>
+ * <li>FLYWEIGHT: one shared stackless exception per message,
+ * it keeps no cause, suppressed exceptions or stack trace
+ * as those would belong to one exchange</li>
+ * </ul>
+ * an unknown mode falls back to FULL with a warning
+ * the handled exceptions are expected so the stack trace
+ * is rarely looked at but filling it in is most of the cost of a throw
+ */
+public enum ExceptionMode {
+    FULL,
+    STACKLESS,
+    FLYWEIGHT;
+
+    public static final String PROPERTY = "codesmell.exception.mode";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExceptionMode.class);
+
+    private static volatile ExceptionMode current = ExceptionMode.fromSystemProperty();
+
+    public static ExceptionMode current() {
+        return current;
+    }
+
+    public static void setCurrent(ExceptionMode mode) {
+        current = mode == null ? FULL : mode;
+    }
+
+    private static ExceptionMode fromSystemProperty() {
+        return ExceptionMode.parse(System.getProperty(PROPERTY));
+    }
+
+    static ExceptionMode parse(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return FULL;
+        }
+        try {
+            return ExceptionMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // a typo should not stop every exception class from loading
+            LOGGER.warn("unknown {} {}, using FULL", PROPERTY, mode);
+            return FULL;
+        }
+    }
+}
@@ -1,9 +1,26 @@
 package codesmell.exception;
 
 @SuppressWarnings("serial")
-public class FooBarException extends RuntimeException {
+public class FooBarException extends ControlFlowException {
+
+    private static final Factory<FooBarException> FACTORY = 
+        new Factory<>(FooBarException::new, message -> new FooBarException(message, false));
 
     public FooBarException(String message) {
         super(message);
     }
+
+    protected FooBarException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
+    /**
+     * for the handled throws with a constant message
+     *
+     * @param message
+     * @return the exception to throw, built for the {@link ExceptionMode}
+     */
+    public static FooBarException of(String message) {
+        return FACTORY.of(message);
+    }
 }
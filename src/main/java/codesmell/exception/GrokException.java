@@ -1,9 +1,26 @@
 package codesmell.exception;
 
 @SuppressWarnings("serial")
-public class GrokException extends RuntimeException {
+public class GrokException extends ControlFlowException {
+
+    private static final Factory<GrokException> FACTORY = 
+        new Factory<>(GrokException::new, message -> new GrokException(message, false));
 
     public GrokException(String message) {
         super(message);
     }
+
+    protected GrokException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
+    /**
+     * for the grok throws with a constant message
+     *
+     * @param message
+     * @return the exception to throw, built for the {@link ExceptionMode}
+     */
+    public static GrokException of(String message) {
+        return FACTORY.of(message);
+    }
 }
@@ -0,0 +1,16 @@
+package codesmell.exception;
+
+/**
+ * the message failed unhandled a moment ago
+ * so it isn't tried again until its cool-off is over
+ * <p>
+ * it is a SpikeException so the unhandled error handling applies,
+ * there is no stack trace since it is thrown instead of processing the message
+ */
+@SuppressWarnings("serial")
+public class QuarantinedMessageException extends SpikeException {
+
+    public QuarantinedMessageException(String message) {
+        super(message, false);
+    }
+}
@@ -1,9 +1,26 @@
 package codesmell.exception;
 
 @SuppressWarnings("serial")
-public class SpikeException extends RuntimeException {
+public class SpikeException extends ControlFlowException {
+
+    private static final Factory<SpikeException> FACTORY = 
+        new Factory<>(SpikeException::new, message -> new SpikeException(message, false));
 
     public SpikeException(String message) {
         super(message);
     }
+
+    protected SpikeException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+
+    /**
+     * for the unhandled throws with a constant message
+     *
+     * @param message
+     * @return the exception to throw, built for the {@link ExceptionMode}
+     */
+    public static SpikeException of(String message) {
+        return FACTORY.of(message);
+    }
 }
@@ -0,0 +1,19 @@
+package codesmell.exception;
+
+/**
+ * thrown by a service when the same call
+ * may well work if it is made again
+ * <p>
+ * these are the only failures that are redelivered
+ */
+@SuppressWarnings("serial")
+public class TransientServiceException extends RuntimeException {
+
+    public TransientServiceException(String message) {
+        super(message);
+    }
+
+    public TransientServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package codesmell.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * from when the exchange is created to when it completes or fails
+ */
+@Name("codesmell.Exchange")
+@Label("Exchange")
+@Category({ "Codesmell", "Camel" })
+@Description("An exchange from start to end")
+class ExchangeEvent extends Event {
+
+    @Label("Exchange Id")
+    String exchangeId;
+
+    @Label("Route Id")
+    String routeId;
+
+    @Label("Exception Class")
+    String exceptionClass;
+
+    @Label("Handled")
+    @Description("An onException handled the exception")
+    boolean handled;
+
+    @Label("Failed")
+    boolean failed;
+}
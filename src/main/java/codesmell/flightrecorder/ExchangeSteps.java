@@ -0,0 +1,59 @@
+package codesmell.flightrecorder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the last steps of one exchange run on virtual threads
+ * <p>
+ * a virtual thread only ever runs one exchange
+ * so a ring per thread would be a ring per exchange,
+ * this grows with the steps instead, up to the ring size
+ */
+final class ExchangeSteps {
+
+    private final int max;
+    private final Deque<Step> steps = new ArrayDeque<>();
+
+    ExchangeSteps(int max) {
+        this.max = Math.max(1, max);
+    }
+
+    synchronized void record(String routeId, String step, long nanoTime) {
+        if (steps.size() == max) {
+            steps.pollFirst();
+        }
+        steps.addLast(new Step(routeId, step, nanoTime));
+    }
+
+    /**
+     * oldest first, with the microseconds since the first of them
+     */
+    synchronized List<String> list() {
+        List<String> found = new ArrayList<>(steps.size());
+        long first = -1;
+        for (Step step : steps) {
+            if (first < 0) {
+                first = step.nanoTime;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(step.nanoTime - first);
+            found.add("+" + micros + "us " + step.routeId + " " + step.step);
+        }
+        return found;
+    }
+
+    private static final class Step {
+        private final String routeId;
+        private final String step;
+        private final long nanoTime;
+
+        private Step(String routeId, String step, long nanoTime) {
+            this.routeId = routeId;
+            this.step = step;
+            this.nanoTime = nanoTime;
+        }
+    }
+}
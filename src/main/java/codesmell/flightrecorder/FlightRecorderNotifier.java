@@ -0,0 +1,139 @@
+package codesmell.flightrecorder;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.Route;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.spi.UnitOfWork;
+import org.apache.camel.support.EventNotifierSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * turns the exchange events into JFR events
+ * <p>
+ * an {@link ExchangeEvent} from the exchange created to completed or failed,
+ * an {@link OnExceptionEvent} each time an error handler deals with an exception,
+ * and for the exchanges that fail unhandled
+ * the steps from the {@link StepRecorder} ring
+ * as an {@link UnhandledFailureEvent}
+ * <p>
+ * nothing is logged here, the onException blocks already log
+ * through the rate limited {@code ErrorLog}
+ * <p>
+ * the JFR events cost next to nothing without a recording,
+ * start one with {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.flightrecorder.enabled", havingValue = "true")
+public class FlightRecorderNotifier extends EventNotifierSupport {
+    private static final String EVENT_PROPERTY = "CodesmellExchangeEvent";
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    @Autowired
+    private StepRecorder stepRecorder;
+
+    public FlightRecorderNotifier() {
+        this.setIgnoreCamelContextEvents(true);
+        this.setIgnoreRouteEvents(true);
+        this.setIgnoreServiceEvents(true);
+        this.setIgnoreExchangeSendingEvents(true);
+        this.setIgnoreExchangeSentEvents(true);
+        this.setIgnoreExchangeRedeliveryEvents(true);
+    }
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event instanceof CamelEvent.ExchangeCreatedEvent
+            || event instanceof CamelEvent.ExchangeCompletedEvent
+            || event instanceof CamelEvent.ExchangeFailedEvent
+            || event instanceof CamelEvent.ExchangeFailureHandledEvent;
+    }
+
+    @Override
+    public void notify(CamelEvent event) throws Exception {
+        Exchange exchange = ((CamelEvent.ExchangeEvent) event).getExchange();
+        if (event instanceof CamelEvent.ExchangeCreatedEvent) {
+            this.begin(exchange);
+        } else if (event instanceof CamelEvent.ExchangeFailureHandledEvent) {
+            this.onException(exchange, ((CamelEvent.ExchangeFailureHandledEvent) event).isHandled());
+        } else {
+            boolean failed = event instanceof CamelEvent.ExchangeFailedEvent;
+            this.end(exchange, failed);
+            if (failed) {
+                this.dumpSteps(exchange);
+            }
+        }
+    }
+
+    private void begin(Exchange exchange) {
+        ExchangeEvent jfrEvent = new ExchangeEvent();
+        if (jfrEvent.isEnabled()) {
+            jfrEvent.begin();
+            exchange.setProperty(EVENT_PROPERTY, jfrEvent);
+        }
+    }
+
+    private void end(Exchange exchange, boolean failed) {
+        ExchangeEvent jfrEvent = exchange.getProperty(EVENT_PROPERTY, ExchangeEvent.class);
+        if (jfrEvent == null) {
+            return;
+        }
+        exchange.removeProperty(EVENT_PROPERTY);
+        jfrEvent.end();
+        if (jfrEvent.shouldCommit()) {
+            Throwable exception = exception(exchange);
+            jfrEvent.exchangeId = exchange.getExchangeId();
+            jfrEvent.routeId = exchange.getFromRouteId();
+            jfrEvent.exceptionClass = exception == null ? null : exception.getClass().getName();
+            jfrEvent.handled = !failed && exception != null;
+            jfrEvent.failed = failed;
+            jfrEvent.commit();
+        }
+    }
+
+    private void onException(Exchange exchange, boolean handled) {
+        OnExceptionEvent jfrEvent = new OnExceptionEvent();
+        if (jfrEvent.shouldCommit()) {
+            Throwable exception = exception(exchange);
+            jfrEvent.exchangeId = exchange.getExchangeId();
+            jfrEvent.routeId = routeId(exchange);
+            jfrEvent.exceptionClass = exception == null ? null : exception.getClass().getName();
+            jfrEvent.handled = handled;
+            jfrEvent.commit();
+        }
+    }
+
+    private void dumpSteps(Exchange exchange) {
+        UnhandledFailureEvent jfrEvent = new UnhandledFailureEvent();
+        if (jfrEvent.shouldCommit()) {
+            // the ring is only read when there is a recording
+            List<String> steps = stepRecorder.stepsOf(exchange);
+            Throwable exception = exception(exchange);
+            jfrEvent.exchangeId = exchange.getExchangeId();
+            jfrEvent.routeId = exchange.getFromRouteId();
+            jfrEvent.exceptionClass = exception == null ? null : exception.getClass().getName();
+            jfrEvent.steps = String.join("\n", steps);
+            jfrEvent.commit();
+        }
+    }
+
+    private static Throwable exception(Exchange exchange) {
+        Throwable exception = exchange.getException();
+        return exception != null ? exception : exchange.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+    }
+
+    // the route running the error handler
+    private static String routeId(Exchange exchange) {
+        UnitOfWork unitOfWork = exchange.getUnitOfWork();
+        Route route = unitOfWork == null ? null : unitOfWork.getRoute();
+        if (route != null) {
+            return route.getRouteId();
+        }
+        String fromRouteId = exchange.getFromRouteId();
+        return fromRouteId == null ? UNKNOWN_ROUTE : fromRouteId;
+    }
+}
@@ -0,0 +1,29 @@
+package codesmell.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * an error handler (an onException or the default one) dealt with an exception
+ */
+@Name("codesmell.OnException")
+@Label("On Exception")
+@Category({ "Codesmell", "Camel" })
+@Description("An error handler dealt with an exception")
+class OnExceptionEvent extends Event {
+
+    @Label("Exchange Id")
+    String exchangeId;
+
+    @Label("Route Id")
+    String routeId;
+
+    @Label("Exception Class")
+    String exceptionClass;
+
+    @Label("Handled")
+    boolean handled;
+}
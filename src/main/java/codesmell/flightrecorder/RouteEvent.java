@@ -0,0 +1,31 @@
+package codesmell.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * from when an exchange enters a route to when it leaves
+ */
+@Name("codesmell.Route")
+@Label("Route")
+@Category({ "Codesmell", "Camel" })
+@Description("An exchange in a route")
+class RouteEvent extends Event {
+
+    @Label("Exchange Id")
+    String exchangeId;
+
+    @Label("Route Id")
+    String routeId;
+
+    @Label("Exception Class")
+    @Description("The exception the exchange left the route with")
+    String exceptionClass;
+
+    @Label("Handled")
+    @Description("An onException handled an exception in the route")
+    boolean handled;
+}
@@ -0,0 +1,82 @@
+package codesmell.flightrecorder;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.NamedNode;
+import org.apache.camel.Route;
+import org.apache.camel.spi.RoutePolicy;
+import org.apache.camel.spi.RoutePolicyFactory;
+import org.apache.camel.support.RoutePolicySupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * a {@link RouteEvent} each time an exchange goes through
+ * the main route and the sub routes it calls
+ * <p>
+ * Camel picks up RoutePolicyFactory beans from the registry
+ * and asks them for a policy as each route is built
+ * <p>
+ * nothing is kept on the exchange unless a recording
+ * has the route event turned on
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.flightrecorder.enabled", havingValue = "true")
+public class RouteEventPolicyFactory implements RoutePolicyFactory {
+
+    @Value("${codesmell.flightrecorder.routes:" 
+        + CamelConstants.MAIN_ROUTE_ID + "," 
+        + CamelConstants.GROK_ROUTE_ID + "," 
+        + CamelConstants.HEISENBUG_ROUTE_ID + "}")
+    private List<String> routeIds;
+
+    @Override
+    public RoutePolicy createRoutePolicy(CamelContext camelContext, String routeId, NamedNode route) {
+        return routeIds.contains(routeId) ? new RouteEventPolicy(routeId) : null;
+    }
+
+    private static final class RouteEventPolicy extends RoutePolicySupport {
+        private final String routeId;
+        // one per route so an exchange can be in a route and its sub route
+        private final String eventProperty;
+
+        private RouteEventPolicy(String routeId) {
+            this.routeId = routeId;
+            this.eventProperty = "CodesmellRouteEvent." + routeId;
+        }
+
+        @Override
+        public void onExchangeBegin(Route route, Exchange exchange) {
+            RouteEvent event = new RouteEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                exchange.setProperty(eventProperty, event);
+            }
+        }
+
+        @Override
+        public void onExchangeDone(Route route, Exchange exchange) {
+            RouteEvent event = exchange.getProperty(eventProperty, RouteEvent.class);
+            if (event == null) {
+                return;
+            }
+            exchange.removeProperty(eventProperty);
+            event.end();
+            if (event.shouldCommit()) {
+                Throwable exception = exchange.getException();
+                Throwable caught = exchange.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+                event.exchangeId = exchange.getExchangeId();
+                event.routeId = routeId;
+                event.handled = exception == null && caught != null;
+                Throwable thrown = exception == null ? caught : exception;
+                event.exceptionClass = thrown == null ? null : thrown.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package codesmell.flightrecorder;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.NamedNode;
+import org.apache.camel.NamedRoute;
+import org.apache.camel.Processor;
+import org.apache.camel.spi.InterceptStrategy;
+import org.apache.camel.support.processor.DelegateAsyncProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * notes every step of the routes in a ring on the thread running it,
+ * the ring is only read for the exchanges that fail unhandled
+ * <p>
+ * the step names are worked out once as the routes are built,
+ * a step that moves the exchange to another thread
+ * (a redelivery, the threads of {@code codesmell.threads.mode}) 
+ * leaves the steps after it in another ring
+ * <p>
+ * a virtual thread runs one exchange and is gone,
+ * so there the steps are kept on the exchange instead
+ * ({@link ExchangeSteps}) and no ring is made for the thread
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.flightrecorder.enabled", havingValue = "true")
+public class StepRecorder implements InterceptStrategy {
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    static final String STEPS_PROPERTY = "codesmell.flightrecorder.steps";
+
+    /**
+     * the steps kept per thread
+     */
+    @Value("${codesmell.flightrecorder.ring-size:64}")
+    private int ringSize;
+
+    private final ThreadLocal<StepRing> rings = ThreadLocal.withInitial(() -> new StepRing(ringSize));
+
+    @Override
+    public Processor wrapProcessorInInterceptors(CamelContext context, NamedNode definition, 
+        Processor target, Processor nextTarget) throws Exception {
+        
+        String step = definition.getId() == null 
+            ? definition.getShortName() 
+            : definition.getShortName() + "[" + definition.getId() + "]";
+        return new RecordingProcessor(target, routeId(definition), step);
+    }
+
+    /**
+     * the steps of the exchange on the virtual threads
+     * or on the calling thread, oldest first
+     */
+    public List<String> stepsOf(Exchange exchange) {
+        ExchangeSteps steps = exchange.getProperty(STEPS_PROPERTY, ExchangeSteps.class);
+        if (steps != null) {
+            return steps.list();
+        }
+        if (Thread.currentThread().isVirtual()) {
+            return List.of();
+        }
+        return rings.get().stepsOf(exchange.getExchangeId());
+    }
+
+    private void record(Exchange exchange, String routeId, String step) {
+        long now = System.nanoTime();
+        if (!Thread.currentThread().isVirtual()) {
+            rings.get().record(exchange.getExchangeId(), routeId, step, now);
+            return;
+        }
+        ExchangeSteps steps = exchange.getProperty(STEPS_PROPERTY, ExchangeSteps.class);
+        if (steps == null) {
+            steps = new ExchangeSteps(ringSize);
+            exchange.setProperty(STEPS_PROPERTY, steps);
+        }
+        steps.record(routeId, step, now);
+    }
+
+    private static String routeId(NamedNode definition) {
+        NamedNode node = definition;
+        while (node != null) {
+            if (node instanceof NamedRoute) {
+                return ((NamedRoute) node).getRouteId();
+            }
+            node = node.getParent();
+        }
+        // onException blocks from a RouteBuilder are not under a route
+        return UNKNOWN_ROUTE;
+    }
+
+    private final class RecordingProcessor extends DelegateAsyncProcessor {
+        private final String routeId;
+        private final String step;
+
+        private RecordingProcessor(Processor target, String routeId, String step) {
+            super(target);
+            this.routeId = routeId;
+            this.step = step;
+        }
+
+        @Override
+        public boolean process(Exchange exchange, AsyncCallback callback) {
+            StepRecorder.this.record(exchange, routeId, step);
+            return processor.process(exchange, callback);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package codesmell.flightrecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the last steps run on one thread
+ * <p>
+ * the slots are kept in arrays made up front
+ * so recording a step is a few stores and never allocates,
+ * the steps are only read back when an exchange fails
+ * <p>
+ * only the owning thread touches it
+ */
+final class StepRing {
+
+    private final String[] exchangeIds;
+    private final String[] routeIds;
+    private final String[] steps;
+    private final long[] nanos;
+    private final int mask;
+    private long next;
+
+    /**
+     * @param size rounded up to a power of two
+     */
+    StepRing(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+        exchangeIds = new String[capacity];
+        routeIds = new String[capacity];
+        steps = new String[capacity];
+        nanos = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    void record(String exchangeId, String routeId, String step, long nanoTime) {
+        int slot = (int) (next++ & mask);
+        exchangeIds[slot] = exchangeId;
+        routeIds[slot] = routeId;
+        steps[slot] = step;
+        nanos[slot] = nanoTime;
+    }
+
+    /**
+     * the steps of the exchange still in the ring, oldest first,
+     * with the microseconds since the first of them
+     */
+    List<String> stepsOf(String exchangeId) {
+        List<String> found = new ArrayList<>();
+        long first = -1;
+        long oldest = Math.max(0, next - exchangeIds.length);
+        for (long i = oldest; i < next; i++) {
+            int slot = (int) (i & mask);
+            if (!exchangeId.equals(exchangeIds[slot])) {
+                continue;
+            }
+            if (first < 0) {
+                first = nanos[slot];
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos[slot] - first);
+            found.add("+" + micros + "us " + routeIds[slot] + " " + steps[slot]);
+        }
+        return found;
+    }
+
+    int capacity() {
+        return exchangeIds.length;
+    }
+}
@@ -0,0 +1,30 @@
+package codesmell.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * the last steps of an exchange that failed unhandled
+ */
+@Name("codesmell.UnhandledFailure")
+@Label("Unhandled Failure")
+@Category({ "Codesmell", "Camel" })
+@Description("The last steps of an exchange that failed unhandled")
+class UnhandledFailureEvent extends Event {
+
+    @Label("Exchange Id")
+    String exchangeId;
+
+    @Label("Route Id")
+    String routeId;
+
+    @Label("Exception Class")
+    String exceptionClass;
+
+    @Label("Steps")
+    @Description("The steps on the failing thread, oldest first")
+    String steps;
+}
@@ -0,0 +1,104 @@
+package codesmell.logging;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.Processor;
+import org.apache.camel.Route;
+import org.apache.camel.spi.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * the log lines of the onException blocks,
+ * always with the route id and the exception class
+ * <p>
+ * the same error (what, route and exception class)
+ * is only logged so many times an interval,
+ * the line after the quiet spell says how many were left out
+ */
+@Component
+public class ErrorLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ErrorLog.class);
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    /**
+     * the same error logged each interval, 0 logs every one
+     */
+    @Value("${codesmell.logging.errors.per-interval:0}")
+    private int perInterval;
+
+    @Value("${codesmell.logging.errors.interval-ms:1000}")
+    private long intervalMillis;
+
+    private ErrorRateLimit rateLimit;
+
+    @PostConstruct
+    public void init() {
+        rateLimit = new ErrorRateLimit(perInterval, intervalMillis);
+    }
+
+    /**
+     * for the exceptions that are handled
+     */
+    public Processor warn(String what) {
+        return exchange -> this.log(Level.WARN, what, exchange);
+    }
+
+    /**
+     * for the exceptions that are not handled
+     */
+    public Processor error(String what) {
+        return exchange -> this.log(Level.ERROR, what, exchange);
+    }
+
+    public void log(Level level, String what, Exchange exchange) {
+        if (!LOGGER.isEnabledForLevel(level)) {
+            return;
+        }
+        Throwable caught = exchange.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+        if (caught == null) {
+            caught = exchange.getException();
+        }
+        String routeId = routeId(exchange);
+        String exceptionClass = caught == null ? null : caught.getClass().getName();
+
+        long suppressed = rateLimit.tryLog(what + '|' + routeId + '|' + exceptionClass);
+        if (suppressed == ErrorRateLimit.SUPPRESSED) {
+            return;
+        }
+        LOGGER.atLevel(level)
+            .setMessage("{} route={} exception={} message={}{}")
+            .addArgument(what)
+            .addArgument(routeId)
+            .addArgument(exceptionClass)
+            .addArgument(caught == null ? null : caught.getMessage())
+            .addArgument(suppressed > 0 ? " (" + suppressed + " more like it left out)" : "")
+            .log();
+
+        long dropped = rateLimit.takeDropped();
+        if (dropped > 0) {
+            LOGGER.atLevel(level)
+                .setMessage("{} more errors were left out by the rate limit windows that were dropped")
+                .addArgument(dropped)
+                .log();
+        }
+    }
+
+    /**
+     * the route the onException is for
+     */
+    private static String routeId(Exchange exchange) {
+        UnitOfWork unitOfWork = exchange.getUnitOfWork();
+        Route route = unitOfWork == null ? null : unitOfWork.getRoute();
+        if (route != null) {
+            return route.getRouteId();
+        }
+        String fromRouteId = exchange.getFromRouteId();
+        return fromRouteId == null ? UNKNOWN_ROUTE : fromRouteId;
+    }
+}
@@ -0,0 +1,117 @@
+package codesmell.logging;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * lets through the first few of the same error in an interval
+ * and counts the rest
+ * <p>
+ * the next one let through reports how many were left out,
+ * so nothing goes missing from the count
+ * <p>
+ * the keys are bounded, when they are all taken the windows
+ * whose interval is over are dropped (at most once an interval)
+ * and what they had left out is kept for {@link #takeDropped()},
+ * while they are all still counting a new error is logged without a window
+ */
+public class ErrorRateLimit {
+
+    /**
+     * the answer when the error should not be logged
+     */
+    public static final long SUPPRESSED = -1;
+
+    private static final int MAX_KEYS = 4096;
+
+    private final int perInterval;
+    private final long intervalNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param perInterval the same errors logged each interval, 0 for all of them
+     */
+    public ErrorRateLimit(int perInterval, long intervalMillis) {
+        this(perInterval, intervalMillis, MAX_KEYS, System::nanoTime);
+    }
+
+    ErrorRateLimit(int perInterval, long intervalMillis, int maxKeys, LongSupplier nanoClock) {
+        this.perInterval = perInterval;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong() - intervalNanos);
+    }
+
+    /**
+     * @return {@link #SUPPRESSED} or how many were left out since the last one logged
+     */
+    public long tryLog(String key) {
+        if (perInterval <= 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys && !this.sweep(now)) {
+                return 0;
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(now));
+        }
+
+        long start = window.start.get();
+        if (now - start >= intervalNanos && window.start.compareAndSet(start, now)) {
+            window.count.set(0);
+        }
+        if (window.count.incrementAndGet() > perInterval) {
+            window.suppressed.incrementAndGet();
+            return SUPPRESSED;
+        }
+        return window.suppressed.getAndSet(0);
+    }
+
+    /**
+     * @return how many were left out by the windows that were dropped
+     *  since the last time it was asked
+     */
+    public long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    /**
+     * @return true when there is room for another window
+     */
+    private boolean sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= intervalNanos && lastSweep.compareAndSet(last, now)) {
+            Iterator<Window> iterator = windows.values().iterator();
+            while (iterator.hasNext()) {
+                Window window = iterator.next();
+                if (now - window.start.get() >= intervalNanos) {
+                    iterator.remove();
+                    dropped.addAndGet(window.suppressed.getAndSet(0));
+                }
+            }
+        }
+        return windows.size() < maxKeys;
+    }
+
+    private static final class Window {
+        private final AtomicLong start;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package codesmell.logging;
+
+import org.apache.camel.Exchange;
+
+/**
+ * a log argument for the message body,
+ * the body is only converted when the line is written
+ * so the sampled out lines never read it
+ */
+public final class LazyBody {
+
+    private final Exchange exchange;
+
+    private LazyBody(Exchange exchange) {
+        this.exchange = exchange;
+    }
+
+    public static LazyBody of(Exchange exchange) {
+        return new LazyBody(exchange);
+    }
+
+    @Override
+    public String toString() {
+        return exchange.getMessage().getBody(String.class);
+    }
+}
@@ -0,0 +1,93 @@
+package codesmell.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * logs 1 in N of the INFO and lower lines of a logger,
+ * the WARN and ERROR lines always go through
+ * <p>
+ * the rates are logger name (or the start of one) = N,
+ * the .log() steps log under the route id so
+ * <pre>
+ * fooRoute=100,grokRoute=10,codesmell.camel=100
+ * </pre>
+ * the longest match wins, loggers that match nothing aren't sampled
+ * <p>
+ * a turbo filter runs before the message is formatted
+ * so the lines left out cost next to nothing
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final Sample NOT_SAMPLED = new Sample(1);
+
+    private final Map<String, Integer> rates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Sample> byLogger = new ConcurrentHashMap<>();
+
+    /**
+     * name=rate,name=rate...
+     */
+    public void setRates(String rates) {
+        this.rates.clear();
+        byLogger.clear();
+        if (rates == null || rates.isBlank()) {
+            return;
+        }
+        for (String pair : rates.split(",")) {
+            String[] nameAndRate = pair.split("=");
+            if (nameAndRate.length != 2) {
+                this.addWarn("ignoring the sample rate " + pair);
+                continue;
+            }
+            this.rates.put(nameAndRate[0].trim(), Integer.valueOf(nameAndRate[1].trim()));
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for the is...Enabled() checks, only the logging calls count
+        if (format == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Sample sample = byLogger.computeIfAbsent(logger.getName(), this::sampleFor);
+        if (sample == NOT_SAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+        return sample.next() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sample sampleFor(String loggerName) {
+        String best = null;
+        for (String name : rates.keySet()) {
+            boolean matches = loggerName.equals(name) || loggerName.startsWith(name + ".");
+            if (matches && (best == null || name.length() > best.length())) {
+                best = name;
+            }
+        }
+        if (best == null || rates.get(best) <= 1) {
+            return NOT_SAMPLED;
+        }
+        return new Sample(rates.get(best));
+    }
+
+    private static final class Sample {
+        private final int rate;
+        private final AtomicLong count = new AtomicLong();
+
+        private Sample(int rate) {
+            this.rate = rate;
+        }
+
+        private boolean next() {
+            return count.getAndIncrement() % rate == 0;
+        }
+    }
+}
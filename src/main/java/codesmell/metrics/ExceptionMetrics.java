@@ -0,0 +1,116 @@
+package codesmell.metrics;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePropertyKey;
+import org.apache.camel.Processor;
+import org.apache.camel.Route;
+import org.apache.camel.spi.UnitOfWork;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * what the onException blocks did
+ * by route id, exception class and outcome
+ * <p>
+ * the stats are only made the first time a route
+ * sees an exception class, after that recording
+ * is two map lookups and does not allocate
+ */
+@Component
+public class ExceptionMetrics {
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, ExceptionStats>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * a step for the onException block
+     * when the outcome is always the same
+     *
+     * @param outcome
+     * @return
+     */
+    public Processor recorder(ExceptionOutcome outcome) {
+        return exchange -> this.record(exchange, outcome);
+    }
+
+    /**
+     * call from inside an onException block
+     *
+     * @param exchange
+     * @param outcome
+     */
+    public void record(Exchange exchange, ExceptionOutcome outcome) {
+        Throwable caught = exchange.getProperty(ExchangePropertyKey.EXCEPTION_CAUGHT, Throwable.class);
+        if (caught == null) {
+            caught = exchange.getException();
+        }
+        Class<?> exceptionClass = caught == null ? Throwable.class : caught.getClass();
+
+        this.stats(routeId(exchange), exceptionClass)
+            .record(outcome, exchange.getClock().elapsed());
+    }
+
+    /**
+     * @return null when the route has not seen the exception
+     */
+    public ExceptionStats getStats(String routeId, Class<?> exceptionClass) {
+        Map<Class<?>, ExceptionStats> byException = routes.get(routeId);
+        return byException == null ? null : byException.get(exceptionClass);
+    }
+
+    /**
+     * route id > exception class > outcome,
+     * only the outcomes that happened
+     */
+    public Map<String, Map<String, Map<ExceptionOutcome, ExceptionStats.Snapshot>>> snapshot() {
+        Map<String, Map<String, Map<ExceptionOutcome, ExceptionStats.Snapshot>>> snapshot = new TreeMap<>();
+        routes.forEach((routeId, byException) -> {
+            Map<String, Map<ExceptionOutcome, ExceptionStats.Snapshot>> exceptions = new TreeMap<>();
+            byException.forEach((exceptionClass, stats) -> {
+                Map<ExceptionOutcome, ExceptionStats.Snapshot> outcomes = new LinkedHashMap<>();
+                for (ExceptionOutcome outcome : ExceptionOutcome.values()) {
+                    if (stats.getCount(outcome) > 0) {
+                        outcomes.put(outcome, stats.snapshot(outcome));
+                    }
+                }
+                exceptions.put(exceptionClass.getName(), outcomes);
+            });
+            snapshot.put(routeId, exceptions);
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        routes.clear();
+    }
+
+    private ExceptionStats stats(String routeId, Class<?> exceptionClass) {
+        ConcurrentMap<Class<?>, ExceptionStats> byException = routes.get(routeId);
+        if (byException == null) {
+            byException = routes.computeIfAbsent(routeId, id -> new ConcurrentHashMap<>());
+        }
+        ExceptionStats stats = byException.get(exceptionClass);
+        if (stats == null) {
+            stats = byException.computeIfAbsent(exceptionClass, type -> new ExceptionStats());
+        }
+        return stats;
+    }
+
+    // the route running the onException,
+    // a sub route without an error handler reports on the calling route
+    private static String routeId(Exchange exchange) {
+        UnitOfWork unitOfWork = exchange.getUnitOfWork();
+        Route route = unitOfWork == null ? null : unitOfWork.getRoute();
+        if (route != null) {
+            return route.getRouteId();
+        }
+        String fromRouteId = exchange.getFromRouteId();
+        return fromRouteId == null ? UNKNOWN_ROUTE : fromRouteId;
+    }
+}
@@ -0,0 +1,27 @@
+package codesmell.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics/exceptions")
+public class ExceptionMetricsController {
+
+    @Autowired
+    private ExceptionMetrics exceptionMetrics;
+
+    @GetMapping
+    public Map<String, Map<String, Map<ExceptionOutcome, ExceptionStats.Snapshot>>> getExceptionMetrics() {
+        return exceptionMetrics.snapshot();
+    }
+
+    @DeleteMapping
+    public void resetExceptionMetrics() {
+        exceptionMetrics.reset();
+    }
+}
@@ -0,0 +1,19 @@
+package codesmell.metrics;
+
+/**
+ * how an onException block finished
+ */
+public enum ExceptionOutcome {
+    /**
+     * handled(true) and the exchange carries on
+     */
+    HANDLED,
+    /**
+     * handled(false) and the exchange fails
+     */
+    UNHANDLED,
+    /**
+     * the onException threw a SpikeException of its own
+     */
+    RETHROWN
+}
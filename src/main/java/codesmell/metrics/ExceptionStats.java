@@ -0,0 +1,83 @@
+package codesmell.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters and a timer for each outcome
+ * of one exception class on one route
+ * <p>
+ * all of the counters are made up front
+ * so recording is only adds and a CAS
+ */
+public class ExceptionStats {
+
+    private static final ExceptionOutcome[] OUTCOMES = ExceptionOutcome.values();
+
+    private final LongAdder[] counts = new LongAdder[OUTCOMES.length];
+    private final LongAdder[] totalMillis = new LongAdder[OUTCOMES.length];
+    private final AtomicLong[] maxMillis = new AtomicLong[OUTCOMES.length];
+
+    public ExceptionStats() {
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            counts[i] = new LongAdder();
+            totalMillis[i] = new LongAdder();
+            maxMillis[i] = new AtomicLong();
+        }
+    }
+
+    public void record(ExceptionOutcome outcome, long elapsedMillis) {
+        int i = outcome.ordinal();
+        counts[i].increment();
+        totalMillis[i].add(elapsedMillis);
+
+        AtomicLong max = maxMillis[i];
+        long current = max.get();
+        while (elapsedMillis > current && !max.compareAndSet(current, elapsedMillis)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount(ExceptionOutcome outcome) {
+        return counts[outcome.ordinal()].sum();
+    }
+
+    public Snapshot snapshot(ExceptionOutcome outcome) {
+        int i = outcome.ordinal();
+        return new Snapshot(counts[i].sum(), totalMillis[i].sum(), maxMillis[i].get());
+    }
+
+    /**
+     * the numbers at one point in time
+     * <p>
+     * the millis are from when the exchange was created
+     * to when the onException recorded it
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final long totalMillis;
+        private final long maxMillis;
+
+        Snapshot(long count, long totalMillis, long maxMillis) {
+            this.count = count;
+            this.totalMillis = totalMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : (double) totalMillis / count;
+        }
+    }
+}
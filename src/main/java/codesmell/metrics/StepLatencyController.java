@@ -0,0 +1,29 @@
+package codesmell.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics/steps")
+@ConditionalOnProperty(name = "codesmell.metrics.steps.enabled", havingValue = "true")
+public class StepLatencyController {
+
+    @Autowired
+    private StepLatencyMetrics stepLatencyMetrics;
+
+    @GetMapping
+    public Map<String, Map<String, StepLatencyMetrics.StepLatency>> getStepLatency() {
+        return stepLatencyMetrics.getSteps();
+    }
+
+    @DeleteMapping
+    public void resetStepLatency() {
+        stepLatencyMetrics.reset();
+    }
+}
@@ -0,0 +1,129 @@
+package codesmell.metrics;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.NamedNode;
+import org.apache.camel.NamedRoute;
+import org.apache.camel.Processor;
+import org.apache.camel.spi.InterceptStrategy;
+import org.apache.camel.support.processor.DelegateAsyncProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * times every step of the routes
+ * (process, to, log, choice...) with a {@link LatencyHistogram}
+ * <p>
+ * Camel picks up InterceptStrategy beans from the registry
+ * and asks them to wrap each processor when the routes are built,
+ * so the histogram for a step is found once
+ * and not on every exchange
+ * <p>
+ * a step that holds other steps (like the choice)
+ * includes the time of the steps inside it
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.metrics.steps.enabled", havingValue = "true")
+public class StepLatencyMetrics implements InterceptStrategy {
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    /**
+     * the route ids to time, all routes when empty
+     */
+    @Value("${codesmell.metrics.steps.routes:}")
+    private List<String> routeIds;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, StepLatency>> routes = new ConcurrentHashMap<>();
+
+    @Override
+    public Processor wrapProcessorInInterceptors(CamelContext context, NamedNode definition, 
+        Processor target, Processor nextTarget) throws Exception {
+        
+        String routeId = routeId(definition);
+        if (routeIds != null && !routeIds.isEmpty() && !routeIds.contains(routeId)) {
+            return target;
+        }
+        StepLatency step = routes
+            .computeIfAbsent(routeId, id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(nodeId(definition), id -> new StepLatency(definition.getShortName()));
+        
+        return new TimedProcessor(target, step.histogram);
+    }
+
+    /**
+     * route id > node id
+     */
+    public Map<String, Map<String, StepLatency>> getSteps() {
+        Map<String, Map<String, StepLatency>> steps = new TreeMap<>();
+        routes.forEach((routeId, byNode) -> steps.put(routeId, new TreeMap<>(byNode)));
+        return steps;
+    }
+
+    public void reset() {
+        routes.values().forEach(byNode -> byNode.values().forEach(step -> step.histogram.reset()));
+    }
+
+    private static String nodeId(NamedNode definition) {
+        String id = definition.getId();
+        return id == null ? definition.getShortName() + "@" + System.identityHashCode(definition) : id;
+    }
+
+    private static String routeId(NamedNode definition) {
+        NamedNode node = definition;
+        while (node != null) {
+            if (node instanceof NamedRoute) {
+                return ((NamedRoute) node).getRouteId();
+            }
+            node = node.getParent();
+        }
+        // onException blocks from a RouteBuilder are not under a route
+        return UNKNOWN_ROUTE;
+    }
+
+    public static final class StepLatency {
+        private final String type;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private StepLatency(String type) {
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * in microseconds
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return histogram.snapshot();
+        }
+    }
+
+    private static final class TimedProcessor extends DelegateAsyncProcessor {
+        private final LatencyHistogram histogram;
+
+        private TimedProcessor(Processor target, LatencyHistogram histogram) {
+            super(target);
+            this.histogram = histogram;
+        }
+
+        @Override
+        public boolean process(Exchange exchange, AsyncCallback callback) {
+            long start = System.nanoTime();
+            return processor.process(exchange, doneSync -> {
+                histogram.record(System.nanoTime() - start);
+                callback.done(doneSync);
+            });
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package codesmell.partitionlog;
+
+import codesmell.camel.CamelConstants;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.spring.boot.CamelContextConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * feeds a local partitioned log into direct:foo
+ * the way a Kafka consumer would,
+ * one thread per partition
+ * <p>
+ * starts once the routes are up
+ */
+@Component
+@ConditionalOnProperty(name = "codesmell.log.enabled", havingValue = "true")
+public class LogConsumer implements CamelContextConfiguration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogConsumer.class);
+
+    @Value("${codesmell.log.directory:partition-log}")
+    private String directory;
+
+    @Value("${codesmell.log.partitions:4}")
+    private int partitions;
+
+    @Value("${codesmell.log.target:" + CamelConstants.MAIN_ENDPOINT_URI + "}")
+    private String target;
+
+    /**
+     * 1 commits after every message
+     */
+    @Value("${codesmell.log.commit-batch-size:100}")
+    private int commitBatchSize;
+
+    @Value("${codesmell.log.commit-interval-ms:1000}")
+    private long commitIntervalMillis;
+
+    @Value("${codesmell.log.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${codesmell.log.poll-ms:100}")
+    private long pollMillis;
+
+    private PartitionedLog log;
+    private OffsetStore offsetStore;
+    private ProducerTemplate producerTemplate;
+    private ExecutorService pollers;
+    private final List<PartitionConsumer> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Override
+    public void beforeApplicationStart(CamelContext camelContext) {
+        // nothing to do
+    }
+
+    @Override
+    public void afterApplicationStart(CamelContext camelContext) {
+        try {
+            Path path = Paths.get(directory);
+            log = new PartitionedLog(path, partitions);
+            offsetStore = new OffsetStore(path, partitions);
+            producerTemplate = camelContext.createProducerTemplate();
+            for (int partition = 0; partition < partitions; partition++) {
+                consumers.add(new PartitionConsumer(partition, log, offsetStore, producerTemplate, target,
+                    commitBatchSize, commitIntervalMillis, maxPollRecords));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("could not open the partitioned log in " + directory, e);
+        }
+
+        running = true;
+        pollers = camelContext.getExecutorServiceManager().newFixedThreadPool(this, "log-consumer", partitions);
+        consumers.forEach(consumer -> pollers.execute(() -> this.pollLoop(consumer)));
+    }
+
+    private void pollLoop(PartitionConsumer consumer) {
+        while (running) {
+            try {
+                if (consumer.poll() == 0) {
+                    TimeUnit.MILLISECONDS.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("partition {} could not be read", consumer.getPartition(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * for the producers, the key picks the partition
+     * 
+     * @return the offset
+     */
+    public long append(String key, String body) throws IOException {
+        return log.append(log.partitionFor(key), body);
+    }
+
+    public long append(int partition, String body) throws IOException {
+        return log.append(partition, body);
+    }
+
+    public PartitionConsumer getConsumer(int partition) {
+        return consumers.get(partition);
+    }
+
+    public List<PartitionConsumer> getConsumers() {
+        return Collections.unmodifiableList(consumers);
+    }
+
+    /**
+     * stops polling and commits what was processed
+     */
+    @PreDestroy
+    public void shutdown() throws Exception {
+        running = false;
+        if (pollers != null) {
+            pollers.shutdown();
+            pollers.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        for (PartitionConsumer consumer : consumers) {
+            consumer.commit();
+        }
+        if (producerTemplate != null) {
+            producerTemplate.close();
+        }
+        if (offsetStore != null) {
+            offsetStore.close();
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package codesmell.partitionlog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/log")
+@ConditionalOnProperty(name = "codesmell.log.enabled", havingValue = "true")
+public class LogConsumerController {
+
+    @Autowired
+    private LogConsumer logConsumer;
+
+    /**
+     * @return the offset of the message
+     */
+    @PostMapping
+    public long append(@RequestParam(required = false) String key, @RequestBody String body) throws IOException {
+        return logConsumer.append(key, body);
+    }
+
+    @GetMapping("/partitions")
+    public List<Map<String, Object>> getPartitions() {
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (PartitionConsumer consumer : logConsumer.getConsumers()) {
+            Map<String, Object> partition = new LinkedHashMap<>();
+            partition.put("partition", consumer.getPartition());
+            partition.put("position", consumer.getPosition());
+            partition.put("committed", consumer.getCommitted());
+            partition.put("lag", consumer.getLag());
+            partition.put("processed", consumer.getProcessed());
+            partition.put("commits", consumer.getCommits());
+            partition.put("paused", consumer.isPaused());
+            partition.put("pausedOffset", consumer.getPausedOffset());
+            partition.put("pausedException", consumer.getPausedException());
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    @PostMapping("/partitions/{partition}/resume")
+    public void resume(@PathVariable int partition) {
+        logConsumer.getConsumer(partition).resume();
+    }
+}
@@ -0,0 +1,29 @@
+package codesmell.partitionlog;
+
+/**
+ * a message in a partition of the {@link PartitionedLog}
+ */
+public final class LogRecord {
+
+    private final int partition;
+    private final long offset;
+    private final String body;
+
+    public LogRecord(int partition, long offset, String body) {
+        this.partition = partition;
+        this.offset = offset;
+        this.body = body;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,71 @@
+package codesmell.partitionlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the committed offset of each partition,
+ * the offset of the next record to process like Kafka
+ * <p>
+ * a commit writes the offset and forces it to disk,
+ * that is what makes a commit per message expensive
+ */
+public class OffsetStore implements Closeable {
+
+    private static final String OFFSET_PREFIX = "partition-";
+    private static final String OFFSET_SUFFIX = ".offset";
+
+    private final FileChannel[] channels;
+    private final LongAdder commits = new LongAdder();
+
+    public OffsetStore(Path directory, int partitionCount) throws IOException {
+        Files.createDirectories(directory);
+        channels = new FileChannel[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            channels[i] = FileChannel.open(directory.resolve(OFFSET_PREFIX + i + OFFSET_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * @return 0 when nothing was committed yet
+     */
+    public long getCommitted(int partition) throws IOException {
+        FileChannel channel = channels[partition];
+        if (channel.size() < 8) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        while (buffer.hasRemaining()) {
+            channel.read(buffer, buffer.position());
+        }
+        return buffer.getLong(0);
+    }
+
+    public void commit(int partition, long offset) throws IOException {
+        FileChannel channel = channels[partition];
+        ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, offset);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.force(false);
+        commits.increment();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+}
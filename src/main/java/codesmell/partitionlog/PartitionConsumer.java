@@ -0,0 +1,176 @@
+package codesmell.partitionlog;
+
+import codesmell.camel.CamelConstants;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * sends the records of one partition into a route, in order
+ * <p>
+ * an exchange that worked or was handled by an onException
+ * moves the offset on, the offset is committed
+ * every commit batch size records or commit interval,
+ * whichever comes first
+ * <p>
+ * an exchange that comes back failed (the unhandled SpikeException)
+ * commits the records before it and pauses the partition,
+ * once resumed it starts again from the failed record
+ */
+public class PartitionConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionConsumer.class);
+
+    private final int partition;
+    private final PartitionedLog log;
+    private final OffsetStore offsetStore;
+    private final ProducerTemplate producerTemplate;
+    private final String endpointUri;
+    private final int commitBatchSize;
+    private final long commitIntervalNanos;
+    private final int maxPollRecords;
+
+    // next record to process
+    private volatile long position;
+    private volatile long committed;
+    private long lastCommitNanos;
+
+    private volatile boolean paused;
+    private volatile long pausedOffset = -1;
+    private volatile String pausedException;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+
+    public PartitionConsumer(int partition, PartitionedLog log, OffsetStore offsetStore, 
+        ProducerTemplate producerTemplate, String endpointUri, 
+        int commitBatchSize, long commitIntervalMillis, int maxPollRecords) throws IOException {
+        
+        this.partition = partition;
+        this.log = log;
+        this.offsetStore = offsetStore;
+        this.producerTemplate = producerTemplate;
+        this.endpointUri = endpointUri;
+        this.commitBatchSize = Math.max(1, commitBatchSize);
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        this.maxPollRecords = maxPollRecords;
+        
+        this.committed = offsetStore.getCommitted(partition);
+        this.position = committed;
+        this.lastCommitNanos = System.nanoTime();
+    }
+
+    /**
+     * processes the next records
+     * 
+     * @return how many were processed
+     */
+    public int poll() throws IOException {
+        if (paused) {
+            return 0;
+        }
+        int count = 0;
+        List<LogRecord> records = log.read(partition, position, maxPollRecords);
+        for (LogRecord record : records) {
+            Exchange exchange = producerTemplate.send(endpointUri, outgoing -> {
+                outgoing.getMessage().setBody(record.getBody());
+                outgoing.getMessage().setHeader(CamelConstants.LOG_PARTITION_HEADER, partition);
+                outgoing.getMessage().setHeader(CamelConstants.LOG_OFFSET_HEADER, record.getOffset());
+            });
+            
+            if (exchange.isFailed()) {
+                this.commit();
+                this.pause(record.getOffset(), exchange.getException());
+                return count;
+            }
+            
+            position = record.getOffset() + 1;
+            processed.increment();
+            count++;
+            if (position - committed >= commitBatchSize) {
+                this.commit();
+            }
+        }
+        if (position > committed && System.nanoTime() - lastCommitNanos >= commitIntervalNanos) {
+            this.commit();
+        }
+        return count;
+    }
+
+    /**
+     * commits the offset of the records processed so far
+     */
+    public synchronized void commit() throws IOException {
+        long offset = position;
+        if (offset > committed) {
+            offsetStore.commit(partition, offset);
+            committed = offset;
+            commits.increment();
+        }
+        lastCommitNanos = System.nanoTime();
+    }
+
+    /**
+     * tries the failed record again on the next poll
+     */
+    public void resume() {
+        pausedOffset = -1;
+        pausedException = null;
+        paused = false;
+        LOGGER.info("resumed partition {} at offset {}", partition, position);
+    }
+
+    private void pause(long offset, Exception exception) {
+        pausedOffset = offset;
+        pausedException = exception == null ? null : exception.getClass().getName();
+        paused = true;
+        LOGGER.warn("paused partition {} at offset {}", partition, offset, exception);
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+
+    /**
+     * the records waiting
+     */
+    public long getLag() {
+        return log.getEndOffset(partition) - committed;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * -1 when not paused
+     */
+    public long getPausedOffset() {
+        return pausedOffset;
+    }
+
+    public String getPausedException() {
+        return pausedException;
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+}
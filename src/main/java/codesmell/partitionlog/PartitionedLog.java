@@ -0,0 +1,160 @@
+package codesmell.partitionlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * a file per partition that stands in for a Kafka topic
+ * <p>
+ * a record is an int length and the UTF-8 body,
+ * its offset is its index in the partition
+ * <p>
+ * the file positions of the records are kept in memory
+ * so a read starts at any offset without a scan
+ */
+public class PartitionedLog implements Closeable {
+
+    private static final String PARTITION_PREFIX = "partition-";
+    private static final String PARTITION_SUFFIX = ".log";
+
+    private final Partition[] partitions;
+
+    public PartitionedLog(Path directory, int partitionCount) throws IOException {
+        Files.createDirectories(directory);
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(directory.resolve(PARTITION_PREFIX + i + PARTITION_SUFFIX));
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * the same key always goes to the same partition
+     */
+    public int partitionFor(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitions.length);
+    }
+
+    /**
+     * @return the offset of the record
+     */
+    public long append(int partition, String body) throws IOException {
+        return partitions[partition].append(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return up to max records starting at the offset
+     */
+    public List<LogRecord> read(int partition, long fromOffset, int max) throws IOException {
+        return partitions[partition].read(partition, fromOffset, max);
+    }
+
+    /**
+     * the offset the next record will get
+     */
+    public long getEndOffset(int partition) {
+        return partitions[partition].getEndOffset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Partition partition : partitions) {
+            partition.channel.close();
+        }
+    }
+
+    private static final class Partition {
+        private final FileChannel channel;
+        // file position of each record, plus where the next one goes
+        private long[] positions = new long[1024];
+        private volatile long endOffset;
+
+        private Partition(Path path) throws IOException {
+            channel = FileChannel.open(path, 
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            
+            // find the records already there, a torn last record is cut off
+            ByteBuffer length = ByteBuffer.allocate(4);
+            long position = 0;
+            long count = 0;
+            long size = channel.size();
+            while (position + 4 <= size) {
+                length.clear();
+                channel.read(length, position);
+                int bodyLength = length.getInt(0);
+                if (bodyLength < 0 || position + 4 + bodyLength > size) {
+                    break;
+                }
+                this.setPosition(count++, position);
+                position += 4 + bodyLength;
+            }
+            channel.truncate(position);
+            this.setPosition(count, position);
+            endOffset = count;
+        }
+
+        private synchronized long append(byte[] body) throws IOException {
+            long offset = endOffset;
+            long position = positions[(int) offset];
+            ByteBuffer record = ByteBuffer.allocate(4 + body.length);
+            record.putInt(body.length).put(body).flip();
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            this.setPosition(offset + 1, position);
+            endOffset = offset + 1;
+            return offset;
+        }
+
+        private List<LogRecord> read(int partition, long fromOffset, int max) throws IOException {
+            List<LogRecord> records = new ArrayList<>();
+            long end = Math.min(endOffset, fromOffset + max);
+            if (fromOffset >= end) {
+                return records;
+            }
+            long start;
+            long stop;
+            synchronized (this) {
+                start = positions[(int) fromOffset];
+                stop = positions[(int) end];
+            }
+            // one read for the whole batch
+            ByteBuffer buffer = ByteBuffer.allocate((int) (stop - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("the partition log ended early");
+                }
+            }
+            buffer.flip();
+            for (long offset = fromOffset; offset < end; offset++) {
+                byte[] body = new byte[buffer.getInt()];
+                buffer.get(body);
+                records.add(new LogRecord(partition, offset, new String(body, StandardCharsets.UTF_8)));
+            }
+            return records;
+        }
+
+        private long getEndOffset() {
+            return endOffset;
+        }
+
+        private void setPosition(long offset, long position) {
+            if (offset >= positions.length) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            }
+            positions[(int) offset] = position;
+        }
+    }
+}
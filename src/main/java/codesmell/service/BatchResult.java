@@ -0,0 +1,71 @@
+package codesmell.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * the result for one message of a batch call,
+ * either the value or the exception for that message
+ */
+public final class BatchResult {
+
+    private final String value;
+    private final RuntimeException failure;
+
+    private BatchResult(String value, RuntimeException failure) {
+        this.value = value;
+        this.failure = failure;
+    }
+
+    public static BatchResult success(String value) {
+        return new BatchResult(value, null);
+    }
+
+    public static BatchResult failure(RuntimeException failure) {
+        return new BatchResult(null, failure);
+    }
+
+    /**
+     * calls the single message version for each message
+     * keeping each failure with its message
+     *
+     * @param incoming
+     * @param process
+     * @return a result for each message in the same order
+     */
+    public static List<BatchResult> each(List<String> incoming, Function<String, String> process) {
+        List<BatchResult> results = new ArrayList<>(incoming.size());
+        for (String in : incoming) {
+            try {
+                results.add(success(process.apply(in)));
+            } catch (RuntimeException e) {
+                results.add(failure(e));
+            }
+        }
+        return results;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the value
+     * @throws RuntimeException the exception for this message
+     */
+    public String get() {
+        if (failure != null) {
+            throw failure;
+        }
+        return value;
+    }
+}
@@ -1,13 +1,157 @@
 package codesmell.service;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 public class DefaultFooBar implements FooBar {
 
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CONTINUATION_BYTES = 3;
+
+    private final int chunkSize;
+
+    public DefaultFooBar() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    DefaultFooBar(int chunkSize) {
+        if (chunkSize <= MAX_CONTINUATION_BYTES) {
+            throw new IllegalArgumentException("chunk size is too small " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
     @Override
     public String process(String incoming) {
         String returnValue = incoming;
         if (incoming != null) {
+            // with compact strings this is one copy in and one copy out
+            // and surrogate pairs are kept in order
             returnValue = new StringBuilder(incoming).reverse().toString();
         }
         return returnValue;
     }
+
+    /**
+     * reverses UTF-8 encoded text without decoding it
+     * <p>
+     * one pass into one output buffer,
+     * the bytes of each code point (including the ones
+     * that are surrogate pairs in a String) stay in order
+     *
+     * @param incoming UTF-8 bytes
+     * @return the reversed UTF-8 bytes
+     */
+    public byte[] process(byte[] incoming) {
+        if (incoming == null) {
+            return null;
+        }
+        byte[] out = new byte[incoming.length];
+        reverseInto(incoming, 0, incoming.length, out, 0);
+        return out;
+    }
+
+    /**
+     * the streaming version of {@link #process(byte[])}
+     * for UTF-8 text too large to hold in memory
+     * <p>
+     * the source is read from the end one chunk at a time
+     * so only a chunk of input and output is ever held
+     *
+     * @param source UTF-8 text
+     * @param target where the reversed text is written
+     * @throws IOException
+     */
+    public void process(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+            FileChannel out = FileChannel.open(target, 
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            byte[] chunk = new byte[chunkSize];
+            byte[] reversed = new byte[chunkSize];
+            long end = in.size();
+
+            while (end > 0) {
+                long start = Math.max(0, end - chunkSize);
+                int length = (int) (end - start);
+                readFully(in, ByteBuffer.wrap(chunk, 0, length), start);
+
+                // a code point split by the chunk boundary
+                // is left for the next chunk
+                int offset = 0;
+                if (start > 0) {
+                    while (offset < MAX_CONTINUATION_BYTES && isContinuation(chunk[offset])) {
+                        offset++;
+                    }
+                }
+
+                int reversedLength = length - offset;
+                reverseInto(chunk, offset, length, reversed, 0);
+                ByteBuffer buffer = ByteBuffer.wrap(reversed, 0, reversedLength);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                end = start + offset;
+            }
+        }
+    }
+
+    /**
+     * reverses the code points in incoming[from, to)
+     * into out starting at outFrom
+     */
+    private static void reverseInto(byte[] incoming, int from, int to, byte[] out, int outFrom) {
+        int outEnd = outFrom + (to - from);
+        int i = from;
+        while (i < to) {
+            int length = sequenceLength(incoming, i, to);
+            System.arraycopy(incoming, i, out, outEnd - (i - from) - length, length);
+            i += length;
+        }
+    }
+
+    /**
+     * @return the number of bytes in the code point starting at i,
+     *  malformed sequences are treated as single bytes
+     */
+    private static int sequenceLength(byte[] bytes, int i, int to) {
+        int lead = bytes[i] & 0xFF;
+        int length;
+        if (lead < 0x80) {
+            return 1;
+        } else if ((lead & 0xE0) == 0xC0) {
+            length = 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            length = 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            length = 4;
+        } else {
+            return 1;
+        }
+        if (i + length > to) {
+            return 1;
+        }
+        for (int j = 1; j < length; j++) {
+            if (!isContinuation(bytes[i + j])) {
+                return 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package codesmell.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * answers with the message after a delay, like a remote call would
+ * <p>
+ * {@link #processAsync(String)} does not block the caller,
+ * the result is completed by the JDK's shared delay scheduler
+ * so a waiting call does not hold a thread
+ */
+public class DefaultHeisenBugger implements HeisenBugger {
+
+    private final long latencyMillis;
+    private final Executor delayed;
+
+    /**
+     * @param latencyMillis how long a call takes
+     */
+    public DefaultHeisenBugger(long latencyMillis) {
+        if (latencyMillis < 0) {
+            throw new IllegalArgumentException("latency is negative " + latencyMillis);
+        }
+        this.latencyMillis = latencyMillis;
+        // run on the scheduler thread itself rather than handing off to the common pool
+        this.delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, Runnable::run);
+    }
+
+    @Override
+    public String process(String incoming) {
+        try {
+            return this.processAsync(incoming).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletionStage<String> processAsync(String incoming) {
+        if (latencyMillis == 0) {
+            return CompletableFuture.completedFuture(incoming);
+        }
+        return CompletableFuture.supplyAsync(() -> incoming, delayed);
+    }
+}
@@ -1,6 +1,6 @@
 package codesmell.service;
 
-public interface FooBar {
+public interface FooBar extends MessageService {
 
     String process(String incoming);
     
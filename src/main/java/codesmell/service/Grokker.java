@@ -1,6 +1,6 @@
 package codesmell.service;
 
-public interface Grokker {
+public interface Grokker extends MessageService {
 
     String process(String incoming);
     
@@ -1,6 +1,6 @@
 package codesmell.service;
 
-public interface HeisenBugger {
+public interface HeisenBugger extends MessageService {
 
     String process(String incoming);
     
@@ -0,0 +1,43 @@
+package codesmell.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * what the services called from the routes have in common
+ */
+public interface MessageService {
+
+    String process(String incoming);
+    
+    /**
+     * one call for many messages
+     * <p>
+     * the default calls {@link #process(String)} for each message
+     *
+     * @param incoming
+     * @return a result for each message in the same order
+     */
+    default List<BatchResult> process(List<String> incoming) {
+        return BatchResult.each(incoming, this::process);
+    }
+    
+    /**
+     * the non-blocking call
+     * <p>
+     * the default calls {@link #process(String)} on the calling thread,
+     * services doing I/O should override it
+     *
+     * @param incoming
+     * @return completes with the result or the exception
+     */
+    default CompletionStage<String> processAsync(String incoming) {
+        try {
+            return CompletableFuture.completedFuture(this.process(incoming));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+}
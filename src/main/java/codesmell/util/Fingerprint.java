@@ -0,0 +1,40 @@
+package codesmell.util;
+
+/**
+ * a 64 bit hash of a message id or body
+ * small enough to keep millions of them
+ * <p>
+ * FNV-1a over the chars with the murmur3 finalizer
+ * to spread the bits, never 0 so 0 can mean empty
+ */
+public final class Fingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static long of(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash = mix(hash);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * the murmur3 fmix64
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private Fingerprint() {
+        // you can't make me
+    }
+}
@@ -0,0 +1,165 @@
+package codesmell.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuditLogTest {
+
+    // a header and 7 records
+    private static final int SEGMENT_SIZE = 8 * 32;
+
+    private final List<AuditLog> auditLogs = new ArrayList<>();
+    private Path directory;
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        for (AuditLog auditLog : auditLogs) {
+            auditLog.close();
+        }
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void test_write_and_read() throws Exception {
+        AuditLog auditLog = this.open(4);
+        auditLog.write(123L, 5, "fooRoute", AuditOutcome.SUCCESS, null, 42L);
+        auditLog.write(456L, 7, "fooRoute", AuditOutcome.UNHANDLED, "codesmell.exception.SpikeException", 0L);
+        auditLog.write(789L, 9, "grokRoute", AuditOutcome.HANDLED, "codesmell.exception.GrokException", -1L);
+        assertEquals(3, auditLog.getWritten());
+
+        List<AuditRecord> records = this.read();
+        assertEquals(3, records.size());
+
+        AuditRecord first = records.get(0);
+        assertEquals(0L, first.getIndex());
+        assertEquals(123L, first.getTimestamp());
+        assertEquals(5, first.getDurationMillis());
+        assertEquals("fooRoute", first.getRouteId());
+        assertEquals(AuditOutcome.SUCCESS, first.getOutcome());
+        assertNull(first.getExceptionClass());
+        assertEquals(42L, first.getBodyHash());
+
+        AuditRecord second = records.get(1);
+        assertEquals(AuditOutcome.UNHANDLED, second.getOutcome());
+        assertEquals("codesmell.exception.SpikeException", second.getExceptionClass());
+
+        AuditRecord third = records.get(2);
+        assertEquals("grokRoute", third.getRouteId());
+        assertEquals(AuditOutcome.HANDLED, third.getOutcome());
+        assertEquals(-1L, third.getBodyHash());
+    }
+
+    @Test
+    public void test_rolls_and_deletes_the_oldest() throws Exception {
+        AuditLog auditLog = this.open(2);
+        for (int i = 0; i < 20; i++) {
+            auditLog.write(i, 1, "fooRoute", AuditOutcome.SUCCESS, null, i);
+        }
+
+        assertEquals(2, this.segmentCount());
+        // the last two segments of 7 records, the last one not full
+        List<AuditRecord> records = this.read();
+        assertEquals(13, records.size());
+        assertEquals(7L, records.get(0).getIndex());
+        assertEquals(19L, records.get(12).getTimestamp());
+    }
+
+    @Test
+    public void test_reopen_carries_on() throws Exception {
+        AuditLog auditLog = this.open(4);
+        auditLog.write(1L, 1, "fooRoute", AuditOutcome.SUCCESS, null, 1L);
+        auditLog.close();
+
+        auditLog = this.open(4);
+        auditLog.write(2L, 1, "grokRoute", AuditOutcome.SUCCESS, null, 2L);
+        auditLog.write(3L, 1, "fooRoute", AuditOutcome.SUCCESS, null, 3L);
+
+        List<AuditRecord> records = this.read();
+        assertEquals(3, records.size());
+        assertEquals("fooRoute", records.get(0).getRouteId());
+        // a new segment after the last one
+        assertEquals(7L, records.get(1).getIndex());
+        assertEquals("grokRoute", records.get(1).getRouteId());
+        assertEquals("fooRoute", records.get(2).getRouteId());
+        // each route once
+        assertEquals(2, Files.readAllLines(directory.resolve(AuditSymbols.FILE_NAME)).size());
+    }
+
+    @Test
+    public void test_concurrent_writers() throws Exception {
+        AuditLog auditLog = this.open(1000);
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String routeId = "route" + t;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        auditLog.write(i, 1, routeId, AuditOutcome.SUCCESS, null, i);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        List<AuditRecord> records = this.read();
+        assertEquals(threads * perThread, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).getIndex());
+        }
+    }
+
+    @Test
+    public void test_text_and_csv() {
+        AuditRecord record = new AuditRecord(3, 0, 12, "fooRoute", AuditOutcome.UNHANDLED, 
+            "codesmell.exception.SpikeException", 255L);
+
+        assertEquals("3 | 1970-01-01T00:00:00Z | fooRoute                  | UNHANDLED |     12 ms"
+            + " | codesmell.exception.SpikeException | 00000000000000ff", AuditLogReader.toText(record));
+        assertEquals("3,1970-01-01T00:00:00Z,fooRoute,UNHANDLED,12,codesmell.exception.SpikeException,00000000000000ff", 
+            AuditLogReader.toCsv(record));
+    }
+
+    private AuditLog open(int maxSegments) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("audit");
+        }
+        AuditLog auditLog = new AuditLog(directory, SEGMENT_SIZE, maxSegments);
+        auditLog.open();
+        auditLogs.add(auditLog);
+        return auditLog;
+    }
+
+    private List<AuditRecord> read() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditLogReader(directory).read(records::add);
+        return records;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(AuditFormat::isSegment).count();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package codesmell.audit;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * every exchange on the main route leaves one audit record
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.audit.enabled=true",
+        "codesmell.audit.directory=target/audit-test",
+        "codesmell.audit.segment-size-mb=1"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ExchangeAuditorTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private ExchangeAuditor exchangeAuditor;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_outcomes_are_audited() throws Exception {
+        AuditLog auditLog = exchangeAuditor.getAuditLog();
+        long before = auditLog.getWritten();
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("foobar")
+            .thenThrow(new FooBarException("boom!"))
+            .thenThrow(new SpikeException("boom!"));
+
+        this.send("foobar");
+        this.send("foobar");
+        this.send("foobar");
+        assertEquals(before + 3, auditLog.getWritten());
+
+        List<AuditRecord> records = this.read();
+        List<AuditRecord> last = records.subList(records.size() - 3, records.size());
+
+        AuditRecord success = last.get(0);
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, success.getRouteId());
+        assertEquals(AuditOutcome.SUCCESS, success.getOutcome());
+        assertNull(success.getExceptionClass());
+        assertNotEquals(0L, success.getBodyHash());
+
+        AuditRecord handled = last.get(1);
+        assertEquals(AuditOutcome.HANDLED, handled.getOutcome());
+        assertEquals(FooBarException.class.getName(), handled.getExceptionClass());
+
+        AuditRecord unhandled = last.get(2);
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, unhandled.getRouteId());
+        assertEquals(AuditOutcome.UNHANDLED, unhandled.getOutcome());
+        assertEquals(SpikeException.class.getName(), unhandled.getExceptionClass());
+    }
+
+    private void send(String body) {
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody(body);
+        camelProducer.send(exchangeIn);
+    }
+
+    private List<AuditRecord> read() throws Exception {
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditLogReader(exchangeAuditor.getAuditLog().getDirectory()).read(records::add);
+        return records;
+    }
+}
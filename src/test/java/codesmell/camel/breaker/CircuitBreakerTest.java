@@ -0,0 +1,96 @@
+package codesmell.camel.breaker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    // 4 call window, 50% failures, open for 100ns, 2 trial calls
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 50, 0, 100, 2, now::get);
+
+    @Test
+    public void test_stays_closed_below_threshold() {
+        call(false);
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+        call(true);
+        // 1 of the last 4 failed
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(25.0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    public void test_needs_minimum_calls() {
+        call(true);
+        call(true);
+        call(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void test_open_fails_fast_then_half_open() {
+        this.open();
+        
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(99);
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breaker.getNotPermittedCalls());
+
+        now.addAndGet(1);
+        // only the trial calls get through
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onResult(false, 1);
+        breaker.onResult(false, 1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getBufferedCalls());
+    }
+
+    @Test
+    public void test_half_open_failure_opens_again() {
+        this.open();
+        now.addAndGet(100);
+        
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(true, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTimesOpened());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void test_slow_calls_are_failures() {
+        CircuitBreaker slow = new CircuitBreaker("slow", 2, 2, 100, 10, 100, 1, now::get);
+        assertTrue(slow.tryAcquire());
+        slow.onResult(false, 10);
+        assertTrue(slow.tryAcquire());
+        slow.onResult(false, 50);
+        assertEquals(CircuitBreaker.State.OPEN, slow.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean failed) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(failed, 1);
+    }
+}
@@ -0,0 +1,148 @@
+package codesmell.camel.breaker;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.FooBarException;
+import codesmell.exception.GrokException;
+import codesmell.exception.TransientServiceException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import codesmell.testingutil.CamelExceptionAssert;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * once the breaker opens the service is not called
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.breaker.enabled=true",
+        "codesmell.breaker.window-size=2",
+        "codesmell.breaker.minimum-calls=2",
+        "codesmell.breaker.open-ms=60000"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CircuitBreakersTest {
+    
+    @Produce
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_heisenbug_fails_fast() throws Exception {
+        Mockito.when(mockHeisenBugger.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("it certainly went boom!"));
+
+        for (int i = 0; i < 2; i++) {
+            send(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug");
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.get("heisenBugger").getState());
+
+        Exchange exchangeOut = send(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug");
+        
+        Mockito.verify(mockHeisenBugger, Mockito.times(2)).process(Mockito.anyString());
+        assertTrue(exchangeOut.isFailed());
+        assertTrue(exchangeOut.getException() instanceof CircuitBreakerOpenException);
+        assertEquals(1, circuitBreakers.get("heisenBugger").getNotPermittedCalls());
+    }
+
+    /**
+     * the open breaker has its own shared error config
+     */
+    @Test
+    public void test_grok_with_configurator_fails_fast() throws Exception {
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("grok went boom!"));
+
+        for (int i = 0; i < 2; i++) {
+            Exchange exchangeOut = send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, "grok");
+            assertTrue(exchangeOut.getException() instanceof TransientServiceException);
+        }
+
+        Exchange exchangeOut = send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, "grok");
+        
+        Mockito.verify(mockGrokker, Mockito.times(2)).process(Mockito.anyString());
+        assertTrue(exchangeOut.isFailed());
+        assertTrue(exchangeOut.getException() instanceof CircuitBreakerOpenException);
+        assertEquals("unhandled_breaker_open_grok", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * turning the breakers on does not change
+     * how the other GrokExceptions are handled
+     */
+    @Test
+    public void test_grok_exception_with_configurator_unhandled() throws Exception {
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenThrow(new GrokException("grok with configurator went boom w/ grok exception!"));
+
+        Exchange exchangeOut = send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, "grok");
+        
+        Exception ex = CamelExceptionAssert.assertUnhandledExceptionIsFound(exchangeOut);
+        assertTrue(ex instanceof GrokException);
+        assertFalse(ex instanceof CircuitBreakerOpenException);
+        assertEquals("grok", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * a bad message is the service answering,
+     * not the service failing
+     */
+    @Test
+    public void test_message_errors_do_not_open() throws Exception {
+        Mockito.when(mockHeisenBugger.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("it certainly went boom!"));
+
+        for (int i = 0; i < 3; i++) {
+            send(CamelConstants.MAIN_ENDPOINT_URI, "heisenbug");
+        }
+        
+        Mockito.verify(mockHeisenBugger, Mockito.times(3)).process(Mockito.anyString());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.get("heisenBugger").getState());
+        assertEquals(0, circuitBreakers.get("heisenBugger").getNotPermittedCalls());
+    }
+
+    private Exchange send(String uri, String body) {
+        return camelProducer.send(uri, exchange -> exchange.getMessage().setBody(body));
+    }
+}
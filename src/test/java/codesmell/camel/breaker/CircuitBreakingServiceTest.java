@@ -0,0 +1,133 @@
+package codesmell.camel.breaker;
+
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.FooBarException;
+import codesmell.exception.TransientServiceException;
+import codesmell.service.BatchResult;
+import codesmell.service.MessageService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakingServiceTest {
+
+    // 4 call window, 50% failures, open for a minute, 1 trial call
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 50, 0, 60_000_000_000L, 1);
+
+    @Test
+    public void test_message_errors_do_not_count() {
+        MessageService service = new CircuitBreakingService(in -> {
+            throw new FooBarException("bad message");
+        }, breaker);
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(FooBarException.class, () -> service.process("foo"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    public void test_transient_failures_open() {
+        MessageService service = new CircuitBreakingService(in -> {
+            throw new TransientServiceException("down");
+        }, breaker);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TransientServiceException.class, () -> service.process("foo"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> service.process("foo"));
+    }
+
+    @Test
+    public void test_configured_failures_count() {
+        MessageService service = new CircuitBreakingService(in -> {
+            throw new FooBarException("bad message");
+        }, breaker, FooBarException.class::isInstance);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FooBarException.class, () -> service.process("foo"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void test_batch_is_one_call() {
+        MessageService service = new CircuitBreakingService(new BatchingService(), breaker);
+
+        // one bad message doesn't fail the batch
+        List<BatchResult> results = service.process(List.of("bad", "good", "good", "good"));
+        assertTrue(results.get(0).isFailed());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getBufferedCalls());
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+
+        // one service failure fails the batch, once
+        results = service.process(List.of("down", "good", "good", "good"));
+        assertTrue(results.get(0).isFailed());
+        assertFalse(results.get(1).isFailed());
+        assertEquals(2, breaker.getBufferedCalls());
+        assertEquals(50.0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    public void test_batch_is_one_trial_call() {
+        // 2 trial calls and no time open
+        CircuitBreaker trial = new CircuitBreaker("test", 4, 4, 50, 0, 0, 2);
+        MessageService service = new CircuitBreakingService(new BatchingService(), trial);
+        for (int i = 0; i < 4; i++) {
+            service.process(List.of("down"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, trial.getState());
+
+        service.process(List.of("good", "good", "good", "good"));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, trial.getState());
+
+        service.process(List.of("good", "good"));
+        assertEquals(CircuitBreaker.State.CLOSED, trial.getState());
+    }
+
+    @Test
+    public void test_async_failures_unwrapped() {
+        MessageService service = new CircuitBreakingService(new MessageService() {
+            @Override
+            public String process(String incoming) {
+                return incoming;
+            }
+
+            @Override
+            public CompletionStage<String> processAsync(String incoming) {
+                return CompletableFuture.supplyAsync(() -> {
+                    throw new TransientServiceException("down");
+                });
+            }
+        }, breaker);
+
+        for (int i = 0; i < 4; i++) {
+            CompletionStage<String> result = service.processAsync("foo");
+            assertThrows(Exception.class, () -> result.toCompletableFuture().join());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static final class BatchingService implements MessageService {
+        @Override
+        public String process(String incoming) {
+            if (incoming.startsWith("bad")) {
+                throw new FooBarException("bad message");
+            }
+            if (incoming.startsWith("down")) {
+                throw new TransientServiceException("down");
+            }
+            return incoming;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package codesmell.camel.cache;
+
+import codesmell.exception.FooBarException;
+import codesmell.exception.TransientServiceException;
+import codesmell.service.MessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_second_call_is_a_hit() {
+        ResultCache cache = this.cache(false);
+        MessageService service = incoming -> {
+            calls.incrementAndGet();
+            return "grokked_" + incoming;
+        };
+
+        assertEquals("grokked_foo", cache.process("foo", service));
+        assertEquals("grokked_foo", cache.process("foo", service));
+
+        assertEquals(1, calls.get());
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+    }
+
+    @Test
+    public void test_exceptions_not_cached() {
+        ResultCache cache = this.cache(false);
+        MessageService service = incoming -> {
+            calls.incrementAndGet();
+            throw new FooBarException("boom!");
+        };
+
+        assertThrows(FooBarException.class, () -> cache.process("foo", service));
+        assertThrows(FooBarException.class, () -> cache.process("foo", service));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void test_negative_caching() {
+        ResultCache cache = this.cache(true);
+        MessageService service = incoming -> {
+            calls.incrementAndGet();
+            throw new FooBarException("boom!");
+        };
+
+        FooBarException first = assertThrows(FooBarException.class, () -> cache.process("foo", service));
+        FooBarException second = assertThrows(FooBarException.class, () -> cache.process("foo", service));
+        assertEquals(1, calls.get());
+        assertEquals(1L, cache.getNegativeHits());
+        
+        // a new exception each hit so nothing one exchange adds is seen by the next
+        assertNotSame(first, second);
+        assertEquals("boom!", second.getMessage());
+        first.addSuppressed(new IllegalStateException("added by the first exchange"));
+        FooBarException third = assertThrows(FooBarException.class, () -> cache.process("foo", service));
+        assertEquals(0, third.getSuppressed().length);
+        assertNull(third.getCause());
+
+        // try again later means try again later
+        MessageService flaky = incoming -> {
+            calls.incrementAndGet();
+            throw new TransientServiceException("blip");
+        };
+        assertThrows(TransientServiceException.class, () -> cache.process("bar", flaky));
+        assertThrows(TransientServiceException.class, () -> cache.process("bar", flaky));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void test_negative_caching_other_exceptions() {
+        ResultCache cache = this.cache(true);
+        MessageService service = incoming -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad " + incoming);
+        };
+
+        IllegalArgumentException first = assertThrows(IllegalArgumentException.class, () -> cache.process("foo", service));
+        IllegalArgumentException second = assertThrows(IllegalArgumentException.class, () -> cache.process("foo", service));
+        assertEquals(1, calls.get());
+        assertNotSame(first, second);
+        assertEquals("bad foo", second.getMessage());
+    }
+
+    @Test
+    public void test_concurrent_callers_share_one_call() throws Exception {
+        ResultCache cache = this.cache(false);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageService slow = incoming -> {
+            calls.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "grokked_" + incoming;
+        };
+
+        List<Future<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> cache.process("foo", slow)));
+        }
+        // wait until the other callers are waiting on the first
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getSharedCalls() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<String> caller : callers) {
+            assertEquals("grokked_foo", caller.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(7L, cache.getSharedCalls());
+    }
+
+    @Test
+    public void test_concurrent_callers_each_get_their_own_exception() throws Exception {
+        ResultCache cache = this.cache(false);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageService slow = incoming -> {
+            calls.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new FooBarException("bad " + incoming);
+        };
+
+        List<Future<FooBarException>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> assertThrows(FooBarException.class, () -> cache.process("foo", slow))));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getSharedCalls() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        Set<FooBarException> thrown = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<FooBarException> caller : callers) {
+            FooBarException e = caller.get(10, TimeUnit.SECONDS);
+            assertEquals("bad foo", e.getMessage());
+            thrown.add(e);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(8, thrown.size());
+    }
+
+    private ResultCache cache(boolean negativeCaching) {
+        return new ResultCache("grokker", new WTinyLfuCache<>(100, 0), negativeCaching, TimeUnit.SECONDS.toNanos(10));
+    }
+}
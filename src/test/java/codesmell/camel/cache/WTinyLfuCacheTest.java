@@ -0,0 +1,85 @@
+package codesmell.camel.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WTinyLfuCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void test_get_and_put() {
+        WTinyLfuCache<String> cache = new WTinyLfuCache<>(100, 0, clock::get);
+        assertNull(cache.get("foo"));
+        cache.put("foo", "bar");
+        assertEquals("bar", cache.get("foo"));
+        assertEquals(1, cache.size());
+
+        cache.invalidate("foo");
+        assertNull(cache.get("foo"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void test_never_more_than_the_maximum() {
+        WTinyLfuCache<String> cache = new WTinyLfuCache<>(100, 0, clock::get);
+        for (int i = 0; i < 1000; i++) {
+            cache.get("key-" + i);
+            cache.put("key-" + i, "value");
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(900L, cache.getEvictions());
+    }
+
+    /**
+     * a scan of one-off keys doesn't push out the popular ones,
+     * an LRU would have none of them left
+     */
+    @Test
+    public void test_popular_keys_survive_a_scan() {
+        WTinyLfuCache<String> cache = new WTinyLfuCache<>(100, 0, clock::get);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get("hot-" + i) == null) {
+                    cache.put("hot-" + i, "value");
+                }
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            if (cache.get("scan-" + i) == null) {
+                cache.put("scan-" + i, "value");
+            }
+        }
+
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.peek("hot-" + i) != null) {
+                hot++;
+            }
+        }
+        // the one in the window when the scan started may go
+        assertTrue(hot >= 49);
+    }
+
+    @Test
+    public void test_ttl() {
+        WTinyLfuCache<String> cache = new WTinyLfuCache<>(100, 1000, clock::get);
+        cache.put("foo", "bar");
+        cache.put("forever", "bar", 0);
+
+        clock.addAndGet(999);
+        assertEquals("bar", cache.get("foo"));
+
+        clock.addAndGet(1);
+        assertNull(cache.get("foo"));
+        assertNull(cache.peek("foo"));
+        assertEquals("bar", cache.get("forever"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,212 @@
+package codesmell.camel.errorhandler;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * a result that fails later should go through the same onException
+ * as the exception thrown by the blocking call
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = "codesmell.async.enabled=true")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CamelExceptionSpikeRouteBuilderAsyncTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_successful_message_main_foo_flow() throws Exception {
+        Mockito.when(mockFooBar.processAsync(Mockito.anyString()))
+            .thenReturn(later(() -> "barfoo"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        
+        // verify the body
+        String outBody = exchangeOut.getMessage().getBody(String.class);
+        assertEquals("barfoo", outBody);
+    }
+
+    @Test
+    public void test_error_message_main_foo_flow_handled() throws Exception {
+
+        // the result fails after the call returned
+        Mockito.when(mockFooBar.processAsync(Mockito.anyString()))
+            .thenReturn(later(() -> {
+                throw new FooBarException("boom!");
+            }));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNull(exception);
+        
+        exception = exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof FooBarException);
+        assertEquals("boom!", exception.getMessage());
+        
+        // verify the body
+        String outBody = exchangeOut.getMessage().getBody(String.class);
+        assertEquals("handled_exception_foobar", outBody);
+    }
+    
+    @Test
+    public void test_error_message_main_foo_flow_unhandled() throws Exception {
+
+        // the result fails after the call returned
+        Mockito.when(mockFooBar.processAsync(Mockito.anyString()))
+            .thenReturn(later(() -> {
+                throw new SpikeException("boom!");
+            }));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("boom!", exception.getMessage());
+        
+        exception = exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("boom!", exception.getMessage());
+        
+        // verify the body
+        String outBody = exchangeOut.getMessage().getBody(String.class);
+        assertEquals("unhandled_exception_foobar", outBody);
+    }
+
+    @Test
+    public void test_failed_result_same_as_thrown() throws Exception {
+
+        // the call throws instead of returning a result
+        Mockito.when(mockFooBar.processAsync(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"));
+        
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        Exchange thrown = camelProducer.send(exchangeIn);
+
+        Mockito.reset(mockFooBar);
+        Mockito.when(mockFooBar.processAsync(Mockito.anyString()))
+            .thenReturn(later(() -> {
+                throw new FooBarException("boom!");
+            }));
+        
+        exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        Exchange failed = camelProducer.send(exchangeIn);
+
+        assertEquals(thrown.isFailed(), failed.isFailed());
+        assertEquals(
+            thrown.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class).getClass(), 
+            failed.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class).getClass());
+        assertEquals(thrown.getMessage().getBody(String.class), failed.getMessage().getBody(String.class));
+    }
+
+    /**
+     * completes on another thread after the call has returned
+     */
+    private static CompletableFuture<String> later(Supplier<String> result) {
+        return CompletableFuture.supplyAsync(result, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,150 @@
+package codesmell.camel.errorhandler;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.BatchResult;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the messages batched into one call each get the onException
+ * for their own result
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.batch.size=3",
+        "codesmell.batch.window-ms=5000"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CamelExceptionSpikeRouteBuilderBatchTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_each_message_gets_its_own_outcome() throws Exception {
+        // one call for the batch, each message fails its own way
+        Mockito.when(mockFooBar.process(Mockito.<List<String>>any()))
+            .thenAnswer(invocation -> BatchResult.each(invocation.getArgument(0), in -> {
+                if (in.endsWith("handled")) {
+                    throw new FooBarException("foo went boom!");
+                }
+                if (in.endsWith("spike")) {
+                    throw new SpikeException("spike went boom!");
+                }
+                return "barfoo";
+            }));
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // the batch is full with the third so no waiting for the window
+        CompletableFuture<Exchange> ok = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_ok"));
+        CompletableFuture<Exchange> handled = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_handled"));
+        CompletableFuture<Exchange> spike = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_spike"));
+        
+        Exchange okOut = ok.get(5, TimeUnit.SECONDS);
+        Exchange handledOut = handled.get(5, TimeUnit.SECONDS);
+        Exchange spikeOut = spike.get(5, TimeUnit.SECONDS);
+
+        mockOutgoingEndpoint.assertIsSatisfied();
+        Mockito.verify(mockFooBar, Mockito.times(1)).process(Mockito.<List<String>>any());
+        Mockito.verify(mockFooBar, Mockito.never()).process(Mockito.anyString());
+        
+        assertFalse(okOut.isFailed());
+        assertNull(okOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class));
+        assertEquals("barfoo", okOut.getMessage().getBody(String.class));
+        
+        assertFalse(handledOut.isFailed());
+        Exception exception = handledOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof FooBarException);
+        assertEquals("handled_exception_foo_handled", handledOut.getMessage().getBody(String.class));
+        
+        assertTrue(spikeOut.isFailed());
+        assertTrue(spikeOut.getException() instanceof SpikeException);
+        assertEquals("spike went boom!", spikeOut.getException().getMessage());
+        assertEquals("unhandled_exception_foo_spike", spikeOut.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_whole_batch_failing() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.<List<String>>any()))
+            .thenThrow(new FooBarException("boom!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        CompletableFuture<Exchange> first = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_1"));
+        CompletableFuture<Exchange> second = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_2"));
+        CompletableFuture<Exchange> third = camelProducer.asyncSend(CamelConstants.MAIN_ENDPOINT_URI, this.message("foo_3"));
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // every message takes the handled path with its own body
+        assertEquals("handled_exception_foo_1", first.get(5, TimeUnit.SECONDS).getMessage().getBody(String.class));
+        assertEquals("handled_exception_foo_2", second.get(5, TimeUnit.SECONDS).getMessage().getBody(String.class));
+        assertEquals("handled_exception_foo_3", third.get(5, TimeUnit.SECONDS).getMessage().getBody(String.class));
+    }
+
+    private Exchange message(String body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getMessage().setBody(body);
+        return exchange;
+    }
+}
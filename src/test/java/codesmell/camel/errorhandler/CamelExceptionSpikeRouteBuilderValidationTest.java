@@ -0,0 +1,176 @@
+package codesmell.camel.errorhandler;
+
+import codesmell.camel.CamelConstants;
+import codesmell.camel.validation.ValidationResult;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the validation results should give the same outcomes
+ * as throwing the FooBarException
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = "codesmell.foobar.validation.enabled=true")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CamelExceptionSpikeRouteBuilderValidationTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_successful_message_main_foo_flow() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        assertNull(exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class));
+        
+        assertEquals(ValidationResult.VALID, 
+            exchangeOut.getProperty(CamelConstants.VALIDATION_RESULT_PROPERTY, ValidationResult.class));
+        
+        // verify the body
+        assertEquals("barfoo", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * exceptions from the FooBar still use the onException
+     */
+    @Test
+    public void test_error_message_main_foo_flow_handled() throws Exception {
+
+        // simulate exception during route processing
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        
+        Exception exception = exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof FooBarException);
+        
+        // verify the body
+        assertEquals("handled_exception_foobar", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_error_message_main_foo_flow_rejected() throws Exception {
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("error");
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        assertEquals(ValidationResult.REJECTED, 
+            exchangeOut.getProperty(CamelConstants.VALIDATION_RESULT_PROPERTY, ValidationResult.class));
+        
+        // checking the exceptions
+        // the same as when the onException throws the SpikeException
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("still can't handle the message", exception.getMessage());
+        
+        exception = exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("still can't handle the message", exception.getMessage());
+        
+        // verify the body
+        String outBody = exchangeOut.getMessage().getBody(String.class);
+        assertEquals("another_exception_error", outBody);
+        assertFalse(outBody.startsWith("unhandled_exception_"));
+    }
+}
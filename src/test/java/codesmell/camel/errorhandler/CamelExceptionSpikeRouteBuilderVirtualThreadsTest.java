@@ -0,0 +1,204 @@
+package codesmell.camel.errorhandler;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the routes on virtual threads should give the same outcomes
+ * as the routes on the caller thread
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = "codesmell.threads.mode=VIRTUAL")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CamelExceptionSpikeRouteBuilderVirtualThreadsTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_successful_message_main_foo_flow() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenAnswer(invocation -> {
+                virtual.set(Thread.currentThread().isVirtual());
+                return "barfoo";
+            });
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        assertTrue(virtual.get());
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        assertNull(exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class));
+        
+        // verify the body
+        assertEquals("barfoo", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_error_message_main_foo_flow_exception_in_handled_onException() throws Exception {
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("error");
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("still can't handle the message", exception.getMessage());
+        
+        // verify the body
+        assertEquals("another_exception_error", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * the sub route runs on the same virtual thread
+     * and still uses the main route error handling
+     */
+    @Test
+    public void test_error_message_grok_flow_unhandled() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenAnswer(invocation -> {
+                virtual.set(Thread.currentThread().isVirtual());
+                throw new SpikeException("grok went boom w/ spike exception!");
+            });
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("grok");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        assertTrue(virtual.get());
+        
+        // checking the exceptions
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("grok went boom w/ spike exception!", exception.getMessage());
+        
+        // verify the body
+        assertEquals("unhandled_exception_grok", exchangeOut.getMessage().getBody(String.class));
+    }
+    
+    /**
+     * will NOT use main route error handling
+     */ 
+    @Test
+    public void test_error_message_heisenbug_flow_handled() throws Exception {
+        Mockito.when(mockHeisenBugger.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("it certainly went boom!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("heisenbug");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof FooBarException);
+        assertEquals("it certainly went boom!", exception.getMessage());
+        
+        // verify the body
+        assertEquals("heisenbug", exchangeOut.getMessage().getBody(String.class));
+    }
+}
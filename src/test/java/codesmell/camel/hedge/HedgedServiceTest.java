@@ -0,0 +1,160 @@
+package codesmell.camel.hedge;
+
+import codesmell.camel.retry.RetryBudget;
+import codesmell.exception.FooBarException;
+import codesmell.service.MessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedServiceTest {
+
+    private static final long MIN_DELAY = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // lets the stalled first attempts go at the end of the test
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void cleanup() {
+        release.countDown();
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_no_hedging_before_a_full_window() {
+        AtomicInteger attempts = new AtomicInteger();
+        HedgedService service = this.hedged(incoming -> {
+            attempts.incrementAndGet();
+            return "ok";
+        }, 10);
+
+        assertEquals("ok", service.process("foo"));
+        service.rotate();
+        // one call is not enough
+        assertEquals(-1, service.getDelayNanos());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void test_hedge_answers_the_stalled_call() {
+        AtomicInteger attempts = new AtomicInteger();
+        HedgedService service = this.hedged(incoming -> {
+            if (incoming.equals("stall") && attempts.getAndIncrement() == 0) {
+                this.await();
+                return "too late";
+            }
+            return "ok";
+        }, 10);
+        
+        this.warmUp(service, 10);
+        assertEquals(MIN_DELAY, service.getDelayNanos());
+
+        long start = System.nanoTime();
+        assertEquals("ok", service.process("stall"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        
+        assertEquals(1, service.getHedges());
+        assertEquals(1, service.getHedgeWins());
+    }
+
+    @Test
+    public void test_answered_call_cancels_its_hedge() throws Exception {
+        ScheduledThreadPoolExecutor hedgeScheduler = new ScheduledThreadPoolExecutor(1);
+        hedgeScheduler.setRemoveOnCancelPolicy(true);
+        try {
+            // the hedge would only go after a minute
+            HedgedService service = new HedgedService("test", incoming -> "ok", executor, hedgeScheduler, 
+                new RetryBudget(1, 10), 50, 10, TimeUnit.MINUTES.toNanos(1));
+            this.warmUp(service, 10);
+            
+            assertEquals("ok", service.process("foo"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!hedgeScheduler.getQueue().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(hedgeScheduler.getQueue().isEmpty());
+            assertEquals(0, service.getHedges());
+        } finally {
+            hedgeScheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_budget_caps_hedges() {
+        HedgedService service = new HedgedService("test", incoming -> {
+            if (incoming.equals("stall")) {
+                this.await();
+            }
+            return "ok";
+        }, executor, scheduler, new RetryBudget(0, 1), 50, 10, MIN_DELAY);
+        
+        this.warmUp(service, 10);
+
+        service.processAsync("stall");
+        service.processAsync("stall");
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getHedges() + service.getHedgesDenied() < 2 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(1, service.getHedges());
+        assertEquals(1, service.getHedgesDenied());
+    }
+
+    @Test
+    public void test_both_attempts_fail() {
+        AtomicInteger attempts = new AtomicInteger();
+        HedgedService service = this.hedged(incoming -> {
+            if (incoming.equals("fail")) {
+                if (attempts.getAndIncrement() == 0) {
+                    this.await(50);
+                }
+                throw new FooBarException("boom!");
+            }
+            return "ok";
+        }, 10);
+        
+        this.warmUp(service, 10);
+        
+        FooBarException e = assertThrows(FooBarException.class, () -> service.process("fail"));
+        assertEquals("boom!", e.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    private HedgedService hedged(MessageService delegate, long minSamples) {
+        return new HedgedService("test", delegate, executor, scheduler, new RetryBudget(1, 10), 50, minSamples, MIN_DELAY);
+    }
+
+    private void warmUp(HedgedService service, int calls) {
+        for (int i = 0; i < calls; i++) {
+            service.process("foo");
+        }
+        service.rotate();
+    }
+
+    private void await() {
+        this.await(10_000);
+    }
+
+    private void await(long millis) {
+        try {
+            release.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package codesmell.camel.hedge;
+
+import codesmell.service.MessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HedgingTest {
+
+    private final Hedging hedging = new Hedging();
+
+    private final MessageService service = incoming -> "ok";
+
+    @AfterEach
+    public void cleanup() {
+        hedging.shutdown();
+    }
+
+    @Test
+    public void test_turned_off() {
+        ReflectionTestUtils.setField(hedging, "enabled", false);
+
+        assertSame(service, hedging.protect("heisenBugger", service));
+    }
+
+    @Test
+    public void test_same_name_same_hedged_service() {
+        ReflectionTestUtils.setField(hedging, "enabled", true);
+        ReflectionTestUtils.setField(hedging, "percentile", 95d);
+        ReflectionTestUtils.setField(hedging, "minSamples", 100L);
+        ReflectionTestUtils.setField(hedging, "windowMillis", 10_000L);
+        ReflectionTestUtils.setField(hedging, "minDelayMillis", 1L);
+        ReflectionTestUtils.setField(hedging, "budgetRatio", 0.05d);
+        ReflectionTestUtils.setField(hedging, "budgetMax", 10);
+
+        MessageService first = hedging.protect("heisenBugger", service);
+        
+        // another route calling the same service
+        assertSame(first, hedging.protect("heisenBugger", service));
+        assertNotSame(first, hedging.protect("grokker", service));
+        assertEquals(2, hedging.getAll().size());
+    }
+}
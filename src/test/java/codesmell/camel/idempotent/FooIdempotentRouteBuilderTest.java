@@ -0,0 +1,137 @@
+package codesmell.camel.idempotent;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * a message id only goes through the main route once
+ * unless it failed there
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.idempotent.enabled=true",
+        "codesmell.idempotent.memory-mb=1",
+        "codesmell.idempotent.snapshot="
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FooIdempotentRouteBuilderTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.IDEMPOTENT_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooIdempotentRouteBuilder idempotentRouteBuilder;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_duplicate_is_dropped() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        
+        mockOutgoingEndpoint.expectedMessageCount(2);
+        
+        Exchange first = camelProducer.send(this.message("id-1", "foobar"));
+        Exchange duplicate = camelProducer.send(this.message("id-1", "foobar"));
+        Exchange other = camelProducer.send(this.message("id-2", "foobar"));
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+        Mockito.verify(mockFooBar, Mockito.times(2)).process(Mockito.anyString());
+        
+        assertFalse(first.isFailed());
+        assertFalse(duplicate.isFailed());
+        assertTrue(duplicate.getProperty(Exchange.DUPLICATE_MESSAGE, false, Boolean.class));
+        assertFalse(other.getProperty(Exchange.DUPLICATE_MESSAGE, false, Boolean.class));
+        assertEquals(1L, idempotentRouteBuilder.getRepository().getDuplicates());
+    }
+
+    @Test
+    public void test_body_is_the_id_without_the_header() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        camelProducer.send(this.message(null, "foobar"));
+        camelProducer.send(this.message(null, "foobar"));
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+        Mockito.verify(mockFooBar, Mockito.times(1)).process(Mockito.anyString());
+    }
+
+    @Test
+    public void test_failed_message_can_be_replayed() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"))
+            .thenReturn("barfoo");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        Exchange failed = camelProducer.send(this.message("id-1", "foobar"));
+        Exchange replayed = camelProducer.send(this.message("id-1", "foobar"));
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+        assertTrue(failed.isFailed());
+        assertFalse(replayed.isFailed());
+        Mockito.verify(mockFooBar, Mockito.times(2)).process(Mockito.anyString());
+    }
+
+    private Exchange message(String id, String body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getMessage().setBody(body);
+        if (id != null) {
+            exchange.getMessage().setHeader(CamelConstants.MESSAGE_ID_HEADER, id);
+        }
+        return exchange;
+    }
+}
@@ -0,0 +1,113 @@
+package codesmell.camel.idempotent;
+
+import codesmell.util.Fingerprint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapLruSetTest {
+
+    private Path snapshot;
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        if (snapshot != null) {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void test_sized_by_memory() {
+        OffHeapLruSet set = new OffHeapLruSet(1024 * 1024);
+        assertEquals(1024L * 1024, set.getMemoryBytes());
+        assertEquals(1024L * 1024 / 8, set.getCapacity());
+
+        // rounded down to a power of two number of sets
+        assertEquals(1024L * 1024, new OffHeapLruSet(1024 * 1024 + 1000).getMemoryBytes());
+    }
+
+    @Test
+    public void test_add_contains_remove() {
+        OffHeapLruSet set = new OffHeapLruSet(64 * 1024);
+        long foo = Fingerprint.of("foo");
+
+        assertFalse(set.contains(foo));
+        assertTrue(set.add(foo));
+        assertFalse(set.add(foo));
+        assertTrue(set.contains(foo));
+        assertEquals(1L, set.size());
+
+        assertTrue(set.remove(foo));
+        assertFalse(set.remove(foo));
+        assertFalse(set.contains(foo));
+        assertTrue(set.add(foo));
+
+        set.clear();
+        assertEquals(0L, set.size());
+    }
+
+    @Test
+    public void test_least_recently_used_is_dropped() {
+        // one set of 8
+        OffHeapLruSet set = new OffHeapLruSet(64);
+        for (long i = 1; i <= OffHeapLruSet.WAYS; i++) {
+            assertTrue(set.add(i));
+        }
+        // 1 is used again so 2 is now the oldest
+        assertFalse(set.add(1));
+        assertTrue(set.add(100));
+
+        assertTrue(set.contains(1));
+        assertFalse(set.contains(2));
+        assertTrue(set.contains(100));
+        assertEquals(1L, set.getEvictions());
+        assertEquals((long) OffHeapLruSet.WAYS, set.size());
+    }
+
+    @Test
+    public void test_remembers_recent_ids_past_capacity() {
+        OffHeapLruSet set = new OffHeapLruSet(64 * 1024);
+        long capacity = set.getCapacity();
+        for (int i = 0; i < capacity * 4; i++) {
+            set.add(Fingerprint.of("message-" + i));
+        }
+        // the last few are all still there
+        for (long i = capacity * 4 - 100; i < capacity * 4; i++) {
+            assertTrue(set.contains(Fingerprint.of("message-" + i)));
+        }
+        assertTrue(set.size() <= capacity);
+    }
+
+    @Test
+    public void test_snapshot() throws Exception {
+        snapshot = Files.createTempFile("idempotent", ".snapshot");
+        OffHeapLruSet set = new OffHeapLruSet(64 * 1024);
+        for (int i = 0; i < 1000; i++) {
+            set.add(Fingerprint.of("message-" + i));
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            set.writeTo(channel);
+        }
+
+        OffHeapLruSet loaded = new OffHeapLruSet(64 * 1024);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            assertTrue(loaded.readFrom(channel));
+        }
+        assertEquals(set.size(), loaded.size());
+        assertTrue(loaded.contains(Fingerprint.of("message-42")));
+
+        // a different budget doesn't fit
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            assertFalse(new OffHeapLruSet(128 * 1024).readFrom(channel));
+        }
+    }
+}
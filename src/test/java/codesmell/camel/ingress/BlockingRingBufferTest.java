@@ -0,0 +1,199 @@
+package codesmell.camel.ingress;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockingRingBufferTest {
+
+    @Test
+    public void test_closed_until_opened() {
+        List<Integer> rejected = new ArrayList<>();
+        BlockingRingBuffer<Integer> queue = new BlockingRingBuffer<>(4, rejected::add);
+        assertTrue(queue.isClosed());
+        assertFalse(queue.offer(1));
+        assertNull(queue.take());
+
+        queue.open();
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertEquals(1, queue.take());
+
+        assertTrue(queue.close());
+        assertFalse(queue.close());
+        assertFalse(queue.offer(3));
+        assertNull(queue.take());
+
+        queue.drain();
+        assertEquals(List.of(2), rejected);
+    }
+
+    @Test
+    public void test_take_waits_for_an_item() throws Exception {
+        BlockingRingBuffer<Integer> queue = new BlockingRingBuffer<>(4, item -> { });
+        queue.open();
+
+        AtomicReference<Integer> taken = new AtomicReference<>();
+        Thread consumer = new Thread(() -> taken.set(queue.take()));
+        consumer.start();
+        waitUntilParked(consumer);
+
+        assertTrue(queue.offer(7));
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertEquals(7, taken.get());
+    }
+
+    @Test
+    public void test_close_wakes_the_waiting_threads() throws Exception {
+        BlockingRingBuffer<Integer> queue = new BlockingRingBuffer<>(2, item -> { });
+        queue.open();
+        assertTrue(queue.offer(0));
+        assertTrue(queue.offer(1));
+
+        AtomicReference<Boolean> put = new AtomicReference<>();
+        Thread producer = new Thread(() -> put.set(queue.put(2)));
+        producer.start();
+        waitUntilParked(producer);
+
+        assertEquals(0, queue.take());
+        producer.join(5000);
+        // the take made room
+        assertTrue(put.get());
+
+        assertEquals(1, queue.take());
+        assertEquals(2, queue.take());
+
+        AtomicReference<Integer> taken = new AtomicReference<>(-1);
+        Thread consumer = new Thread(() -> taken.set(queue.take()));
+        consumer.start();
+        waitUntilParked(consumer);
+
+        queue.close();
+        consumer.join(5000);
+        assertFalse(consumer.isAlive());
+        assertNull(taken.get());
+    }
+
+    /**
+     * every item that was let in is either taken or rejected, exactly once,
+     * even when the producers are offering as it closes
+     */
+    @Test
+    public void test_close_while_producing() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        LongAdder rejected = new LongAdder();
+        BlockingRingBuffer<Integer> queue = new BlockingRingBuffer<>(64, item -> rejected.increment());
+        queue.open();
+
+        LongAdder accepted = new LongAdder();
+        LongAdder taken = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    if (queue.put(i)) {
+                        accepted.increment();
+                    }
+                }
+            }));
+        }
+        Thread consumer = new Thread(() -> {
+            await(start);
+            while (queue.take() != null) {
+                taken.increment();
+            }
+        });
+        threads.add(consumer);
+        threads.forEach(Thread::start);
+
+        start.countDown();
+        while (taken.sum() < perProducer) {
+            Thread.onSpinWait();
+        }
+        queue.close();
+        consumer.join(5000);
+        queue.drain();
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertTrue(accepted.sum() < producers * perProducer);
+        assertEquals(accepted.sum(), taken.sum() + rejected.sum());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void test_many_waiting_consumers() throws Exception {
+        int consumers = 4;
+        int total = 50_000;
+        BlockingRingBuffer<Integer> queue = new BlockingRingBuffer<>(8, item -> { });
+        queue.open();
+
+        ConcurrentLinkedQueue<Integer> seen = new ConcurrentLinkedQueue<>();
+        AtomicInteger remaining = new AtomicInteger(total);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < consumers; c++) {
+            Thread consumer = new Thread(() -> {
+                Integer item;
+                while ((item = queue.take()) != null) {
+                    seen.add(item);
+                    if (remaining.decrementAndGet() == 0) {
+                        done.countDown();
+                    }
+                }
+            });
+            threads.add(consumer);
+            consumer.start();
+        }
+
+        for (int i = 0; i < total; i++) {
+            assertTrue(queue.put(i));
+            if (i % 1000 == 0) {
+                // let the consumers go idle now and then
+                Thread.sleep(1);
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        queue.close();
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(total, seen.size());
+        assertEquals(total, seen.stream().distinct().count());
+    }
+
+    private static void waitUntilParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package codesmell.camel.ingress;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedRingBufferTest {
+
+    @Test
+    public void test_capacity_rounds_up() {
+        assertEquals(2, new BoundedRingBuffer<String>(1).capacity());
+        assertEquals(8, new BoundedRingBuffer<String>(5).capacity());
+        assertEquals(1024, new BoundedRingBuffer<String>(1024).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedRingBuffer<String>(0));
+    }
+
+    @Test
+    public void test_smallest_holds_no_more_than_its_capacity() {
+        BoundedRingBuffer<Integer> queue = new BoundedRingBuffer<>(1);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void test_fifo_until_full() {
+        BoundedRingBuffer<Integer> queue = new BoundedRingBuffer<>(4);
+        assertNull(queue.poll());
+        
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        // around the ring a few times
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, queue.poll());
+            assertTrue(queue.offer(i + 4));
+        }
+        for (int i = 20; i < 24; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * every item comes out exactly once
+     * no matter how the threads interleave
+     */
+    @Test
+    public void test_many_producers_many_consumers() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50_000;
+        int total = producers * perProducer;
+
+        BoundedRingBuffer<Integer> queue = new BoundedRingBuffer<>(64);
+        AtomicLongArray seen = new AtomicLongArray(total);
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(producers + consumers);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!queue.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                while (consumed.get() < total) {
+                    Integer item = queue.poll();
+                    if (item == null) {
+                        Thread.yield();
+                    } else {
+                        seen.incrementAndGet(item);
+                        consumed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        done.await();
+
+        assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "item " + i);
+        }
+    }
+}
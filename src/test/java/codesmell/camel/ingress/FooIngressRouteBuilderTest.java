@@ -0,0 +1,178 @@
+package codesmell.camel.ingress;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * messages through the ingress queue
+ * should end up the same as messages sent to direct:foo
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.ingress.enabled=true",
+        "codesmell.ingress.capacity=16",
+        "codesmell.ingress.consumers=2"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FooIngressRouteBuilderTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.INGRESS_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_successful_message_main_foo_flow() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        assertNull(exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class));
+        
+        // verify the body
+        assertEquals("barfoo", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_error_message_main_foo_flow_handled() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertFalse(exchangeOut.isFailed());
+        assertNull(exchangeOut.getException());
+        
+        Exception exception = exchangeOut.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        assertNotNull(exception);
+        assertTrue(exception instanceof FooBarException);
+        
+        // verify the body
+        assertEquals("handled_exception_foobar", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_error_message_main_foo_flow_unhandled() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        assertTrue(exchangeOut.isFailed());
+        
+        Exception exception = exchangeOut.getException();
+        assertNotNull(exception);
+        assertTrue(exception instanceof SpikeException);
+        assertEquals("boom!", exception.getMessage());
+        
+        // verify the body
+        assertEquals("unhandled_exception_foobar", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * more senders than consumers,
+     * the queue holds the rest
+     */
+    @Test
+    public void test_burst_of_messages() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        
+        int messages = 50;
+        mockOutgoingEndpoint.expectedMessageCount(messages);
+
+        for (int i = 0; i < messages; i++) {
+            camelProducer.asyncSendBody(CamelConstants.INGRESS_ENDPOINT_URI, "foobar" + i);
+        }
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+    }
+}
@@ -0,0 +1,145 @@
+package codesmell.camel.ordered;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.AsyncProducer;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.support.service.ServiceHelper;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the messages for a key go through direct:foo in order,
+ * one at a time and on the same lane
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.ordered.enabled=true",
+        "codesmell.ordered.lanes=4",
+        "codesmell.ordered.lane-capacity=64"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FooOrderedRouteBuilderTest {
+
+    private static final int KEYS = 8;
+    private static final int MESSAGES_PER_KEY = 20;
+    
+    @Autowired
+    CamelContext context;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_each_key_stays_in_order() throws Exception {
+        // key > the message numbers in the order the FooBar saw them
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<String, Set<String>> threads = new ConcurrentHashMap<>();
+        
+        Mockito.when(mockFooBar.process(Mockito.anyString())).thenAnswer(invocation -> {
+            String body = invocation.getArgument(0);
+            String[] keyAndNumber = body.split(":");
+            seen.computeIfAbsent(keyAndNumber[0], key -> Collections.synchronizedList(new ArrayList<>()))
+                .add(Integer.valueOf(keyAndNumber[1]));
+            threads.computeIfAbsent(keyAndNumber[0], key -> ConcurrentHashMap.newKeySet())
+                .add(Thread.currentThread().getName());
+            
+            // long enough for the lanes to overlap
+            TimeUnit.MILLISECONDS.sleep(1);
+            if ("key-3:10".equals(body)) {
+                throw new SpikeException("boom!");
+            }
+            return body;
+        });
+
+        List<CompletableFuture<Exchange>> sent = this.sendAll();
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        for (int key = 0; key < KEYS; key++) {
+            List<Integer> numbers = seen.get("key-" + key);
+            assertEquals(MESSAGES_PER_KEY, numbers.size());
+            for (int i = 0; i < MESSAGES_PER_KEY; i++) {
+                assertEquals(i, numbers.get(i).intValue());
+            }
+            assertEquals(1, threads.get("key-" + key).size());
+        }
+
+        // only the one message failed, its lane carried on
+        for (CompletableFuture<Exchange> future : sent) {
+            Exchange exchange = future.get();
+            if ("key-3:10".equals(exchange.getProperty("sentBody"))) {
+                assertTrue(exchange.isFailed());
+                assertTrue(exchange.getException() instanceof SpikeException);
+            } else {
+                assertFalse(exchange.isFailed());
+            }
+        }
+    }
+
+    /**
+     * the messages are put on the lanes in the order they are sent,
+     * the send only waits until the message is on its lane
+     */
+    private List<CompletableFuture<Exchange>> sendAll() throws Exception {
+        AsyncProducer producer = context.getEndpoint(CamelConstants.ORDERED_ENDPOINT_URI).createAsyncProducer();
+        ServiceHelper.startService(producer);
+        
+        List<CompletableFuture<Exchange>> sent = new ArrayList<>();
+        for (int i = 0; i < MESSAGES_PER_KEY; i++) {
+            for (int key = 0; key < KEYS; key++) {
+                String body = "key-" + key + ":" + i;
+                Exchange exchange = new DefaultExchange(context);
+                exchange.getMessage().setBody(body);
+                exchange.getMessage().setHeader(CamelConstants.ORDER_KEY_HEADER, "key-" + key);
+                exchange.setProperty("sentBody", body);
+                sent.add(producer.processAsync(exchange));
+            }
+        }
+        return sent;
+    }
+}
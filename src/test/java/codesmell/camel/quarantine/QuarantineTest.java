@@ -0,0 +1,220 @@
+package codesmell.camel.quarantine;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.CircuitBreakerOpenException;
+import codesmell.exception.FooBarException;
+import codesmell.exception.QuarantinedMessageException;
+import codesmell.exception.SpikeException;
+import codesmell.exception.TransientServiceException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import codesmell.util.Fingerprint;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * a body that failed unhandled fails straight away
+ * for the cool-off
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.quarantine.enabled=true",
+        "codesmell.quarantine.cool-off-ms=200"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QuarantineTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private Quarantine quarantine;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_unhandled_failure_is_quarantined() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"));
+        
+        Exchange first = camelProducer.send(this.message("foobar"));
+        assertTrue(first.getException() instanceof SpikeException);
+        assertFalse(first.getException() instanceof QuarantinedMessageException);
+        assertTrue(quarantine.isQuarantined("foobar"));
+        
+        // the same outcome without the call
+        Exchange second = camelProducer.send(this.message("foobar"));
+        assertTrue(second.isFailed());
+        assertTrue(second.getException() instanceof QuarantinedMessageException);
+        assertEquals("unhandled_exception_foobar", second.getMessage().getBody(String.class));
+        
+        Mockito.verify(mockFooBar, Mockito.times(1)).process(Mockito.anyString());
+        assertEquals(1L, quarantine.getShortCircuits());
+        
+        // other bodies go through
+        camelProducer.send(this.message("barfoo"));
+        Mockito.verify(mockFooBar, Mockito.times(2)).process(Mockito.anyString());
+    }
+
+    @Test
+    public void test_cool_off_ends() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"))
+            .thenReturn("barfoo");
+        
+        camelProducer.send(this.message("foobar"));
+        assertTrue(quarantine.isQuarantined("foobar"));
+        
+        Thread.sleep(250);
+        Exchange later = camelProducer.send(this.message("foobar"));
+        
+        assertFalse(later.isFailed());
+        assertFalse(quarantine.isQuarantined("foobar"));
+        Mockito.verify(mockFooBar, Mockito.times(2)).process(Mockito.anyString());
+    }
+
+    @Test
+    public void test_handled_failure_is_not_quarantined() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"));
+        
+        Exchange handled = camelProducer.send(this.message("foobar"));
+        
+        assertFalse(handled.isFailed());
+        assertFalse(quarantine.isQuarantined("foobar"));
+        assertEquals(0, quarantine.size());
+    }
+
+    @Test
+    public void test_transient_failure_is_not_quarantined() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("try again"));
+        
+        Exchange failed = camelProducer.send(this.message("foobar"));
+        
+        assertTrue(failed.isFailed());
+        assertTrue(failed.getException() instanceof TransientServiceException);
+        assertFalse(quarantine.isQuarantined("foobar"));
+        assertEquals(0, quarantine.size());
+    }
+
+    @Test
+    public void test_only_the_message_failures_are_poison() {
+        assertTrue(Quarantine.isPoison(new SpikeException("boom!"), null));
+        assertTrue(Quarantine.isPoison(new SpikeException("boom!"), new SpikeException("boom!")));
+        // the FooBarException handler rethrew
+        assertTrue(Quarantine.isPoison(new SpikeException("still can't handle the message"), 
+            new FooBarException("boom!")));
+        
+        assertFalse(Quarantine.isPoison(null, null));
+        assertFalse(Quarantine.isPoison(new FooBarException("boom!"), null));
+        assertFalse(Quarantine.isPoison(new QuarantinedMessageException("the message is quarantined"), null));
+        assertFalse(Quarantine.isPoison(new CircuitBreakerOpenException("open"), null));
+        assertFalse(Quarantine.isPoison(new TransientServiceException("try again"), null));
+        assertFalse(Quarantine.isPoison(new RejectedExecutionException("ingress queue is full"), null));
+    }
+
+    @Test
+    public void test_spike_thrown_for_a_service_failure_is_not_poison() {
+        SpikeException rethrown = new SpikeException("still can't handle the message");
+        
+        assertFalse(Quarantine.isPoison(rethrown, new TransientServiceException("try again")));
+        assertFalse(Quarantine.isPoison(rethrown, new CircuitBreakerOpenException("open")));
+        assertFalse(Quarantine.isPoison(rethrown, new RejectedExecutionException("ingress queue is full")));
+    }
+
+    @Test
+    public void test_full_quarantine_drops_the_oldest() {
+        Quarantine bounded = new Quarantine();
+        ReflectionTestUtils.setField(bounded, "maxEntries", 3);
+        ReflectionTestUtils.setField(bounded, "coolOffMillis", 10_000L);
+        
+        for (String body : List.of("one", "two", "three", "four")) {
+            bounded.quarantine(Fingerprint.of(body));
+        }
+        
+        assertEquals(3, bounded.size());
+        assertFalse(bounded.isQuarantined("one"));
+        assertTrue(bounded.isQuarantined("two"));
+        assertTrue(bounded.isQuarantined("four"));
+    }
+
+    @Test
+    public void test_expired_entries_are_swept() throws Exception {
+        Quarantine bounded = new Quarantine();
+        ReflectionTestUtils.setField(bounded, "maxEntries", 100);
+        ReflectionTestUtils.setField(bounded, "coolOffMillis", 50L);
+        
+        bounded.quarantine(Fingerprint.of("one"));
+        bounded.quarantine(Fingerprint.of("two"));
+        Thread.sleep(60);
+        bounded.quarantine(Fingerprint.of("three"));
+        
+        assertEquals(1, bounded.size());
+        assertTrue(bounded.isQuarantined("three"));
+    }
+
+    @Test
+    public void test_configurator_route_is_quarantined() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"));
+        
+        camelProducer.send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, this.message("foobar"));
+        Exchange second = camelProducer.send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, this.message("foobar"));
+        
+        assertTrue(second.getException() instanceof QuarantinedMessageException);
+        assertEquals("unhandled_spike_exception_foobar", second.getMessage().getBody(String.class));
+        Mockito.verify(mockFooBar, Mockito.times(1)).process(Mockito.anyString());
+    }
+
+    private Exchange message(String body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getMessage().setBody(body);
+        return exchange;
+    }
+}
@@ -0,0 +1,148 @@
+package codesmell.camel.retry;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.TransientServiceException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * transient failures from the sub routes are redelivered
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.retry.max=2",
+        "codesmell.retry.delay-ms=1",
+        "codesmell.retry.max-delay-ms=5"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RetryPolicyTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_heisenbug_goes_away() throws Exception {
+        Mockito.when(mockHeisenBugger.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("now you see me"))
+            .thenReturn("now you don't");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("heisenbug");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        Mockito.verify(mockHeisenBugger, Mockito.times(2)).process(Mockito.anyString());
+        
+        assertFalse(exchangeOut.isFailed());
+        assertEquals("now you don't", exchangeOut.getMessage().getBody(String.class));
+        assertEquals(1, retryPolicy.getRetries());
+    }
+
+    @Test
+    public void test_heisenbug_stays() throws Exception {
+        Mockito.when(mockHeisenBugger.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("now you see me"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("heisenbug");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        // the first attempt and two retries
+        Mockito.verify(mockHeisenBugger, Mockito.times(3)).process(Mockito.anyString());
+        
+        // fails back to the caller like any other heisenbug failure
+        assertTrue(exchangeOut.isFailed());
+        assertTrue(exchangeOut.getException() instanceof TransientServiceException);
+        assertEquals("heisenbug", exchangeOut.getMessage().getBody(String.class));
+    }
+
+    /**
+     * the grok sub route has no error handler
+     * so the main route sends it to grok again
+     */
+    @Test
+    public void test_grok_retried_from_main_route() throws Exception {
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenThrow(new TransientServiceException("grok blinked"))
+            .thenReturn("you grokked me");
+        
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("grok");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        Mockito.verify(mockGrokker, Mockito.times(2)).process(Mockito.anyString());
+        
+        assertFalse(exchangeOut.isFailed());
+        assertEquals("you grokked me", exchangeOut.getMessage().getBody(String.class));
+    }
+}
@@ -2,6 +2,7 @@ package codesmell.camel.routeconfig;
 
 import codesmell.camel.CamelConstants;
 import codesmell.exception.FooBarException;
+import codesmell.exception.GrokException;
 import codesmell.exception.SpikeException;
 import codesmell.mock.config.MockApplicationConfig;
 import codesmell.service.FooBar;
@@ -285,4 +286,38 @@ class CamelExceptionWithConfiguratorRouteBuilderTest {
         assertEquals("unhandled_spike_exception_grok", outBody);
     }
 
+    /**
+     * no shared config handles a GrokException here
+     * so it fails with the default error handler
+     * and the body is left alone
+     */
+    @Test
+    public void test_grok_exception_grok_flow_unhandled() throws Exception {
+
+        // simulate exception during route processing
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenThrow(new GrokException("grok with configurator went boom w/ grok exception!"));
+        
+        mockOutgoingEndpoint.expectedMessageCount(0);
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("grok");
+        
+        // put test data on the route
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+
+        // check that all routes processed as expected
+        mockOutgoingEndpoint.assertIsSatisfied();
+        
+        // checking the exceptions
+        Exception ex = CamelExceptionAssert.assertUnhandledExceptionIsFound(exchangeOut);
+        assertTrue(ex instanceof GrokException);
+        assertEquals("grok with configurator went boom w/ grok exception!", ex.getMessage());
+        
+        // verify the body
+        String outBody = exchangeOut.getMessage().getBody(String.class);
+        assertEquals("grok", outBody);
+    }
+
 }
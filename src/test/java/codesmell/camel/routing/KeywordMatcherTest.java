@@ -0,0 +1,58 @@
+package codesmell.camel.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = new KeywordMatcher("grok", "heisenbug");
+
+    @Test
+    public void test_single_keyword() {
+        assertEquals("grok", matcher.findKeyword("grok"));
+        assertEquals("heisenbug", matcher.findKeyword("a heisenbug appeared"));
+    }
+
+    @Test
+    public void test_no_keyword() {
+        assertNull(matcher.findKeyword("foobar"));
+        assertNull(matcher.findKeyword("gro"));
+        assertNull(matcher.findKeyword("heisenbu"));
+        assertNull(matcher.findKeyword(""));
+        assertEquals(KeywordMatcher.NO_MATCH, matcher.find("foobar"));
+    }
+
+    /**
+     * the same as checking grok before heisenbug
+     */
+    @Test
+    public void test_first_keyword_wins() {
+        assertEquals("grok", matcher.findKeyword("heisenbug then grok"));
+        assertEquals("grok", matcher.findKeyword("grok then heisenbug"));
+    }
+
+    @Test
+    public void test_overlapping_keywords() {
+        KeywordMatcher overlapping = new KeywordMatcher("hers", "she", "he");
+        assertEquals("hers", overlapping.findKeyword("ushers"));
+        assertEquals("she", overlapping.findKeyword("ushe"));
+        assertEquals("he", overlapping.findKeyword("the"));
+        assertEquals("grok", matcher.findKeyword("ggrok"));
+    }
+
+    @Test
+    public void test_non_ascii_keyword() {
+        KeywordMatcher unicode = new KeywordMatcher("café", "cafe");
+        assertEquals("café", unicode.findKeyword("un café s'il vous plaît"));
+        assertEquals("cafe", unicode.findKeyword("cafeteria"));
+    }
+
+    @Test
+    public void test_empty_keyword_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KeywordMatcher("grok", ""));
+        assertThrows(IllegalArgumentException.class, () -> new KeywordMatcher());
+    }
+}
@@ -0,0 +1,143 @@
+package codesmell.camel.service;
+
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.service.BatchResult;
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatchProcessorTest {
+
+    private CamelContext context;
+    private MicroBatchProcessor processor;
+
+    // each batch call made
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        context = new DefaultCamelContext();
+        context.start();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (processor != null) {
+            processor.stop();
+        }
+        context.stop();
+    }
+
+    @Test
+    public void test_sent_when_the_batch_is_full() throws Exception {
+        this.start(3, 60_000, incoming -> BatchResult.each(incoming, in -> in + "!"));
+
+        CompletableFuture<String> first = processor.submit("a");
+        CompletableFuture<String> second = processor.submit("b");
+        assertFalse(first.isDone());
+        assertTrue(batches.isEmpty());
+
+        // the caller that fills the batch sends it
+        CompletableFuture<String> third = processor.submit("c");
+        assertTrue(third.isDone());
+        assertEquals("a!", first.getNow(null));
+        assertEquals("b!", second.getNow(null));
+        assertEquals("c!", third.getNow(null));
+        assertEquals(List.of(List.of("a", "b", "c")), batches);
+    }
+
+    @Test
+    public void test_sent_when_the_window_is_over() throws Exception {
+        this.start(100, 20, incoming -> BatchResult.each(incoming, in -> in + "!"));
+
+        long start = System.nanoTime();
+        CompletableFuture<String> first = processor.submit("a");
+        CompletableFuture<String> second = processor.submit("b");
+
+        assertEquals("a!", first.get(5, TimeUnit.SECONDS));
+        assertEquals("b!", second.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(List.of(List.of("a", "b")), batches);
+
+        // the next one starts a new window
+        assertEquals("c!", processor.submit("c").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), batches);
+    }
+
+    @Test
+    public void test_whole_call_failing_fails_every_message() throws Exception {
+        this.start(2, 60_000, incoming -> {
+            throw new SpikeException("the batch went boom!");
+        });
+
+        CompletableFuture<String> first = processor.submit("a");
+        CompletableFuture<String> second = processor.submit("b");
+
+        assertEquals(SpikeException.class, this.failureOf(first).getClass());
+        assertEquals("the batch went boom!", this.failureOf(second).getMessage());
+    }
+
+    @Test
+    public void test_wrong_result_count_fails_every_message() throws Exception {
+        this.start(2, 60_000, incoming -> List.of(BatchResult.success("only one")));
+
+        CompletableFuture<String> first = processor.submit("a");
+        CompletableFuture<String> second = processor.submit("b");
+
+        assertEquals(IllegalStateException.class, this.failureOf(first).getClass());
+        assertEquals(IllegalStateException.class, this.failureOf(second).getClass());
+    }
+
+    @Test
+    public void test_each_message_gets_its_own_result() throws Exception {
+        this.start(3, 60_000, incoming -> List.of(
+            BatchResult.success("barfoo"),
+            BatchResult.failure(new FooBarException("foo went boom!")),
+            BatchResult.failure(new SpikeException("spike went boom!"))));
+
+        CompletableFuture<String> ok = processor.submit("ok");
+        CompletableFuture<String> foo = processor.submit("foo");
+        CompletableFuture<String> spike = processor.submit("spike");
+
+        assertEquals("barfoo", ok.get(5, TimeUnit.SECONDS));
+        assertEquals(FooBarException.class, this.failureOf(foo).getClass());
+        assertEquals(SpikeException.class, this.failureOf(spike).getClass());
+    }
+
+    @Test
+    public void test_stop_sends_what_is_waiting() throws Exception {
+        this.start(100, 60_000, incoming -> BatchResult.each(incoming, in -> in + "!"));
+
+        CompletableFuture<String> waiting = processor.submit("a");
+        processor.stop();
+
+        assertEquals("a!", waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    private void start(int batchSize, long windowMillis, Function<List<String>, List<BatchResult>> batchCall) {
+        processor = new MicroBatchProcessor("test", incoming -> {
+            batches.add(List.copyOf(incoming));
+            return batchCall.apply(incoming);
+        }, batchSize, windowMillis, context);
+        processor.start();
+    }
+
+    private Throwable failureOf(CompletableFuture<String> result) {
+        return assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause();
+    }
+}
@@ -0,0 +1,137 @@
+package codesmell.camel.service;
+
+import codesmell.exception.FooBarException;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServiceCallProcessorTest {
+
+    private CamelContext context;
+    private ExecutorService completer;
+    private AsyncServiceProcessor processor;
+
+    @BeforeEach
+    public void setup() {
+        context = new DefaultCamelContext();
+        context.start();
+        completer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "completer"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (processor != null) {
+            processor.stop();
+        }
+        completer.shutdownNow();
+        context.stop();
+    }
+
+    @Test
+    public void test_completed_result_continues_on_the_caller() throws Exception {
+        this.start(in -> CompletableFuture.completedFuture("barfoo"));
+
+        Exchange exchange = this.exchange("foobar");
+        AtomicReference<Boolean> doneSync = new AtomicReference<>();
+        assertTrue(processor.process(exchange, doneSync::set));
+
+        assertTrue(doneSync.get());
+        assertEquals("barfoo", exchange.getMessage().getBody(String.class));
+        assertNull(exchange.getException());
+    }
+
+    @Test
+    public void test_thrown_exception_is_set_on_the_exchange() throws Exception {
+        this.start(in -> {
+            throw new FooBarException("boom!");
+        });
+
+        Exchange exchange = this.exchange("foobar");
+        assertTrue(processor.process(exchange, doneSync -> { }));
+
+        assertTrue(exchange.getException() instanceof FooBarException);
+        assertEquals("boom!", exchange.getException().getMessage());
+    }
+
+    @Test
+    public void test_failed_result_is_set_as_the_original_exception() throws Exception {
+        this.start(
+            in -> CompletableFuture.supplyAsync(() -> {
+                throw new FooBarException("boom!");
+            }, completer));
+
+        Exchange exchange = this.exchange("foobar");
+        CountDownLatch done = new CountDownLatch(1);
+        processor.process(exchange, doneSync -> done.countDown());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(exchange.getException() instanceof FooBarException);
+        assertEquals("boom!", exchange.getException().getMessage());
+    }
+
+    @Test
+    public void test_camel_thread_is_released_while_the_call_is_in_flight() throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        this.start(in -> result);
+
+        Exchange exchange = this.exchange("foobar");
+        AtomicReference<String> continuedOn = new AtomicReference<>();
+        AtomicReference<Boolean> doneSync = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        // returns straight away rather than waiting for the result
+        assertFalse(processor.process(exchange, sync -> {
+            doneSync.set(sync);
+            continuedOn.set(Thread.currentThread().getName());
+            done.countDown();
+        }));
+        assertEquals(1, done.getCount());
+        assertEquals("foobar", exchange.getMessage().getBody(String.class));
+
+        completer.execute(() -> result.complete("barfoo"));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(doneSync.get());
+        assertEquals("completer", continuedOn.get());
+        assertEquals("barfoo", exchange.getMessage().getBody(String.class));
+    }
+
+    @Test
+    public void test_unwrap() {
+        FooBarException cause = new FooBarException("boom!");
+
+        assertEquals(cause, ServiceCallProcessor.unwrap(new CompletionException(cause)));
+        assertEquals(cause, ServiceCallProcessor.unwrap(new ExecutionException(cause)));
+        assertEquals(cause, ServiceCallProcessor.unwrap(cause));
+    }
+
+    private void start(Function<String, CompletionStage<String>> call) {
+        processor = new AsyncServiceProcessor("test", call, context);
+        processor.start();
+    }
+
+    private Exchange exchange(String body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getMessage().setBody(body);
+        return exchange;
+    }
+}
@@ -0,0 +1,48 @@
+package codesmell.camel.service;
+
+import codesmell.service.FooBar;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Processor;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServiceStepFactoryTest {
+
+    private final CamelContext context = new DefaultCamelContext();
+
+    private final FooBar fooBar = Mockito.mock(FooBar.class);
+
+    @Test
+    public void test_sync_by_default() {
+        Processor step = this.factory(1, false).build("fooBar", fooBar, context);
+
+        assertFalse(step instanceof ServiceCallProcessor);
+    }
+
+    @Test
+    public void test_async() {
+        Processor step = this.factory(1, true).build("fooBar", fooBar, context);
+
+        assertTrue(step instanceof AsyncServiceProcessor);
+    }
+
+    @Test
+    public void test_batch_wins_over_async() {
+        Processor step = this.factory(8, true).build("fooBar", fooBar, context);
+
+        assertTrue(step instanceof MicroBatchProcessor);
+    }
+
+    private ServiceStepFactory factory(int batchSize, boolean async) {
+        ServiceStepFactory factory = new ServiceStepFactory();
+        ReflectionTestUtils.setField(factory, "batchSize", batchSize);
+        ReflectionTestUtils.setField(factory, "batchWindowMillis", 10L);
+        ReflectionTestUtils.setField(factory, "async", async);
+        return factory;
+    }
+}
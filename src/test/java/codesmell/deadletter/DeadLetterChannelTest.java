@@ -0,0 +1,176 @@
+package codesmell.deadletter;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.EndpointInject;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the unhandled exchanges are journaled and can be replayed
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.deadletter.enabled=true",
+        "codesmell.deadletter.directory=target/deadletter-test",
+        "codesmell.deadletter.segment-size-mb=1"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class DeadLetterChannelTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @EndpointInject(CamelConstants.MAIN_OUTGOING_ENDPOINT_URI)
+    private MockEndpoint mockOutgoingEndpoint;
+
+    @Autowired
+    private DeadLetterChannel deadLetterChannel;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_unhandled_exchange_is_journaled_and_replayed() throws Exception {
+        DeadLetterJournal journal = deadLetterChannel.getJournal();
+        long from = journal.getLastSequence() + 1;
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"))
+            .thenReturn("foobar");
+        
+        // setup the test data
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        exchangeIn.getMessage().setHeader("orderId", "42");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        assertTrue(exchangeOut.isFailed());
+
+        List<DeadLetter> letters = this.waitFor(journal, from);
+        assertEquals(1, letters.size());
+        
+        // what came in, not the error body
+        DeadLetter letter = letters.get(0);
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, letter.getRouteId());
+        assertEquals(SpikeException.class.getName(), letter.getExceptionClass());
+        assertEquals("boom!", letter.getExceptionMessage());
+        assertEquals("foobar", letter.getBody());
+        assertEquals("42", letter.getHeaders().get("orderId"));
+
+        // the second time it goes through
+        mockOutgoingEndpoint.expectedMessageCount(1);
+        mockOutgoingEndpoint.expectedHeaderReceived(CamelConstants.REPLAY_OF_HEADER, letter.getSequence());
+        
+        DeadLetterReplayer.ReplayResult result = new DeadLetterReplayer(journal, camelProducer)
+            .replay(CamelConstants.MAIN_ENDPOINT_URI, from, 10, 100);
+        
+        mockOutgoingEndpoint.assertIsSatisfied();
+        assertEquals(1, result.getReplayed());
+        assertEquals(0, result.getFailed());
+        assertEquals(letter.getSequence(), result.getLastSequence());
+    }
+
+    @Test
+    public void test_failing_again_is_replayed_once() throws Exception {
+        DeadLetterJournal journal = deadLetterChannel.getJournal();
+        long from = journal.getLastSequence() + 1;
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"));
+        
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        assertTrue(camelProducer.send(exchangeIn).isFailed());
+
+        List<DeadLetter> letters = this.waitFor(journal, from);
+        assertEquals(1, letters.size());
+        long first = letters.get(0).getSequence();
+
+        DeadLetterReplayer.ReplayResult result = new DeadLetterReplayer(journal, camelProducer)
+            .replay(CamelConstants.MAIN_ENDPOINT_URI, from, 10, 0);
+        
+        // the letter journaled by the replay is left for the next one
+        assertEquals(0, result.getReplayed());
+        assertEquals(1, result.getFailed());
+        assertEquals(first, result.getLastSequence());
+        Mockito.verify(mockFooBar, Mockito.times(2)).process(Mockito.anyString());
+
+        List<DeadLetter> again = this.waitFor(journal, first + 1);
+        assertEquals(1, again.size());
+        assertEquals("foobar", again.get(0).getBody());
+    }
+
+    @Test
+    public void test_handled_exchange_is_not_journaled() throws Exception {
+        DeadLetterJournal journal = deadLetterChannel.getJournal();
+        long from = journal.getLastSequence() + 1;
+
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("foobar");
+        
+        Exchange exchangeIn = new DefaultExchange(context);
+        exchangeIn.getMessage().setBody("foobar");
+        
+        Exchange exchangeOut = camelProducer.send(exchangeIn);
+        assertFalse(exchangeOut.isFailed());
+
+        assertTrue(journal.read(from, 10).isEmpty());
+    }
+
+    private List<DeadLetter> waitFor(DeadLetterJournal journal, long from) throws Exception {
+        // the group commit is on another thread
+        long deadline = System.currentTimeMillis() + 5000;
+        List<DeadLetter> letters = journal.read(from, 10);
+        while (letters.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            letters = journal.read(from, 10);
+        }
+        return letters;
+    }
+}
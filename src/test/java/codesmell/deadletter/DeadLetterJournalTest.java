@@ -0,0 +1,228 @@
+package codesmell.deadletter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadLetterJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private final List<DeadLetterJournal> journals = new ArrayList<>();
+    private Path directory;
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        journals.forEach(DeadLetterJournal::close);
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void test_append_and_read() throws Exception {
+        DeadLetterJournal journal = this.open(16);
+
+        long sequence = journal.append(123L, "fooRoute", "codesmell.exception.SpikeException", 
+            "boom", "error", Map.of("key", "value")).get();
+        journal.append(456L, "fooConfigRoute", "codesmell.exception.GrokException", 
+            null, null, null).get();
+
+        assertEquals(0L, sequence);
+        assertEquals(1L, journal.getLastSequence());
+
+        List<DeadLetter> letters = journal.read(0, 10);
+        assertEquals(2, letters.size());
+
+        DeadLetter first = letters.get(0);
+        assertEquals(0L, first.getSequence());
+        assertEquals(123L, first.getTimestamp());
+        assertEquals("fooRoute", first.getRouteId());
+        assertEquals("codesmell.exception.SpikeException", first.getExceptionClass());
+        assertEquals("boom", first.getExceptionMessage());
+        assertEquals("error", first.getBody());
+        assertEquals("value", first.getHeaders().get("key"));
+
+        DeadLetter second = letters.get(1);
+        assertEquals(1L, second.getSequence());
+        assertNull(second.getExceptionMessage());
+        assertNull(second.getBody());
+        assertTrue(second.getHeaders().isEmpty());
+
+        assertEquals(1, journal.read(1, 10).size());
+        assertEquals(1, journal.read(0, 1).size());
+        assertEquals(0, journal.read(2, 10).size());
+    }
+
+    @Test
+    public void test_rolls_segments_and_drops_the_oldest() throws Exception {
+        DeadLetterJournal journal = this.open(3);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(journal.append(i, "fooRoute", "codesmell.exception.SpikeException", 
+                "boom", "body-" + i, Map.of()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+        assertEquals(199L, journal.getLastSequence());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3L, files.count());
+        }
+
+        // the early records went with the deleted segments
+        long first = journal.getFirstSequence();
+        assertTrue(first > 0);
+        List<DeadLetter> letters = journal.read(0, 1000);
+        assertEquals(200 - first, (long) letters.size());
+        for (int i = 0; i < letters.size(); i++) {
+            assertEquals(first + i, letters.get(i).getSequence());
+            assertEquals("body-" + (first + i), letters.get(i).getBody());
+        }
+    }
+
+    @Test
+    public void test_reopen_carries_on_the_sequence() throws Exception {
+        DeadLetterJournal journal = this.open(16);
+        for (int i = 0; i < 50; i++) {
+            journal.append(i, "fooRoute", "codesmell.exception.SpikeException", "boom", "body-" + i, null);
+        }
+        journal.append(50, "fooRoute", "codesmell.exception.SpikeException", "boom", "body-50", null).get();
+        journal.close();
+
+        DeadLetterJournal reopened = this.open(16);
+        assertEquals(50L, reopened.getLastSequence());
+
+        long sequence = reopened.append(51, "fooRoute", "codesmell.exception.SpikeException", 
+            "boom", "body-51", null).get();
+        assertEquals(51L, sequence);
+
+        List<DeadLetter> letters = reopened.read(0, 1000);
+        assertEquals(52, letters.size());
+        assertEquals("body-51", letters.get(51).getBody());
+    }
+
+    @Test
+    public void test_closed_journal_fails_the_append() throws Exception {
+        DeadLetterJournal journal = this.open(16);
+        journal.close();
+
+        CompletableFuture<Long> future = journal.append(0, "fooRoute", null, null, "body", null);
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    /**
+     * an append that got in as the journal closed is either written or failed,
+     * never left waiting
+     */
+    @Test
+    public void test_append_as_it_closes() throws Exception {
+        DeadLetterJournal journal = this.open(1000);
+        
+        List<CompletableFuture<Long>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                CompletableFuture<Long> future;
+                do {
+                    future = journal.append(0, "fooRoute", null, null, "body", null);
+                    futures.add(future);
+                } while (!future.isCompletedExceptionally());
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        started.await();
+        Thread.sleep(20);
+        journal.close();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        long written = 0;
+        for (CompletableFuture<Long> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                written++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(written, journal.getAppended());
+        assertEquals(written - 1, journal.getLastSequence());
+    }
+
+    /**
+     * a batch is only reported as written once it is forced to disk
+     */
+    @Test
+    public void test_failed_force_fails_the_whole_batch() throws Exception {
+        directory = Files.createTempDirectory("deadletters");
+        AtomicBoolean failing = new AtomicBoolean(true);
+        DeadLetterJournal journal = new DeadLetterJournal(directory, SEGMENT_SIZE, 16, 64, 1024) {
+            @Override
+            void force(MappedByteBuffer segment) {
+                if (failing.get()) {
+                    throw new UncheckedIOException(new IOException("disk gone"));
+                }
+                super.force(segment);
+            }
+        };
+        journal.open();
+        journals.add(journal);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(journal.append(i, "fooRoute", null, null, "lost-" + i, null));
+        }
+        for (CompletableFuture<Long> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+        assertEquals(-1L, journal.getLastSequence());
+        assertEquals(0L, journal.getAppended());
+        assertEquals(0L, journal.getCommits());
+
+        failing.set(false);
+        assertEquals(0L, journal.append(0, "fooRoute", null, null, "kept", null).get());
+
+        List<DeadLetter> letters = journal.read(0, 10);
+        assertEquals(1, letters.size());
+        assertEquals("kept", letters.get(0).getBody());
+    }
+
+    private DeadLetterJournal open(int maxSegments) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("deadletters");
+        }
+        DeadLetterJournal journal = new DeadLetterJournal(directory, SEGMENT_SIZE, maxSegments, 64, 1024);
+        journal.open();
+        journals.add(journal);
+        return journal;
+    }
+}
@@ -0,0 +1,82 @@
+package codesmell.exception;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExceptionModeTest {
+
+    @AfterEach
+    public void cleanup() {
+        ExceptionMode.setCurrent(ExceptionMode.FULL);
+    }
+
+    @Test
+    public void test_parse() {
+        assertEquals(ExceptionMode.FULL, ExceptionMode.parse(null));
+        assertEquals(ExceptionMode.FULL, ExceptionMode.parse(" "));
+        assertEquals(ExceptionMode.STACKLESS, ExceptionMode.parse(" stackless "));
+        assertEquals(ExceptionMode.FLYWEIGHT, ExceptionMode.parse("FLYWEIGHT"));
+        
+        // a typo falls back instead of failing the class
+        assertEquals(ExceptionMode.FULL, ExceptionMode.parse("flyweigth"));
+    }
+
+    @Test
+    public void test_full() {
+        ExceptionMode.setCurrent(ExceptionMode.FULL);
+        
+        SpikeException first = SpikeException.of("boom!");
+        SpikeException second = SpikeException.of("boom!");
+        
+        assertNotSame(first, second);
+        assertTrue(first.getStackTrace().length > 0);
+        
+        // nothing stops a cause being added later
+        IllegalStateException cause = new IllegalStateException("why");
+        first.initCause(cause);
+        assertSame(cause, first.getCause());
+    }
+
+    @Test
+    public void test_stackless() {
+        ExceptionMode.setCurrent(ExceptionMode.STACKLESS);
+        
+        FooBarException first = FooBarException.of("boom!");
+        FooBarException second = FooBarException.of("boom!");
+        
+        assertNotSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals("boom!", first.getMessage());
+        
+        // built without a cause so it can't be given one
+        assertThrows(IllegalStateException.class, () -> first.initCause(new IllegalStateException("why")));
+    }
+
+    @Test
+    public void test_flyweight() {
+        ExceptionMode.setCurrent(ExceptionMode.FLYWEIGHT);
+        
+        GrokException first = GrokException.of("boom!");
+        GrokException second = GrokException.of("boom!");
+        
+        assertSame(first, second);
+        assertNotSame(first, GrokException.of("another boom!"));
+        assertEquals(0, first.getStackTrace().length);
+        
+        // what one exchange adds must not show up on the next
+        first.initCause(new IllegalStateException("why"));
+        first.addSuppressed(new IllegalStateException("also"));
+        first.setStackTrace(new Throwable().getStackTrace());
+        
+        assertNull(second.getCause());
+        assertEquals(0, second.getSuppressed().length);
+        assertEquals(0, second.getStackTrace().length);
+    }
+}
@@ -0,0 +1,35 @@
+package codesmell.flightrecorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeStepsTest {
+
+    @Test
+    public void test_steps_oldest_first() {
+        ExchangeSteps steps = new ExchangeSteps(8);
+        assertTrue(steps.list().isEmpty());
+
+        steps.record("fooRoute", "process[one]", 1_000);
+        steps.record("grokRoute", "to[two]", 4_000);
+
+        assertEquals(List.of("+0us fooRoute process[one]", "+3us grokRoute to[two]"), steps.list());
+    }
+
+    @Test
+    public void test_only_the_last_steps_kept() {
+        ExchangeSteps steps = new ExchangeSteps(4);
+        for (int i = 0; i < 10; i++) {
+            steps.record("fooRoute", "step" + i, i * 1_000L);
+        }
+
+        List<String> found = steps.list();
+        assertEquals(4, found.size());
+        assertEquals("+0us fooRoute step6", found.get(0));
+        assertEquals("+3us fooRoute step9", found.get(3));
+    }
+}
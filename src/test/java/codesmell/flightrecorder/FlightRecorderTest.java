@@ -0,0 +1,150 @@
+package codesmell.flightrecorder;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * the exchanges leave JFR events
+ * and the unhandled ones their last steps
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.flightrecorder.enabled=true"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FlightRecorderTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce(CamelConstants.MAIN_ENDPOINT_URI)
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_unhandled_exchange_is_recorded() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new SpikeException("boom!"));
+
+        List<RecordedEvent> events = this.record(() -> {
+            Exchange exchangeIn = new DefaultExchange(context);
+            exchangeIn.getMessage().setBody("foobar");
+            assertTrue(camelProducer.send(exchangeIn).isFailed());
+        });
+
+        RecordedEvent exchange = this.only(events, "codesmell.Exchange");
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, exchange.getString("routeId"));
+        assertEquals(SpikeException.class.getName(), exchange.getString("exceptionClass"));
+        assertTrue(exchange.getBoolean("failed"));
+        assertFalse(exchange.getBoolean("handled"));
+
+        RecordedEvent route = this.only(events, "codesmell.Route");
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, route.getString("routeId"));
+
+        RecordedEvent onException = this.only(events, "codesmell.OnException");
+        assertEquals(CamelConstants.MAIN_ROUTE_ID, onException.getString("routeId"));
+        assertEquals(SpikeException.class.getName(), onException.getString("exceptionClass"));
+        assertFalse(onException.getBoolean("handled"));
+
+        RecordedEvent failure = this.only(events, "codesmell.UnhandledFailure");
+        assertEquals(exchange.getString("exchangeId"), failure.getString("exchangeId"));
+        assertTrue(failure.getString("steps").contains(CamelConstants.MAIN_ROUTE_ID));
+    }
+
+    @Test
+    public void test_completed_exchange_has_no_steps() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("foobar");
+
+        List<RecordedEvent> events = this.record(() -> {
+            Exchange exchangeIn = new DefaultExchange(context);
+            exchangeIn.getMessage().setBody("foobar");
+            assertFalse(camelProducer.send(exchangeIn).isFailed());
+        });
+
+        RecordedEvent exchange = this.only(events, "codesmell.Exchange");
+        assertFalse(exchange.getBoolean("failed"));
+        assertTrue(this.named(events, "codesmell.UnhandledFailure").isEmpty());
+        assertTrue(this.named(events, "codesmell.OnException").isEmpty());
+    }
+
+    private List<RecordedEvent> record(Runnable send) throws Exception {
+        Path file = Files.createTempFile("flightrecorder", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("codesmell.Exchange");
+            recording.enable("codesmell.Route");
+            recording.enable("codesmell.OnException");
+            recording.enable("codesmell.UnhandledFailure");
+            recording.start();
+            send.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> found = this.named(events, name);
+        assertEquals(1, found.size(), name);
+        return found.get(0);
+    }
+
+    private List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> name.equals(event.getEventType().getName()))
+            .collect(Collectors.toList());
+    }
+}
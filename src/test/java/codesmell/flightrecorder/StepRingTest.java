@@ -0,0 +1,44 @@
+package codesmell.flightrecorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StepRingTest {
+
+    @Test
+    public void test_size_rounded_up() {
+        assertEquals(2, new StepRing(1).capacity());
+        assertEquals(64, new StepRing(64).capacity());
+        assertEquals(128, new StepRing(65).capacity());
+    }
+
+    @Test
+    public void test_steps_of_one_exchange() {
+        StepRing ring = new StepRing(8);
+        ring.record("a", "fooRoute", "process[one]", 1_000);
+        ring.record("b", "fooRoute", "process[one]", 2_000);
+        ring.record("a", "grokRoute", "to[two]", 4_000);
+
+        List<String> steps = ring.stepsOf("a");
+        assertEquals(List.of("+0us fooRoute process[one]", "+3us grokRoute to[two]"), steps);
+        assertEquals(1, ring.stepsOf("b").size());
+        assertTrue(ring.stepsOf("c").isEmpty());
+    }
+
+    @Test
+    public void test_only_the_last_steps_kept() {
+        StepRing ring = new StepRing(4);
+        for (int i = 0; i < 10; i++) {
+            ring.record("a", "fooRoute", "step" + i, i * 1_000L);
+        }
+
+        List<String> steps = ring.stepsOf("a");
+        assertEquals(4, steps.size());
+        assertEquals("+0us fooRoute step6", steps.get(0));
+        assertEquals("+3us fooRoute step9", steps.get(3));
+    }
+}
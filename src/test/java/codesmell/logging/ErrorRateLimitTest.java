@@ -0,0 +1,76 @@
+package codesmell.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ErrorRateLimitTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void test_all_logged_when_not_limited() {
+        ErrorRateLimit limit = new ErrorRateLimit(0, 1000, 10, now::get);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limit.tryLog("boom"));
+        }
+    }
+
+    @Test
+    public void test_suppressed_past_the_limit() {
+        ErrorRateLimit limit = new ErrorRateLimit(2, 1000, 10, now::get);
+
+        assertEquals(0, limit.tryLog("boom"));
+        assertEquals(0, limit.tryLog("boom"));
+        assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+        assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+
+        // another error has its own window
+        assertEquals(0, limit.tryLog("bang"));
+    }
+
+    @Test
+    public void test_next_window_reports_suppressed() {
+        ErrorRateLimit limit = new ErrorRateLimit(1, 1000, 10, now::get);
+
+        assertEquals(0, limit.tryLog("boom"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(5, limit.tryLog("boom"));
+        assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(1, limit.tryLog("boom"));
+    }
+
+    @Test
+    public void test_full_keys_drop_the_finished_windows() {
+        ErrorRateLimit limit = new ErrorRateLimit(1, 1000, 2, now::get);
+
+        assertEquals(0, limit.tryLog("boom"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+        }
+        assertEquals(0, limit.tryLog("bang"));
+
+        // both still counting, so the new one is logged without a window
+        assertEquals(0, limit.tryLog("crash"));
+        assertEquals(0, limit.tryLog("crash"));
+        assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("boom"));
+        assertEquals(0, limit.takeDropped());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(0, limit.tryLog("crash"));
+        assertEquals(ErrorRateLimit.SUPPRESSED, limit.tryLog("crash"));
+
+        // what the dropped windows left out is still counted
+        assertEquals(4, limit.takeDropped());
+        assertEquals(0, limit.takeDropped());
+    }
+}
@@ -0,0 +1,72 @@
+package codesmell.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @Test
+    public void test_one_in_n_sampled() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates("fooRoute=10");
+
+        assertEquals(10, this.logged(filter, "fooRoute", Level.INFO, 100));
+    }
+
+    @Test
+    public void test_warn_and_error_not_sampled() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates("fooRoute=10");
+
+        assertEquals(100, this.logged(filter, "fooRoute", Level.WARN, 100));
+        assertEquals(100, this.logged(filter, "fooRoute", Level.ERROR, 100));
+    }
+
+    @Test
+    public void test_longest_prefix_wins() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates("codesmell=2, codesmell.camel=50");
+
+        assertEquals(2, this.logged(filter, "codesmell.camel.Foo", Level.INFO, 100));
+        assertEquals(50, this.logged(filter, "codesmell.service.Foo", Level.INFO, 100));
+        // not a prefix of the name
+        assertEquals(100, this.logged(filter, "codesmellish", Level.INFO, 100));
+    }
+
+    @Test
+    public void test_no_rates() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates("");
+
+        assertEquals(100, this.logged(filter, "fooRoute", Level.INFO, 100));
+    }
+
+    @Test
+    public void test_enabled_checks_not_counted() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRates("fooRoute=10");
+        Logger logger = loggerContext.getLogger("fooRoute");
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, null, null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "first", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, logger, Level.INFO, "second", null, null));
+    }
+
+    private int logged(SamplingTurboFilter filter, String loggerName, Level level, int lines) {
+        Logger logger = loggerContext.getLogger(loggerName);
+        int logged = 0;
+        for (int i = 0; i < lines; i++) {
+            if (filter.decide(null, logger, level, "line {}", new Object[] {i}, null) != FilterReply.DENY) {
+                logged++;
+            }
+        }
+        return logged;
+    }
+}
@@ -0,0 +1,130 @@
+package codesmell.metrics;
+
+import codesmell.camel.CamelConstants;
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * each onException block counts what it did
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(locations = "classpath:application-test.properties")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ExceptionMetricsTest {
+    
+    @Autowired
+    CamelContext context;
+    
+    @Produce
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private ExceptionMetrics exceptionMetrics;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+        exceptionMetrics.reset();
+    }
+
+    @Test
+    public void test_main_route_outcomes() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"))
+            .thenThrow(new FooBarException("boom!"))
+            .thenThrow(new SpikeException("boom!"))
+            .thenReturn("error");
+
+        for (int i = 0; i < 4; i++) {
+            camelProducer.send(CamelConstants.MAIN_ENDPOINT_URI, 
+                exchange -> exchange.getMessage().setBody("foobar"));
+        }
+
+        ExceptionStats fooBarStats = exceptionMetrics.getStats(CamelConstants.MAIN_ROUTE_ID, FooBarException.class);
+        assertNotNull(fooBarStats);
+        assertEquals(2, fooBarStats.getCount(ExceptionOutcome.HANDLED));
+        // the "error" result is a FooBarException turned into a SpikeException
+        assertEquals(1, fooBarStats.getCount(ExceptionOutcome.RETHROWN));
+        assertEquals(0, fooBarStats.getCount(ExceptionOutcome.UNHANDLED));
+
+        ExceptionStats spikeStats = exceptionMetrics.getStats(CamelConstants.MAIN_ROUTE_ID, SpikeException.class);
+        assertNotNull(spikeStats);
+        assertEquals(1, spikeStats.getCount(ExceptionOutcome.UNHANDLED));
+        assertEquals(0, spikeStats.getCount(ExceptionOutcome.HANDLED));
+    }
+
+    /**
+     * the grok sub route has no error handler
+     * so it is the main route that handles it
+     */
+    @Test
+    public void test_sub_route_counts_on_main_route() throws Exception {
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("grok went boom!"));
+
+        camelProducer.send(CamelConstants.MAIN_ENDPOINT_URI, 
+            exchange -> exchange.getMessage().setBody("grok"));
+
+        ExceptionStats stats = exceptionMetrics.getStats(CamelConstants.MAIN_ROUTE_ID, FooBarException.class);
+        assertNotNull(stats);
+        assertEquals(1, stats.getCount(ExceptionOutcome.HANDLED));
+        assertNull(exceptionMetrics.getStats(CamelConstants.GROK_ROUTE_ID, FooBarException.class));
+    }
+
+    @Test
+    public void test_route_configuration_outcomes() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenThrow(new FooBarException("boom!"))
+            .thenThrow(new SpikeException("boom!"));
+
+        for (int i = 0; i < 2; i++) {
+            camelProducer.send(CamelConstants.MAIN_CONFIGURATOR_ENDPOINT_URI, 
+                exchange -> exchange.getMessage().setBody("foobar"));
+        }
+
+        Map<String, Map<ExceptionOutcome, ExceptionStats.Snapshot>> routeSnapshot = 
+            exceptionMetrics.snapshot().get(CamelConstants.MAIN_CONFIGURATOR_ROUTE_ID);
+        assertNotNull(routeSnapshot);
+        assertEquals(1, routeSnapshot.get(FooBarException.class.getName())
+            .get(ExceptionOutcome.HANDLED).getCount());
+        assertEquals(1, routeSnapshot.get(SpikeException.class.getName())
+            .get(ExceptionOutcome.UNHANDLED).getCount());
+    }
+}
@@ -0,0 +1,90 @@
+package codesmell.metrics;
+
+import codesmell.camel.CamelConstants;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.Produce;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = "codesmell.metrics.steps.enabled=true")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class StepLatencyMetricsTest {
+    
+    @Produce
+    private ProducerTemplate camelProducer;
+
+    @Autowired
+    private StepLatencyMetrics stepLatencyMetrics;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_steps_are_timed() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenReturn("barfoo");
+        Mockito.when(mockGrokker.process(Mockito.anyString()))
+            .thenReturn("you grokked me");
+
+        camelProducer.sendBody(CamelConstants.MAIN_ENDPOINT_URI, "foobar");
+        camelProducer.sendBody(CamelConstants.MAIN_ENDPOINT_URI, "grok");
+
+        Map<String, Map<String, StepLatencyMetrics.StepLatency>> steps = stepLatencyMetrics.getSteps();
+        
+        Map<String, StepLatencyMetrics.StepLatency> mainSteps = steps.get(CamelConstants.MAIN_ROUTE_ID);
+        assertNotNull(mainSteps);
+        // both messages made it to mock:end
+        assertTrue(mainSteps.values().stream()
+            .anyMatch(step -> "to".equals(step.getType()) && step.getLatency().getCount() == 2));
+        assertTrue(mainSteps.values().stream()
+            .anyMatch(step -> "log".equals(step.getType())));
+
+        Map<String, StepLatencyMetrics.StepLatency> grokSteps = steps.get(CamelConstants.GROK_ROUTE_ID);
+        assertNotNull(grokSteps);
+        assertTrue(grokSteps.values().stream()
+            .anyMatch(step -> "process".equals(step.getType()) && step.getLatency().getCount() == 1));
+
+        stepLatencyMetrics.reset();
+        assertFalse(stepLatencyMetrics.getSteps().get(CamelConstants.MAIN_ROUTE_ID).values().stream()
+            .anyMatch(step -> step.getLatency().getCount() > 0));
+        assertEquals(0, grokSteps.values().iterator().next().getLatency().getCount());
+    }
+}
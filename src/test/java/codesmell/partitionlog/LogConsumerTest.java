@@ -0,0 +1,112 @@
+package codesmell.partitionlog;
+
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import codesmell.mock.config.MockApplicationConfig;
+import codesmell.service.FooBar;
+import codesmell.service.Grokker;
+import codesmell.service.HeisenBugger;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * handled exchanges move the committed offset on,
+ * an unhandled one pauses the partition
+ */
+@CamelSpringBootTest
+@SpringBootTest
+@Import({
+    MockApplicationConfig.class
+})
+@TestPropertySource(
+    locations = "classpath:application-test.properties", 
+    properties = {
+        "codesmell.log.enabled=true",
+        "codesmell.log.directory=target/partition-log-test/${random.uuid}",
+        "codesmell.log.partitions=1",
+        "codesmell.log.commit-batch-size=2",
+        "codesmell.log.commit-interval-ms=10",
+        "codesmell.log.poll-ms=10"
+    })
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LogConsumerTest {
+
+    @Autowired
+    private LogConsumer logConsumer;
+
+    @Autowired
+    private FooBar mockFooBar;
+    
+    @Autowired
+    private Grokker mockGrokker;
+    
+    @Autowired
+    HeisenBugger mockHeisenBugger;
+
+    @AfterEach
+    public void cleanup() {
+        Mockito.reset(mockFooBar, mockGrokker, mockHeisenBugger);
+    }
+
+    @Test
+    public void test_unhandled_exception_pauses_the_partition() throws Exception {
+        Mockito.when(mockFooBar.process(Mockito.anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(mockFooBar.process("boom"))
+            .thenThrow(new FooBarException("boom!"));
+        Mockito.when(mockFooBar.process("spike"))
+            .thenThrow(new SpikeException("spike!"))
+            .thenReturn("spike");
+
+        logConsumer.append(0, "foo");
+        logConsumer.append(0, "boom");
+        logConsumer.append(0, "spike");
+        logConsumer.append(0, "bar");
+
+        PartitionConsumer consumer = logConsumer.getConsumer(0);
+        waitFor(consumer::isPaused);
+        
+        // the handled FooBarException still counts as processed
+        assertEquals(2L, consumer.getPausedOffset());
+        assertEquals(SpikeException.class.getName(), consumer.getPausedException());
+        assertEquals(2L, consumer.getCommitted());
+        assertEquals(2L, consumer.getLag());
+        
+        // nothing moves while paused
+        Thread.sleep(50);
+        assertEquals(2L, consumer.getPosition());
+        Mockito.verify(mockFooBar, Mockito.never()).process("bar");
+
+        // the failed message is tried again
+        consumer.resume();
+        waitFor(() -> consumer.getCommitted() == 4);
+        
+        assertFalse(consumer.isPaused());
+        assertEquals(0L, consumer.getLag());
+        Mockito.verify(mockFooBar, Mockito.times(2)).process("spike");
+        Mockito.verify(mockFooBar, Mockito.times(1)).process("bar");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,90 @@
+package codesmell.partitionlog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedLogTest {
+
+    private Path directory;
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void test_append_and_read() throws Exception {
+        directory = Files.createTempDirectory("partition-log");
+        try (PartitionedLog log = new PartitionedLog(directory, 2)) {
+            for (int i = 0; i < 3000; i++) {
+                assertEquals((long) i, log.append(0, "foo-" + i));
+            }
+            assertEquals(0L, log.append(1, "bar"));
+
+            assertEquals(3000L, log.getEndOffset(0));
+            assertEquals(1L, log.getEndOffset(1));
+
+            List<LogRecord> records = log.read(0, 2500, 100);
+            assertEquals(100, records.size());
+            assertEquals(2500L, records.get(0).getOffset());
+            assertEquals("foo-2500", records.get(0).getBody());
+            assertEquals("foo-2599", records.get(99).getBody());
+
+            assertEquals(0, log.read(0, 3000, 100).size());
+            assertEquals("bar", log.read(1, 0, 100).get(0).getBody());
+        }
+    }
+
+    @Test
+    public void test_reopen_keeps_the_offsets() throws Exception {
+        directory = Files.createTempDirectory("partition-log");
+        try (PartitionedLog log = new PartitionedLog(directory, 1)) {
+            log.append(0, "foo");
+            log.append(0, "bar");
+        }
+        try (PartitionedLog log = new PartitionedLog(directory, 1)) {
+            assertEquals(2L, log.getEndOffset(0));
+            assertEquals(2L, log.append(0, "baz"));
+            assertEquals("baz", log.read(0, 2, 10).get(0).getBody());
+        }
+    }
+
+    @Test
+    public void test_same_key_same_partition() throws Exception {
+        directory = Files.createTempDirectory("partition-log");
+        try (PartitionedLog log = new PartitionedLog(directory, 4)) {
+            int partition = log.partitionFor("order-42");
+            assertEquals(partition, log.partitionFor("order-42"));
+            assertTrue(partition >= 0 && partition < 4);
+        }
+    }
+
+    @Test
+    public void test_offset_store() throws Exception {
+        directory = Files.createTempDirectory("partition-log");
+        try (OffsetStore offsets = new OffsetStore(directory, 2)) {
+            assertEquals(0L, offsets.getCommitted(0));
+            offsets.commit(0, 42);
+            offsets.commit(1, 7);
+            assertEquals(2L, offsets.getCommits());
+        }
+        try (OffsetStore offsets = new OffsetStore(directory, 2)) {
+            assertEquals(42L, offsets.getCommitted(0));
+            assertEquals(7L, offsets.getCommitted(1));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package codesmell.service;
+
+import codesmell.exception.FooBarException;
+import codesmell.exception.SpikeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchResultTest {
+
+    @Test
+    public void test_success_and_failure() {
+        BatchResult success = BatchResult.success("barfoo");
+        assertFalse(success.isFailed());
+        assertEquals("barfoo", success.get());
+        assertNull(success.getFailure());
+
+        FooBarException boom = new FooBarException("boom!");
+        BatchResult failure = BatchResult.failure(boom);
+        assertTrue(failure.isFailed());
+        assertNull(failure.getValue());
+        assertSame(boom, failure.getFailure());
+        assertSame(boom, assertThrows(FooBarException.class, failure::get));
+    }
+
+    @Test
+    public void test_each_keeps_the_failure_with_its_message() {
+        List<BatchResult> results = BatchResult.each(List.of("ok", "foo", "spike"), in -> {
+            switch (in) {
+                case "foo":
+                    throw new FooBarException("foo went boom!");
+                case "spike":
+                    throw new SpikeException("spike went boom!");
+                default:
+                    return in + "!";
+            }
+        });
+
+        assertEquals(3, results.size());
+        assertEquals("ok!", results.get(0).get());
+        assertTrue(results.get(1).getFailure() instanceof FooBarException);
+        assertEquals("foo went boom!", results.get(1).getFailure().getMessage());
+        assertTrue(results.get(2).getFailure() instanceof SpikeException);
+        assertEquals("spike went boom!", results.get(2).getFailure().getMessage());
+    }
+}
@@ -0,0 +1,64 @@
+package codesmell.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DefaultFooBarTest {
+
+    // mixes 1, 2, 3 and 4 byte code points (the last two are surrogate pairs)
+    private static final String MIXED = "foo é € bar 😀 𝄞 end";
+    private static final String MIXED_REVERSED = "dne 𝄞 😀 rab € é oof";
+
+    private final DefaultFooBar fooBar = new DefaultFooBar();
+
+    @Test
+    public void test_reverse_string() {
+        assertEquals("raboof", fooBar.process("foobar"));
+        assertEquals(MIXED_REVERSED, fooBar.process(MIXED));
+        assertNull(fooBar.process((String) null));
+    }
+
+    @Test
+    public void test_reverse_utf8_bytes() {
+        byte[] reversed = fooBar.process(MIXED.getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(MIXED_REVERSED.getBytes(StandardCharsets.UTF_8), reversed);
+        assertArrayEquals(new byte[0], fooBar.process(new byte[0]));
+        assertNull(fooBar.process((byte[]) null));
+    }
+
+    @Test
+    public void test_malformed_utf8_bytes_are_kept() {
+        byte[] malformed = { 'a', (byte) 0x80, (byte) 0xE2, 'b' };
+        byte[] reversed = fooBar.process(malformed);
+        assertArrayEquals(new byte[] { 'b', (byte) 0xE2, (byte) 0x80, 'a' }, reversed);
+    }
+
+    /**
+     * the tiny chunks split most of the multi byte code points
+     */
+    @Test
+    public void test_reverse_streaming(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("in.txt");
+        Path target = dir.resolve("out.txt");
+        StringBuilder large = new StringBuilder();
+        StringBuilder largeReversed = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            large.append(MIXED);
+            largeReversed.append(MIXED_REVERSED);
+        }
+        Files.writeString(source, large, StandardCharsets.UTF_8);
+
+        for (int chunkSize : new int[] { 4, 5, 7, 1024 }) {
+            new DefaultFooBar(chunkSize).process(source, target);
+            assertEquals(largeReversed.toString(), Files.readString(target, StandardCharsets.UTF_8));
+        }
+    }
+}
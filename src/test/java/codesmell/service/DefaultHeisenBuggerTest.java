@@ -0,0 +1,45 @@
+package codesmell.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultHeisenBuggerTest {
+
+    @Test
+    public void test_process_async_does_not_block_the_caller() throws Exception {
+        DefaultHeisenBugger heisenBugger = new DefaultHeisenBugger(200);
+
+        long start = System.nanoTime();
+        CompletableFuture<String> result = heisenBugger.processAsync("foobar").toCompletableFuture();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+        assertFalse(result.isDone());
+
+        AtomicReference<String> completedOn = new AtomicReference<>();
+        CompletableFuture<String> done = result.whenComplete(
+            (out, failure) -> completedOn.set(Thread.currentThread().getName()));
+
+        assertEquals("foobar", done.get(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread().getName(), completedOn.get());
+    }
+
+    @Test
+    public void test_process_waits_for_the_result() {
+        assertEquals("foobar", new DefaultHeisenBugger(1).process("foobar"));
+        assertEquals("foobar", new DefaultHeisenBugger(0).process("foobar"));
+        assertTrue(new DefaultHeisenBugger(0).processAsync("foobar").toCompletableFuture().isDone());
+    }
+
+    @Test
+    public void test_negative_latency() {
+        assertThrows(IllegalArgumentException.class, () -> new DefaultHeisenBugger(-1));
+    }
+}